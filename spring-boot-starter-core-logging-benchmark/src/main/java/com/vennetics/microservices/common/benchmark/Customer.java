@@ -0,0 +1,82 @@
+package com.vennetics.microservices.common.benchmark;
+
+import java.util.List;
+
+/**
+ * A typical request object without a toString, rendered field by field with
+ * the password protected.
+ */
+public class Customer {
+
+    private final long id;
+
+    private final String name;
+
+    private final String password;
+
+    private final Address address;
+
+    private final List<String> roles;
+
+    public Customer(final long id,
+                    final String name,
+                    final String password,
+                    final Address address,
+                    final List<String> roles) {
+        this.id = id;
+        this.name = name;
+        this.password = password;
+        this.address = address;
+        this.roles = roles;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * Nested value rendered field by field.
+     */
+    public static class Address {
+
+        private final String street;
+
+        private final String city;
+
+        private final String postCode;
+
+        public Address(final String street, final String city, final String postCode) {
+            this.street = street;
+            this.city = city;
+            this.postCode = postCode;
+        }
+
+        public String getStreet() {
+            return street;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public String getPostCode() {
+            return postCode;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.vennetics.microservices.common.benchmark;
+
+import java.io.Serializable;
+
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+
+/**
+ * Formats each event with its layout, as a file or console appender would,
+ * then discards it. Benchmarks measure formatting without the cost of I/O.
+ */
+@Plugin(name = "Discard", category = "Core", elementType = "appender", printObject = true)
+public final class DiscardAppender extends AbstractAppender {
+
+    private long bytes;
+
+    private DiscardAppender(final String name,
+                            final Filter filter,
+                            final Layout<? extends Serializable> layout) {
+        super(name, filter, layout);
+    }
+
+    @PluginFactory
+    public static DiscardAppender createAppender(@PluginAttribute("name") final String name,
+                                                 @PluginElement("Layout") final Layout<? extends Serializable> layout,
+                                                 @PluginElement("Filter") final Filter filter) {
+        return new DiscardAppender(name,
+                                   filter,
+                                   layout != null ? layout : PatternLayout.createDefaultLayout());
+    }
+
+    @Override
+    public void append(final LogEvent event) {
+        // Kept so the formatting cannot be optimised away
+        bytes += getLayout().toByteArray(event).length;
+    }
+
+    /**
+     * @return bytes formatted so far.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+}
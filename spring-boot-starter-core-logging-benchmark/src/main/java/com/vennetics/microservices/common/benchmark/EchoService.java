@@ -0,0 +1,16 @@
+package com.vennetics.microservices.common.benchmark;
+
+/**
+ * Plain implementation, called directly as the baseline and through a logging
+ * proxy.
+ */
+public class EchoService implements IEchoService {
+
+    @Override
+    public String echo(final String message) {
+
+        return message;
+
+    }
+
+}
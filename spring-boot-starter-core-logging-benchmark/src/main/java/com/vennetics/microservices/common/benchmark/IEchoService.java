@@ -0,0 +1,11 @@
+package com.vennetics.microservices.common.benchmark;
+
+/**
+ * Target of the advice benchmarks. Outside the logging package so it can be
+ * advised.
+ */
+public interface IEchoService {
+
+    String echo(String message);
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Classes called by the logging benchmarks
+ */
+package com.vennetics.microservices.common.benchmark;
@@ -0,0 +1,18 @@
+package com.vennetics.microservices.common.benchmark.woven;
+
+import com.vennetics.microservices.common.benchmark.IEchoService;
+
+/**
+ * As EchoService but in the only package woven at load time by
+ * META-INF/aop-logging-benchmark.xml.
+ */
+public class WovenEchoService implements IEchoService {
+
+    @Override
+    public String echo(final String message) {
+
+        return message;
+
+    }
+
+}
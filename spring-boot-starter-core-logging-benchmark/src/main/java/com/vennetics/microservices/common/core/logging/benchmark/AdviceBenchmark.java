@@ -0,0 +1,149 @@
+package com.vennetics.microservices.common.core.logging.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.aspectj.lang.Aspects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+
+import com.vennetics.microservices.common.benchmark.EchoService;
+import com.vennetics.microservices.common.benchmark.IEchoService;
+import com.vennetics.microservices.common.benchmark.woven.WovenEchoService;
+import com.vennetics.microservices.common.core.logging.LoggingConfig;
+import com.vennetics.microservices.common.core.logging.aop.CoreLoggerAdvice;
+import com.vennetics.microservices.common.core.logging.aop.WovenLoggingAspect;
+
+/**
+ * Cost of a call through the logging advice, applied by a proxy or by
+ * weaving, against the same call made directly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdviceBenchmark {
+
+    private static final String PREFIX = "com.vennetics.microservices.common.core.logging.";
+
+    private static final String TARGET_LOGGERS = "com.vennetics.microservices.common.benchmark";
+
+    /**
+     * How the advice is applied.
+     */
+    public enum Binding {
+        PROXY,
+        WOVEN
+    }
+
+    /**
+     * Called without any advice.
+     */
+    @State(Scope.Benchmark)
+    public static class Unadvised {
+
+        public IEchoService service = new EchoService();
+
+        public String message = "Hello world";
+    }
+
+    /**
+     * A logging context and the service advised by it.
+     */
+    @State(Scope.Benchmark)
+    public static class Advised {
+
+        @Param({ "PROXY", "WOVEN" })
+        public Binding binding;
+
+        /**
+         * DISABLED has debug off for the target logger, the others are
+         * verbosities with debug on and each event formatted.
+         */
+        @Param({ "DISABLED", "OFF", "EXCEPTIONS", "SLOW", "TIMING", "FULL" })
+        public String mode;
+
+        public IEchoService service;
+
+        public String message = "Hello world";
+
+        private AnnotationConfigApplicationContext context;
+
+        @Setup
+        public void setUp() {
+            final boolean disabled = "DISABLED".equals(mode);
+
+            final Map<String, Object> properties = new HashMap<>();
+            properties.put(PREFIX + "verbosity", disabled ? "FULL" : mode);
+            properties.put(PREFIX + "weaving.enabled", String.valueOf(binding == Binding.WOVEN));
+
+            context = new AnnotationConfigApplicationContext();
+            context.getEnvironment()
+                   .getPropertySources()
+                   .addFirst(new MapPropertySource("benchmark", properties));
+            context.register(BenchmarkConfig.class);
+            context.refresh();
+
+            // Ask the target logger, configured by log4j2.xml to format
+            // every event and discard it
+            Configurator.setLevel(TARGET_LOGGERS, disabled ? Level.INFO : Level.DEBUG);
+            context.getBean(CoreLoggerAdvice.class).setOverrideLogConfig(false);
+
+            if (binding == Binding.WOVEN) {
+                if (!Aspects.hasAspect(WovenLoggingAspect.class)) {
+                    throw new IllegalStateException("Not woven, run with the jmh task to use the AspectJ agent");
+                }
+                service = new WovenEchoService();
+            } else {
+                service = context.getBean(IEchoService.class);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    /**
+     * Logging with a proxied echo service.
+     */
+    @Configuration
+    @Import(LoggingConfig.class)
+    public static class BenchmarkConfig {
+
+        @Bean
+        public IEchoService echoService() {
+            return new EchoService();
+        }
+    }
+
+    @Benchmark
+    public String unadvised(final Unadvised state) {
+        return state.service.echo(state.message);
+    }
+
+    @Benchmark
+    public String advised(final Advised state) {
+        return state.service.echo(state.message);
+    }
+}
@@ -0,0 +1,100 @@
+package com.vennetics.microservices.common.core.logging.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vennetics.microservices.common.benchmark.Customer;
+import com.vennetics.microservices.common.core.logging.utils.CoreLogUtils;
+
+/**
+ * Cost of rendering an argument and a result as the StandardPjpLogger does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderingBenchmark {
+
+    /**
+     * Shape of the rendered value.
+     */
+    public enum Kind {
+        STRING,
+        POJO,
+        COLLECTION,
+        LARGE_ARRAY,
+        BYTES
+    }
+
+    @Param({ "STRING", "POJO", "COLLECTION", "LARGE_ARRAY", "BYTES" })
+    public Kind kind;
+
+    public String[] names = { "value" };
+
+    public Object[] arguments;
+
+    @Setup
+    public void setUp() {
+        arguments = new Object[] { create(kind) };
+    }
+
+    @Benchmark
+    public String argument() {
+        final StringBuilder builder = new StringBuilder();
+        CoreLogUtils.appendNamedParameters(builder, names, arguments, 1);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public String result() {
+        return CoreLogUtils.returnValueAsString(arguments[0]);
+    }
+
+    private static Object create(final Kind kind) {
+        switch (kind) {
+            case STRING:
+                return StringUtils.repeat("abcdefghij", 20);
+            case POJO:
+                return customer(1);
+            case COLLECTION:
+                final List<Customer> customers = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    customers.add(customer(i));
+                }
+                return customers;
+            case LARGE_ARRAY:
+                final int[] values = new int[100000];
+                Arrays.fill(values, 42);
+                return values;
+            case BYTES:
+                return new byte[64 * 1024];
+            default:
+                throw new IllegalArgumentException(kind.name());
+        }
+    }
+
+    private static Customer customer(final long id) {
+        return new Customer(id,
+                            "Customer " + id,
+                            "secret" + id,
+                            new Customer.Address("1 Main Street", "Belfast", "BT1 1AA"),
+                            Arrays.asList("USER", "ADMIN"));
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * JMH benchmarks of the logging advice, rendering and redaction
+ */
+package com.vennetics.microservices.common.core.logging.benchmark;
@@ -0,0 +1,20 @@
+package com.vennetics.microservices.common.core.logging;
+
+/**
+ * What asynchronous logging does when the renderer cannot keep up. The caller
+ * is never blocked; events that do not fit are dropped and counted.
+ */
+public enum AsyncOverflowPolicy {
+
+    /**
+     * Keep full events until the buffer is full, then drop new events.
+     */
+    DROP,
+
+    /**
+     * Once the buffer is three quarters full stop capturing arguments and
+     * results so only the method and outcome are logged. Drop new events when
+     * full.
+     */
+    DROP_DETAIL
+}
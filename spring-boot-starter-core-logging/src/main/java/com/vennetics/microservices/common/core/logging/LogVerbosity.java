@@ -0,0 +1,36 @@
+package com.vennetics.microservices.common.core.logging;
+
+/**
+ * How much the logging advice records for an advised method. Every level
+ * other than OFF logs exceptions.
+ */
+public enum LogVerbosity {
+
+    /**
+     * Nothing is logged, the advice only proceeds.
+     */
+    OFF,
+
+    /**
+     * Only exceptions thrown from the advised method are logged.
+     */
+    EXCEPTIONS,
+
+    /**
+     * Only calls that throw or take longer than their slow call threshold are
+     * logged, with arguments and result. Nothing is rendered for other calls.
+     * Deferred results such as futures are only logged if they fail.
+     */
+    SLOW,
+
+    /**
+     * Exceptions and the time taken by each call are logged. Arguments and
+     * results are not rendered.
+     */
+    TIMING,
+
+    /**
+     * Entry with arguments, exit with result and exceptions are logged.
+     */
+    FULL
+}
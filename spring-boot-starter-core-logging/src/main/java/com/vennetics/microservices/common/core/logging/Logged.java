@@ -0,0 +1,22 @@
+package com.vennetics.microservices.common.core.logging;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Log calls to the annotated method, or to every method of the annotated type,
+ * even where the method would otherwise not be selected by package or by the
+ * include and exclude patterns. A method annotation wins over a type
+ * annotation.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface Logged {
+
+}
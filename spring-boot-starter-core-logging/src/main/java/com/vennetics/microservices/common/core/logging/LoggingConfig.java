@@ -1,20 +1,27 @@
 package com.vennetics.microservices.common.core.logging;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
-import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
+import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
 
 /**
  * Applies logging AOP. Can be disabled by setting
- * com.vennetics.microservices.common.core.logging=false.
+ * com.vennetics.microservices.common.core.logging=false. How much is logged is
+ * controlled by {@link LoggingProperties} and the logverbosity endpoint.
+ * <P>
+ * Logging is applied with Spring AOP proxies unless
+ * com.vennetics.microservices.common.core.logging.weaving.enabled=true, in
+ * which case the application is expected to have been woven with the
+ * WovenLoggingAspect at build or load time.
  */
 @Configuration
 @ComponentScan("com.vennetics.microservices.common.core.logging")
-@EnableAspectJAutoProxy
+@EnableConfigurationProperties(LoggingProperties.class)
 @ConditionalOnProperty(
                 prefix = "com.vennetics.microservices.common.core.logging",
                 name = "auto",
@@ -23,10 +30,27 @@ import org.springframework.core.ParameterNameDiscoverer;
 public class LoggingConfig {
 
     /**
+     * Names are read by reflection when classes are compiled with -parameters,
+     * falling back to parsing the class file debug information.
+     *
      * @return a Spring parameter name discoverer for getting argument names.
      */
     @Bean
     public ParameterNameDiscoverer paramterNameDiscoverer() {
-        return new LocalVariableTableParameterNameDiscoverer();
+        return new DefaultParameterNameDiscoverer();
+    }
+
+    /**
+     * Proxies advised beans unless the application is woven.
+     */
+    @Configuration
+    @EnableAspectJAutoProxy
+    @ConditionalOnProperty(
+                    prefix = "com.vennetics.microservices.common.core.logging.weaving",
+                    name = "enabled",
+                    havingValue = "false",
+                    matchIfMissing = true)
+    static class ProxyLoggingConfig {
+
     }
 }
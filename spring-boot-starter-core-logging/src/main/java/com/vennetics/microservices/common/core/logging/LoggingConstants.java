@@ -11,6 +11,12 @@ public final class LoggingConstants {
 
     public static final int LOGGING_ADVICE_ORDER = 5;
 
+    /**
+     * Qualifies the logger that formats events, as opposed to one that
+     * queues them for formatting.
+     */
+    public static final String PJP_RENDERER = "pjpRenderer";
+
     private LoggingConstants() {
 
     }
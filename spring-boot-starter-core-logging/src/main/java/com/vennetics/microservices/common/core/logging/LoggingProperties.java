@@ -0,0 +1,876 @@
+package com.vennetics.microservices.common.core.logging;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.vennetics.microservices.common.core.logging.utils.PasswordProtectingLogUtils;
+import com.vennetics.microservices.common.core.logging.utils.RenderingLimits;
+
+/**
+ * Configuration of the logging advice. Verbosity can be set per package, class
+ * or method with the most specific name winning e.g.
+ *
+ * <pre>
+ * com.vennetics.microservices.common.core.logging.verbosity=EXCEPTIONS
+ * com.vennetics.microservices.common.core.logging.levels[com.vennetics.bss]=TIMING
+ * com.vennetics.microservices.common.core.logging.levels[com.vennetics.bss.Foo.bar]=FULL
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "com.vennetics.microservices.common.core.logging")
+public class LoggingProperties {
+
+    /**
+     * Verbosity used when no level matches an advised method.
+     */
+    private LogVerbosity verbosity = LogVerbosity.FULL;
+
+    /**
+     * Verbosity keyed by package, class or class.method name.
+     */
+    private Map<String, LogVerbosity> levels = new HashMap<>();
+
+    /**
+     * Parameter, field, header and query parameter names whose values are
+     * never logged. Setting this replaces the defaults.
+     */
+    private List<String> excludedFieldNames = new ArrayList<>(PasswordProtectingLogUtils.DEFAULT_EXCLUDED_FIELD_NAMES);
+
+    private final Async async = new Async();
+
+    private final Sampling sampling = new Sampling();
+
+    private final Metrics metrics = new Metrics();
+
+    private final Deferred deferred = new Deferred();
+
+    private final Rendering rendering = new Rendering();
+
+    private final Weaving weaving = new Weaving();
+
+    private final Selection selection = new Selection();
+
+    private final Prewarm prewarm = new Prewarm();
+
+    private final Exceptions exceptions = new Exceptions();
+
+    private final CallTree callTree = new CallTree();
+
+    private final SlowCalls slowCalls = new SlowCalls();
+
+    private final FlightRecorder flightRecorder = new FlightRecorder();
+
+    private final StackProfile stackProfile = new StackProfile();
+
+    private final HotMethods hotMethods = new HotMethods();
+
+    private final Structured structured = new Structured();
+
+    public LogVerbosity getVerbosity() {
+        return verbosity;
+    }
+
+    public void setVerbosity(final LogVerbosity verbosity) {
+        this.verbosity = verbosity;
+    }
+
+    public Map<String, LogVerbosity> getLevels() {
+        return levels;
+    }
+
+    public void setLevels(final Map<String, LogVerbosity> levels) {
+        this.levels = levels;
+    }
+
+    public List<String> getExcludedFieldNames() {
+        return excludedFieldNames;
+    }
+
+    public void setExcludedFieldNames(final List<String> excludedFieldNames) {
+        this.excludedFieldNames = excludedFieldNames;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Sampling getSampling() {
+        return sampling;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Deferred getDeferred() {
+        return deferred;
+    }
+
+    public Rendering getRendering() {
+        return rendering;
+    }
+
+    public Weaving getWeaving() {
+        return weaving;
+    }
+
+    public Selection getSelection() {
+        return selection;
+    }
+
+    public Prewarm getPrewarm() {
+        return prewarm;
+    }
+
+    public Exceptions getExceptions() {
+        return exceptions;
+    }
+
+    public CallTree getCallTree() {
+        return callTree;
+    }
+
+    public SlowCalls getSlowCalls() {
+        return slowCalls;
+    }
+
+    public FlightRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
+    public StackProfile getStackProfile() {
+        return stackProfile;
+    }
+
+    public HotMethods getHotMethods() {
+        return hotMethods;
+    }
+
+    public Structured getStructured() {
+        return structured;
+    }
+
+    /**
+     * Settings for rendering log lines off the request thread.
+     */
+    public static class Async {
+
+        /**
+         * Capture events into a ring buffer and render on a background thread.
+         */
+        private boolean enabled;
+
+        /**
+         * Number of events that can be waiting to be rendered. Rounded up to a
+         * power of two.
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * What to do when the renderer falls behind.
+         */
+        private AsyncOverflowPolicy overflowPolicy = AsyncOverflowPolicy.DROP_DETAIL;
+
+        /**
+         * Copy the caller MDC into each event so it is present when rendered.
+         */
+        private boolean captureMdc = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(final int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public AsyncOverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(final AsyncOverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public boolean isCaptureMdc() {
+            return captureMdc;
+        }
+
+        public void setCaptureMdc(final boolean captureMdc) {
+            this.captureMdc = captureMdc;
+        }
+    }
+
+    /**
+     * Settings for logging a sample of invocations per method.
+     */
+    public static class Sampling {
+
+        private SamplingStrategy strategy = SamplingStrategy.NONE;
+
+        /**
+         * N for {@link SamplingStrategy#EVERY_NTH}.
+         */
+        private int everyNth = 100;
+
+        /**
+         * Probability of logging for {@link SamplingStrategy#PROBABILISTIC}.
+         */
+        private double probability = 0.01;
+
+        /**
+         * Sustained invocations logged per second per method for
+         * {@link SamplingStrategy#TOKEN_BUCKET}. Zero logs only the burst.
+         */
+        private double ratePerSecond = 10;
+
+        /**
+         * Invocations that may be logged back to back before the rate applies
+         * for {@link SamplingStrategy#TOKEN_BUCKET}.
+         */
+        private int burst = 20;
+
+        public SamplingStrategy getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(final SamplingStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        public int getEveryNth() {
+            return everyNth;
+        }
+
+        public void setEveryNth(final int everyNth) {
+            this.everyNth = everyNth;
+        }
+
+        public double getProbability() {
+            return probability;
+        }
+
+        public void setProbability(final double probability) {
+            this.probability = probability;
+        }
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(final double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(final int burst) {
+            this.burst = burst;
+        }
+    }
+
+    /**
+     * Settings for recording per method latency histograms.
+     */
+    public static class Metrics {
+
+        /**
+         * Record the latency of every advised call.
+         */
+        private boolean enabled;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings for logging results delivered after the advised method returns,
+     * such as the items of an Observable.
+     */
+    public static class Deferred {
+
+        /**
+         * Items rendered per subscription. Later items are counted but not
+         * rendered.
+         */
+        private int maxItems = 10;
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(final int maxItems) {
+            this.maxItems = maxItems;
+        }
+    }
+
+    /**
+     * Caps on how much of an argument or result is rendered, to keep huge
+     * values out of log lines.
+     */
+    public static class Rendering {
+
+        /**
+         * Characters rendered per argument or result.
+         */
+        private int maxValueLength = RenderingLimits.DEFAULT.getMaxValueLength();
+
+        /**
+         * Characters rendered for all the arguments of a call.
+         */
+        private int maxLineLength = RenderingLimits.DEFAULT.getMaxLineLength();
+
+        /**
+         * Elements rendered per collection, map or array.
+         */
+        private int maxElements = RenderingLimits.DEFAULT.getMaxElements();
+
+        /**
+         * Leading bytes of a byte array rendered as hex.
+         */
+        private int maxBytes = RenderingLimits.DEFAULT.getMaxBytes();
+
+        public int getMaxValueLength() {
+            return maxValueLength;
+        }
+
+        public void setMaxValueLength(final int maxValueLength) {
+            this.maxValueLength = maxValueLength;
+        }
+
+        public int getMaxLineLength() {
+            return maxLineLength;
+        }
+
+        public void setMaxLineLength(final int maxLineLength) {
+            this.maxLineLength = maxLineLength;
+        }
+
+        public int getMaxElements() {
+            return maxElements;
+        }
+
+        public void setMaxElements(final int maxElements) {
+            this.maxElements = maxElements;
+        }
+
+        public int getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(final int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    /**
+     * Settings for applying the advice by AspectJ weaving instead of proxies.
+     */
+    public static class Weaving {
+
+        /**
+         * The application has been woven with the WovenLoggingAspect at build
+         * time or by the AspectJ agent, so no logging proxies are created.
+         */
+        private boolean enabled;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Which methods are advised, decided once per method. Patterns are
+     * matched against class.method names and may use * wildcards e.g.
+     *
+     * <pre>
+     * com.vennetics.microservices.common.core.logging.selection.excludes=*.get*,*.set*,*.is*
+     * </pre>
+     *
+     * {@link Logged} and {@link NotLogged} annotations take precedence over
+     * the patterns.
+     */
+    public static class Selection {
+
+        /**
+         * When set only matching methods are advised rather than every method
+         * in a com.vennetics package.
+         */
+        private List<String> includes = new ArrayList<>();
+
+        /**
+         * Methods that are never advised.
+         */
+        private List<String> excludes = new ArrayList<>();
+
+        public List<String> getIncludes() {
+            return includes;
+        }
+
+        public void setIncludes(final List<String> includes) {
+            this.includes = includes;
+        }
+
+        public List<String> getExcludes() {
+            return excludes;
+        }
+
+        public void setExcludes(final List<String> excludes) {
+            this.excludes = excludes;
+        }
+    }
+
+    /**
+     * Settings for preparing advised methods during startup.
+     */
+    public static class Prewarm {
+
+        /**
+         * Resolve parameter names, loggers and selection for every advised
+         * bean method before the context is refreshed rather than on the
+         * first call to each.
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings for limiting repeated exception logging when a dependency
+     * fails.
+     */
+    public static class Exceptions {
+
+        /**
+         * Exceptions with the same fingerprint are logged in full at most
+         * once per window. Zero logs every exception.
+         */
+        private int windowSeconds = 60;
+
+        /**
+         * Number of top stack frames combined with the exception type to
+         * form the fingerprint.
+         */
+        private int stackFrames = 8;
+
+        /**
+         * Fingerprints tracked at once. Beyond this new fingerprints are
+         * logged every time.
+         */
+        private int maxFingerprints = 1000;
+
+        public int getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(final int windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        public int getStackFrames() {
+            return stackFrames;
+        }
+
+        public void setStackFrames(final int stackFrames) {
+            this.stackFrames = stackFrames;
+        }
+
+        public int getMaxFingerprints() {
+            return maxFingerprints;
+        }
+
+        public void setMaxFingerprints(final int maxFingerprints) {
+            this.maxFingerprints = maxFingerprints;
+        }
+    }
+
+    /**
+     * Settings for logging one call tree per outermost advised call.
+     */
+    public static class CallTree {
+
+        private boolean enabled;
+
+        /**
+         * Trees whose outermost call took less than this are not logged.
+         */
+        private long thresholdMillis;
+
+        /**
+         * Distinct caller and method pairs kept per tree.
+         */
+        private int maxNodes = 128;
+
+        /**
+         * Nesting depth beyond which calls are not given nodes.
+         */
+        private int maxDepth = 32;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getThresholdMillis() {
+            return thresholdMillis;
+        }
+
+        public void setThresholdMillis(final long thresholdMillis) {
+            this.thresholdMillis = thresholdMillis;
+        }
+
+        public int getMaxNodes() {
+            return maxNodes;
+        }
+
+        public void setMaxNodes(final int maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(final int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+    }
+
+    /**
+     * Thresholds for methods logged with {@link LogVerbosity#SLOW}. Can be
+     * set per package, class or method with the most specific name winning
+     * e.g.
+     *
+     * <pre>
+     * com.vennetics.microservices.common.core.logging.slow-calls.threshold-millis=500
+     * com.vennetics.microservices.common.core.logging.slow-calls.thresholds[com.vennetics.bss.Foo.bar]=50
+     * </pre>
+     */
+    public static class SlowCalls {
+
+        /**
+         * Calls taking at least this long are logged when no threshold
+         * matches the method.
+         */
+        private long thresholdMillis = 500;
+
+        /**
+         * Thresholds in milliseconds keyed by package, class or class.method
+         * name.
+         */
+        private Map<String, Long> thresholds = new HashMap<>();
+
+        public long getThresholdMillis() {
+            return thresholdMillis;
+        }
+
+        public void setThresholdMillis(final long thresholdMillis) {
+            this.thresholdMillis = thresholdMillis;
+        }
+
+        public Map<String, Long> getThresholds() {
+            return thresholds;
+        }
+
+        public void setThresholds(final Map<String, Long> thresholds) {
+            this.thresholds = thresholds;
+        }
+    }
+
+    /**
+     * Settings for recording the last advised invocations on each thread.
+     */
+    public static class FlightRecorder {
+
+        private boolean enabled;
+
+        /**
+         * Invocations kept per thread.
+         */
+        private int size = 64;
+
+        /**
+         * Nesting depth beyond which argument digests are not recorded.
+         */
+        private int maxDepth = 32;
+
+        /**
+         * Record a hash of simple argument values with each invocation.
+         */
+        private boolean argumentDigests;
+
+        /**
+         * Log a thread's invocations when an exception escapes its outermost
+         * advised call.
+         */
+        private boolean dumpOnError = true;
+
+        /**
+         * Minimum time between logged dumps.
+         */
+        private long dumpIntervalMillis = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(final int size) {
+            this.size = size;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(final int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public boolean isArgumentDigests() {
+            return argumentDigests;
+        }
+
+        public void setArgumentDigests(final boolean argumentDigests) {
+            this.argumentDigests = argumentDigests;
+        }
+
+        public boolean isDumpOnError() {
+            return dumpOnError;
+        }
+
+        public void setDumpOnError(final boolean dumpOnError) {
+            this.dumpOnError = dumpOnError;
+        }
+
+        public long getDumpIntervalMillis() {
+            return dumpIntervalMillis;
+        }
+
+        public void setDumpIntervalMillis(final long dumpIntervalMillis) {
+            this.dumpIntervalMillis = dumpIntervalMillis;
+        }
+    }
+
+    /**
+     * Settings for the aggregated profile of advised method stacks.
+     */
+    public static class StackProfile {
+
+        private boolean enabled;
+
+        /**
+         * Distinct stacks recorded. Calls on new stacks beyond this count as
+         * self time of their caller.
+         */
+        private int maxStacks = 10000;
+
+        /**
+         * Nesting depth beyond which calls count as self time of their
+         * caller.
+         */
+        private int maxDepth = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxStacks() {
+            return maxStacks;
+        }
+
+        public void setMaxStacks(final int maxStacks) {
+            this.maxStacks = maxStacks;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(final int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+    }
+
+    /**
+     * Settings for demoting methods whose advice costs more than it is worth
+     * to a pass-through fast path.
+     */
+    public static class HotMethods {
+
+        private boolean enabled;
+
+        /**
+         * Each method is evaluated once per window.
+         */
+        private long windowMillis = 10000;
+
+        /**
+         * One in this many calls has its body timed.
+         */
+        private int measureEvery = 64;
+
+        /**
+         * Methods called more often than this are demoted. Zero disables the
+         * rate check.
+         */
+        private double maxCallsPerSecond = 50000;
+
+        /**
+         * Estimated cost of the advice per call, compared to the body time.
+         */
+        private long adviceOverheadNanos = 200;
+
+        /**
+         * Methods whose estimated advice overhead exceeds their mean body
+         * time times this ratio are demoted. Zero disables the overhead
+         * check.
+         */
+        private double maxOverheadRatio = 1.0;
+
+        /**
+         * The overhead check only applies to methods called at least this
+         * often.
+         */
+        private double minCallsPerSecond = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getWindowMillis() {
+            return windowMillis;
+        }
+
+        public void setWindowMillis(final long windowMillis) {
+            this.windowMillis = windowMillis;
+        }
+
+        public int getMeasureEvery() {
+            return measureEvery;
+        }
+
+        public void setMeasureEvery(final int measureEvery) {
+            this.measureEvery = measureEvery;
+        }
+
+        public double getMaxCallsPerSecond() {
+            return maxCallsPerSecond;
+        }
+
+        public void setMaxCallsPerSecond(final double maxCallsPerSecond) {
+            this.maxCallsPerSecond = maxCallsPerSecond;
+        }
+
+        public long getAdviceOverheadNanos() {
+            return adviceOverheadNanos;
+        }
+
+        public void setAdviceOverheadNanos(final long adviceOverheadNanos) {
+            this.adviceOverheadNanos = adviceOverheadNanos;
+        }
+
+        public double getMaxOverheadRatio() {
+            return maxOverheadRatio;
+        }
+
+        public void setMaxOverheadRatio(final double maxOverheadRatio) {
+            this.maxOverheadRatio = maxOverheadRatio;
+        }
+
+        public double getMinCallsPerSecond() {
+            return minCallsPerSecond;
+        }
+
+        public void setMinCallsPerSecond(final double minCallsPerSecond) {
+            this.minCallsPerSecond = minCallsPerSecond;
+        }
+    }
+
+    /**
+     * Settings for logging advised calls as single line structured events
+     * instead of the standard multi-line text.
+     */
+    public static class Structured {
+
+        private boolean enabled;
+
+        private StructuredLogFormat format = StructuredLogFormat.JSON;
+
+        /**
+         * Characters of encoding buffer kept per thread between events.
+         * Larger buffers grown by big events are discarded.
+         */
+        private int maxRetainedBuffer = 16384;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public StructuredLogFormat getFormat() {
+            return format;
+        }
+
+        public void setFormat(final StructuredLogFormat format) {
+            this.format = format;
+        }
+
+        public int getMaxRetainedBuffer() {
+            return maxRetainedBuffer;
+        }
+
+        public void setMaxRetainedBuffer(final int maxRetainedBuffer) {
+            this.maxRetainedBuffer = maxRetainedBuffer;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.vennetics.microservices.common.core.logging;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Never advise the annotated method, or the methods of the annotated type, so
+ * trivial or very hot calls pay nothing for logging. A method annotation wins
+ * over a type annotation.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface NotLogged {
+
+}
@@ -0,0 +1,29 @@
+package com.vennetics.microservices.common.core.logging;
+
+/**
+ * How the logging advice chooses which invocations of a method to log. The
+ * decision is made before any argument is rendered. Exceptions are always
+ * logged.
+ */
+public enum SamplingStrategy {
+
+    /**
+     * Every invocation is logged.
+     */
+    NONE,
+
+    /**
+     * One in every N invocations of each method is logged.
+     */
+    EVERY_NTH,
+
+    /**
+     * Each invocation is logged with a fixed probability.
+     */
+    PROBABILISTIC,
+
+    /**
+     * Each method may log a sustained rate per second with bursts.
+     */
+    TOKEN_BUCKET
+}
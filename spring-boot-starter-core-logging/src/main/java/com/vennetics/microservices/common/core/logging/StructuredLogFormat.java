@@ -0,0 +1,19 @@
+package com.vennetics.microservices.common.core.logging;
+
+/**
+ * Encoding of single line advised method log events.
+ */
+public enum StructuredLogFormat {
+
+    /**
+     * One JSON object per event, arguments nested under args e.g.
+     * {"event":"entry","class":"a.B","method":"find","args":{"id":"42"}}
+     */
+    JSON,
+
+    /**
+     * Space separated key=value pairs with quoted string values e.g.
+     * event=entry class="a.B" method="find" args.id="42"
+     */
+    KEY_VALUE
+}
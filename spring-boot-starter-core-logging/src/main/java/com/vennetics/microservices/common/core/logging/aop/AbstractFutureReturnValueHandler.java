@@ -0,0 +1,85 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+
+/**
+ * Base for handlers logging the eventual outcome of a future. Latency is
+ * measured from the start of the advised call to completion, not to the
+ * return of the future. At {@link LogVerbosity#SLOW} completions are logged
+ * as slow calls if they took at least the threshold of the
+ * {@link SlowCallPolicy}, failures are always logged.
+ */
+public abstract class AbstractFutureReturnValueHandler implements IReturnValueHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractFutureReturnValueHandler.class);
+
+    private final SlowCallPolicy slowCallPolicy;
+
+    protected AbstractFutureReturnValueHandler(final SlowCallPolicy slowCallPolicy) {
+        super();
+        this.slowCallPolicy = slowCallPolicy;
+    }
+
+    /**
+     * Log a completed future. Called on whichever thread completed it.
+     *
+     * @param descriptor
+     * @param arguments
+     *            null unless the verbosity is SLOW.
+     * @param pjpLogger
+     * @param verbosity
+     * @param startNanos
+     * @param result
+     * @param failure
+     *            the failure or null if the future completed normally.
+     */
+    protected void logCompletion(final JoinPointDescriptor descriptor,
+                                 final Object[] arguments,
+                                 final IProceedingJoinPointLogger pjpLogger,
+                                 final LogVerbosity verbosity,
+                                 final long startNanos,
+                                 final Object result,
+                                 final Throwable failure) {
+        try {
+            if (verbosity == LogVerbosity.SLOW) {
+                logSlowCompletion(descriptor, arguments, pjpLogger, startNanos, result, failure);
+            } else if (failure != null) {
+                pjpLogger.logException(descriptor, unwrap(failure));
+            } else if (verbosity == LogVerbosity.FULL) {
+                pjpLogger.logFutureCompleted(descriptor, result, System.nanoTime() - startNanos);
+            } else if (verbosity == LogVerbosity.TIMING) {
+                pjpLogger.logMethodTime(descriptor, System.nanoTime() - startNanos);
+            }
+        } catch (final RuntimeException e) {
+            logger.warn("Failed to log future completion.", e);
+        }
+    }
+
+    private void logSlowCompletion(final JoinPointDescriptor descriptor,
+                                   final Object[] arguments,
+                                   final IProceedingJoinPointLogger pjpLogger,
+                                   final long startNanos,
+                                   final Object result,
+                                   final Throwable failure) {
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        if (failure != null) {
+            pjpLogger.logSlowCall(descriptor, arguments, null, unwrap(failure), elapsedNanos);
+        } else if (elapsedNanos >= slowCallPolicy.getThresholdNanos(descriptor)) {
+            pjpLogger.logSlowCall(descriptor, arguments, result, null, elapsedNanos);
+        }
+    }
+
+    private static Throwable unwrap(final Throwable failure) {
+        if ((failure instanceof CompletionException || failure instanceof ExecutionException)
+            && failure.getCause() != null) {
+            return failure.getCause();
+        }
+        return failure;
+    }
+}
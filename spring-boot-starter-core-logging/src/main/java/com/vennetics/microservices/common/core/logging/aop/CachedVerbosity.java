@@ -0,0 +1,27 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+
+/**
+ * A verbosity decision cached on a {@link JoinPointDescriptor} along with the
+ * rules it was resolved from.
+ */
+final class CachedVerbosity {
+
+    private final VerbosityRules rules;
+
+    private final LogVerbosity verbosity;
+
+    CachedVerbosity(final VerbosityRules rules, final LogVerbosity verbosity) {
+        this.rules = rules;
+        this.verbosity = verbosity;
+    }
+
+    VerbosityRules getRules() {
+        return rules;
+    }
+
+    LogVerbosity getVerbosity() {
+        return verbosity;
+    }
+}
@@ -0,0 +1,45 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.concurrent.CompletionStage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+
+/**
+ * Logs the outcome of CompletableFuture and other CompletionStage results
+ * when they complete. The caller receives the original stage.
+ */
+@Component
+public class CompletionStageReturnValueHandler extends AbstractFutureReturnValueHandler {
+
+    @Autowired(required = true)
+    public CompletionStageReturnValueHandler(final SlowCallPolicy slowCallPolicy) {
+        super(slowCallPolicy);
+    }
+
+    @Override
+    public boolean supports(final JoinPointDescriptor descriptor, final Object returnValue) {
+        return returnValue instanceof CompletionStage;
+    }
+
+    @Override
+    public Object decorate(final JoinPointDescriptor descriptor,
+                           final Object returnValue,
+                           final Object[] arguments,
+                           final IProceedingJoinPointLogger pjpLogger,
+                           final LogVerbosity verbosity,
+                           final long startNanos) {
+
+        // The dependent stage is discarded so its outcome can't affect the caller
+        ((CompletionStage<?>) returnValue).whenComplete((result, failure) -> logCompletion(descriptor,
+                                                                                           arguments,
+                                                                                           pjpLogger,
+                                                                                           verbosity,
+                                                                                           startNanos,
+                                                                                           result,
+                                                                                           failure));
+        return returnValue;
+    }
+}
@@ -1,34 +1,67 @@
 package com.vennetics.microservices.common.core.logging.aop;
 
+import java.util.List;
+
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.Around;
-import org.aspectj.lang.annotation.Aspect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.Ordered;
 import org.springframework.stereotype.Component;
 
-import com.vennetics.microservices.common.core.logging.LoggingConstants;
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
 
 /**
- * Advice that wraps calls with logging entry, exit and on exception cases.
+ * Advice that wraps calls with logging entry, exit and on exception cases. How
+ * much is logged per method is decided by the {@link LogVerbosityManager}.
+ * <P>
+ * Bound to advised methods by the {@link ProxyLoggingAdvisor} or, when the
+ * application is woven, the {@link WovenLoggingAspect}.
  */
 @Component
-@Aspect
-public class CoreLoggerAdvice implements Ordered {
+public class CoreLoggerAdvice {
 
     private static final Logger logger = LoggerFactory.getLogger(CoreLoggerAdvice.class.getName());
 
     private final IProceedingJoinPointLogger proceedingJoinPointLogger;
 
+    private final JoinPointDescriptorRegistry descriptorRegistry;
+
+    private final LogVerbosityManager verbosityManager;
+
+    private final LogSampler logSampler;
+
+    private final SlowCallPolicy slowCallPolicy;
+
+    private final HotMethodDetector hotMethodDetector;
+
+    private final ReturnValueHandlerRegistry returnValueHandlerRegistry;
+
+    private final ExceptionLogThrottle exceptionLogThrottle;
+
+    private IInvocationListener[] invocationListeners = new IInvocationListener[0];
+
+    private boolean listenerArgumentsRequired;
+
     private boolean overrideLogConfig;
 
     @Autowired
-    public CoreLoggerAdvice(@Qualifier("standardPjpLogger") final IProceedingJoinPointLogger proceedingJoinPointLogger) {
+    public CoreLoggerAdvice(final IProceedingJoinPointLogger proceedingJoinPointLogger,
+                            final JoinPointDescriptorRegistry descriptorRegistry,
+                            final LogVerbosityManager verbosityManager,
+                            final LogSampler logSampler,
+                            final SlowCallPolicy slowCallPolicy,
+                            final HotMethodDetector hotMethodDetector,
+                            final ReturnValueHandlerRegistry returnValueHandlerRegistry,
+                            final ExceptionLogThrottle exceptionLogThrottle) {
         super();
         this.proceedingJoinPointLogger = proceedingJoinPointLogger;
+        this.descriptorRegistry = descriptorRegistry;
+        this.verbosityManager = verbosityManager;
+        this.logSampler = logSampler;
+        this.slowCallPolicy = slowCallPolicy;
+        this.hotMethodDetector = hotMethodDetector;
+        this.returnValueHandlerRegistry = returnValueHandlerRegistry;
+        this.exceptionLogThrottle = exceptionLogThrottle;
         overrideLogConfig = true;
         logger.debug("Initialised CoreLoggerAdvice");
     }
@@ -40,35 +73,242 @@ public class CoreLoggerAdvice implements Ordered {
      * @return the result from the target object.
      * @throws Throwable
      */
-    @Around("LoggingPointcuts.inLoggingPointCut()")
     // Allow throwable as needed by AOP.
     // Allow targetObjectLogger as used as a member rather than static
     // so logging can be enabled/disabled on the fly for the target object.
     @SuppressWarnings({ "squid:S00112", "squid:S1312" })
     public Object doLogging(final ProceedingJoinPoint pjp) throws Throwable {
 
-        // Base logger on target object if available
-        final Logger targetObjectLogger = LoggerFactory.getLogger(pjp.getTarget().getClass());
+        // Logger, names etc. resolved once per target class and method
+        final JoinPointDescriptor descriptor = descriptorRegistry.getDescriptor(pjp);
+
+        // Only reachable for unselected methods when woven, proxies skip them
+        if (!descriptor.isSelected()) {
+            return pjp.proceed();
+        }
+
+        // Demoted because the advice costs more than the method. Listeners
+        // still see the call so latency, call trees and profiles stay whole.
+        if (descriptor.getHotMethodState().isDemoted()) {
+            return proceed(descriptor, pjp, false);
+        }
+
+        final LogVerbosity verbosity = verbosityManager.getVerbosity(descriptor);
 
-        if (isDebugEnabled(targetObjectLogger)) {
-            try {
-                tryLogEntry(pjp, targetObjectLogger);
+        // Fast path - nothing rendered or allocated by the advice
+        if (verbosity == LogVerbosity.OFF || !isDebugEnabled(descriptor.getLogger())) {
+            return proceed(descriptor, pjp);
+        }
 
-                final Object result = pjp.proceed();
+        // Scopes which exceptions are rethrown to the calls open on this thread
+        exceptionLogThrottle.enterCall();
+        try {
+            return proceedWithLogging(descriptor, pjp, verbosity);
+        } finally {
+            exceptionLogThrottle.exitCall();
+        }
+    }
 
-                tryLogExit(pjp, targetObjectLogger, result);
+    @SuppressWarnings({ "squid:S00112" })
+    private Object proceedWithLogging(final JoinPointDescriptor descriptor,
+                                      final ProceedingJoinPoint pjp,
+                                      final LogVerbosity verbosity) throws Throwable {
 
-                return result;
-            } catch (final Exception e) {
+        // Only slow calls are rendered, so there is nothing to sample
+        if (verbosity == LogVerbosity.SLOW) {
+            return proceedWithSlowCallLogging(descriptor, pjp);
+        }
 
-                tryLogException(pjp, targetObjectLogger, e);
+        // Sample before anything is rendered. Exceptions are always logged.
+        if (verbosity == LogVerbosity.EXCEPTIONS || !logSampler.sample(descriptor)) {
+            return proceedWithExceptionLogging(descriptor, pjp);
+        }
 
-                throw e;
+        switch (verbosity) {
+            case FULL:
+                return proceedWithFullLogging(descriptor, pjp);
+            case TIMING:
+                return proceedWithTimeLogging(descriptor, pjp);
+            default:
+                return proceedWithExceptionLogging(descriptor, pjp);
+        }
+    }
+
+    @SuppressWarnings({ "squid:S00112" })
+    private Object proceedWithFullLogging(final JoinPointDescriptor descriptor,
+                                          final ProceedingJoinPoint pjp) throws Throwable {
+        try {
+            tryLogEntry(descriptor, pjp);
+
+            final long start = System.nanoTime();
+
+            final Object result = proceed(descriptor, pjp);
+
+            final IReturnValueHandler handler = returnValueHandlerRegistry.getHandler(descriptor,
+                                                                                      result);
+            if (handler != null) {
+                return tryDecorate(handler, descriptor, result, null, LogVerbosity.FULL, start);
             }
+
+            tryLogExit(descriptor, result);
+
+            return result;
+        } catch (final Exception e) {
+
+            tryLogException(descriptor, e);
+
+            throw e;
         }
+    }
+
+    @SuppressWarnings({ "squid:S00112" })
+    private Object proceedWithTimeLogging(final JoinPointDescriptor descriptor,
+                                          final ProceedingJoinPoint pjp) throws Throwable {
+        final long start = System.nanoTime();
+        try {
+            final Object result = proceed(descriptor, pjp);
+
+            // Deferred results are timed to completion by their handler
+            final IReturnValueHandler handler = returnValueHandlerRegistry.getHandler(descriptor,
+                                                                                      result);
+            if (handler != null) {
+                return tryDecorate(handler, descriptor, result, null, LogVerbosity.TIMING, start);
+            }
+
+            tryLogTime(descriptor, System.nanoTime() - start);
 
-        // Continue
-        return pjp.proceed();
+            return result;
+        } catch (final Exception e) {
+
+            tryLogException(descriptor, e);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Only the start time is held while the call runs. Arguments are fetched
+     * from the join point and rendered only if the call turns out to be slow
+     * or throws, so they are logged in their state after the call.
+     */
+    @SuppressWarnings({ "squid:S00112" })
+    private Object proceedWithSlowCallLogging(final JoinPointDescriptor descriptor,
+                                              final ProceedingJoinPoint pjp) throws Throwable {
+        final long start = System.nanoTime();
+        final Object result;
+        try {
+            result = proceed(descriptor, pjp);
+        } catch (final Exception e) {
+
+            tryLogSlowCall(descriptor, pjp, null, e, System.nanoTime() - start);
+
+            throw e;
+        }
+
+        final IReturnValueHandler handler = returnValueHandlerRegistry.getHandler(descriptor, result);
+        if (handler != null) {
+            return tryDecorate(handler, descriptor, result, pjp.getArgs(), LogVerbosity.SLOW, start);
+        }
+
+        final long elapsedNanos = System.nanoTime() - start;
+        if (elapsedNanos >= slowCallPolicy.getThresholdNanos(descriptor)) {
+            tryLogSlowCall(descriptor, pjp, result, null, elapsedNanos);
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings({ "squid:S00112" })
+    private Object proceedWithExceptionLogging(final JoinPointDescriptor descriptor,
+                                               final ProceedingJoinPoint pjp) throws Throwable {
+        try {
+            final Object result = proceed(descriptor, pjp);
+
+            final IReturnValueHandler handler = returnValueHandlerRegistry.getHandler(descriptor,
+                                                                                      result);
+            if (handler != null) {
+                return tryDecorate(handler, descriptor, result, null, LogVerbosity.EXCEPTIONS, 0L);
+            }
+
+            return result;
+        } catch (final Exception e) {
+
+            tryLogException(descriptor, e);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Proceed with the advised method, notifying any invocation listeners and
+     * timing the body when the hot method detector asks.
+     */
+    @SuppressWarnings({ "squid:S00112" })
+    private Object proceed(final JoinPointDescriptor descriptor, final ProceedingJoinPoint pjp) throws Throwable {
+        return proceed(descriptor, pjp, hotMethodDetector.countCall(descriptor));
+    }
+
+    @SuppressWarnings({ "squid:S00112" })
+    private Object proceed(final JoinPointDescriptor descriptor,
+                           final ProceedingJoinPoint pjp,
+                           final boolean measure) throws Throwable {
+
+        final IInvocationListener[] listeners = invocationListeners;
+        if (listeners.length == 0 && !measure) {
+            return pjp.proceed();
+        }
+
+        final Object[] arguments = listenerArgumentsRequired ? pjp.getArgs() : null;
+        for (final IInvocationListener listener : listeners) {
+            tryNotifyBefore(listener, descriptor, arguments);
+        }
+
+        final long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return pjp.proceed();
+        } catch (final Throwable t) { // NOPMD
+            failure = t;
+            throw t;
+        } finally {
+            final long end = System.nanoTime();
+            final long elapsedNanos = end - start;
+            if (measure) {
+                tryRecordBody(descriptor, elapsedNanos, end);
+            }
+            for (final IInvocationListener listener : listeners) {
+                tryNotifyAfter(listener, descriptor, elapsedNanos, failure);
+            }
+        }
+    }
+
+    private void tryRecordBody(final JoinPointDescriptor descriptor, final long elapsedNanos, final long end) {
+        try {
+            hotMethodDetector.recordBody(descriptor, elapsedNanos, end);
+        } catch (final RuntimeException e) {
+            logger.warn("Failed to record method body time.", e);
+        }
+    }
+
+    private static void tryNotifyBefore(final IInvocationListener listener,
+                                        final JoinPointDescriptor descriptor,
+                                        final Object[] arguments) {
+        try {
+            listener.beforeInvocation(descriptor, arguments);
+        } catch (final RuntimeException e) {
+            logger.warn("Invocation listener {} failed", listener, e);
+        }
+    }
+
+    private static void tryNotifyAfter(final IInvocationListener listener,
+                                       final JoinPointDescriptor descriptor,
+                                       final long elapsedNanos,
+                                       final Throwable failure) {
+        try {
+            listener.afterInvocation(descriptor, elapsedNanos, failure);
+        } catch (final RuntimeException e) {
+            logger.warn("Invocation listener {} failed", listener, e);
+        }
     }
 
     /**
@@ -89,42 +329,90 @@ public class CoreLoggerAdvice implements Ordered {
         return targetObjectLogger.isDebugEnabled();
     }
 
-    private void tryLogException(final ProceedingJoinPoint pjp,
-                                 final Logger targetObjectLogger,
-                                 final Exception e) {
+    private void tryLogException(final JoinPointDescriptor descriptor, final Exception e) {
         try {
-            proceedingJoinPointLogger.logException(targetObjectLogger, pjp, e);
+            // Logged once by the innermost call it was thrown through
+            if (exceptionLogThrottle.markThrown(e)) {
+                proceedingJoinPointLogger.logException(descriptor, e);
+            }
         } catch (final RuntimeException e2) {
             logger.warn("Failed to log method exception", e2);
         }
     }
 
-    private void tryLogExit(final ProceedingJoinPoint pjp,
-                            final Logger targetObjectLogger,
-                            final Object result) {
+    private void tryLogExit(final JoinPointDescriptor descriptor, final Object result) {
         try {
-            proceedingJoinPointLogger.logMethodExit(targetObjectLogger, pjp, result);
+            proceedingJoinPointLogger.logMethodExit(descriptor, result);
         } catch (final RuntimeException e) {
             logger.warn("Failed to log method exit.", e);
         }
     }
 
-    private void tryLogEntry(final ProceedingJoinPoint pjp, final Logger targetObjectLogger) {
+    /**
+     * Decorate a deferred result, falling back to the undecorated value.
+     */
+    private Object tryDecorate(final IReturnValueHandler handler,
+                               final JoinPointDescriptor descriptor,
+                               final Object result,
+                               final Object[] arguments,
+                               final LogVerbosity verbosity,
+                               final long startNanos) {
         try {
-            proceedingJoinPointLogger.logMethodEntry(targetObjectLogger, pjp);
+            return handler.decorate(descriptor,
+                                    result,
+                                    arguments,
+                                    proceedingJoinPointLogger,
+                                    verbosity,
+                                    startNanos);
         } catch (final RuntimeException e) {
-            logger.warn("Failed to log method entry.", e);
+            logger.warn("Failed to decorate method result.", e);
+            return result;
         }
     }
 
-    public void setOverrideLogConfig(final boolean overrideLogConfig) {
-        this.overrideLogConfig = overrideLogConfig;
+    private void tryLogTime(final JoinPointDescriptor descriptor, final long elapsedNanos) {
+        try {
+            proceedingJoinPointLogger.logMethodTime(descriptor, elapsedNanos);
+        } catch (final RuntimeException e) {
+            logger.warn("Failed to log method time.", e);
+        }
     }
 
-    @Override
-    public int getOrder() {
+    private void tryLogSlowCall(final JoinPointDescriptor descriptor,
+                                final ProceedingJoinPoint pjp,
+                                final Object result,
+                                final Exception failure,
+                                final long elapsedNanos) {
+        try {
+            if (failure == null || exceptionLogThrottle.markThrown(failure)) {
+                proceedingJoinPointLogger.logSlowCall(descriptor, pjp.getArgs(), result, failure, elapsedNanos);
+            }
+        } catch (final RuntimeException e) {
+            logger.warn("Failed to log slow call.", e);
+        }
+    }
+
+    private void tryLogEntry(final JoinPointDescriptor descriptor, final ProceedingJoinPoint pjp) {
+        try {
+            proceedingJoinPointLogger.logMethodEntry(descriptor, pjp.getArgs());
+        } catch (final RuntimeException e) {
+            logger.warn("Failed to log method entry.", e);
+        }
+    }
 
-        return LoggingConstants.LOGGING_ADVICE_ORDER;
+    /**
+     * @param invocationListeners
+     *            notified around every advised invocation.
+     */
+    @Autowired(required = false)
+    public void setInvocationListeners(final List<IInvocationListener> invocationListeners) {
+        this.invocationListeners = invocationListeners.toArray(new IInvocationListener[invocationListeners.size()]);
+        listenerArgumentsRequired = invocationListeners.stream()
+                                                       .anyMatch(IInvocationListener::isArgumentsRequired);
+    }
+
+    public void setOverrideLogConfig(final boolean overrideLogConfig) {
+        this.overrideLogConfig = overrideLogConfig;
     }
 
 }
@@ -33,13 +33,18 @@ public class CoreParameterNameDiscoverer implements ICoreParameterNameDiscoverer
 
         // Get from signature
         final MethodSignature signature = (MethodSignature) pjp.getSignature();
-        Method method = signature.getMethod();
-        if (method.getDeclaringClass().isInterface()) {
+        final Object target = pjp.getTarget();
+        return getParamNames(signature.getMethod(), target != null ? target.getClass() : null);
+    }
+
+    @Override
+    public String[] getParamNames(final Method signatureMethod, final Class<?> targetClass) {
+
+        Method method = signatureMethod;
+        if (method.getDeclaringClass().isInterface() && targetClass != null) {
             try {
-                method = pjp.getTarget()
-                            .getClass()
-                            .getDeclaredMethod(pjp.getSignature().getName(),
-                                               method.getParameterTypes());
+                method = targetClass.getDeclaredMethod(method.getName(),
+                                                       method.getParameterTypes());
             } catch (final SecurityException e) {
                 logger.trace("SecurityException Failed to get param names ", e);
             } catch (final NoSuchMethodException e) {
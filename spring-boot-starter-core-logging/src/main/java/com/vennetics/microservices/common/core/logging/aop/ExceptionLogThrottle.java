@@ -0,0 +1,324 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+/**
+ * Limits how often exceptions of the same kind are logged in full.
+ * <P>
+ * An exception is fingerprinted by its type and its top stack frames. The
+ * first occurrence of a fingerprint in a window is logged, later ones in the
+ * same window are counted and reported when the fingerprint is next logged.
+ * Counts left in windows that have expired are flushed to the logger of the
+ * call that was suppressed last, so the size of a storm is reported once it
+ * stops. Nothing here takes a lock, concurrent failures only contend on the
+ * counter of their own fingerprint.
+ * <P>
+ * The same exception instance rethrown through nested advised calls is only
+ * logged by the innermost call. The advice opens and closes each call on the
+ * calling thread, and the instances thrown in a call chain are remembered
+ * until its outermost call exits, so each outer layer costs a few comparisons
+ * rather than walking the stack trace again. An instance thrown again by a
+ * later call, in the same chain or another, is a new occurrence and subject to
+ * the window of its fingerprint.
+ */
+@Component
+public class ExceptionLogThrottle {
+
+    /**
+     * Returned by {@link #acquire(Throwable, Logger)} when the exception
+     * should not be logged.
+     */
+    public static final long SUPPRESSED = -1L;
+
+    /**
+     * Format of the report of how many exceptions of a type were suppressed.
+     */
+    public static final String SUPPRESSED_MESSAGE = "<<< {} similar {} exceptions were not logged"
+                                                    + " since the last was logged";
+
+    private static final int THROWN_PER_CHAIN = 8;
+
+    private final long windowNanos;
+
+    private final int stackFrames;
+
+    private final int maxFingerprints;
+
+    private final ThreadLocal<CallChain> callChain = ThreadLocal.withInitial(CallChain::new);
+
+    private final ConcurrentMap<Long, FingerprintWindow> windows = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    private Thread flushThread;
+
+    @Autowired(required = true)
+    public ExceptionLogThrottle(final LoggingProperties loggingProperties) {
+        super();
+        final LoggingProperties.Exceptions exceptions = loggingProperties.getExceptions();
+        windowNanos = TimeUnit.SECONDS.toNanos(Math.max(0, exceptions.getWindowSeconds()));
+        stackFrames = Math.max(0, exceptions.getStackFrames());
+        maxFingerprints = Math.max(0, exceptions.getMaxFingerprints());
+    }
+
+    /**
+     * Start flushing the counts of expired windows once per window.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (running || windowNanos == 0) {
+            return;
+        }
+        running = true;
+        flushThread = new Thread(this::flushLoop, "aop-exception-flush");
+        flushThread.setDaemon(true);
+        flushThread.start();
+    }
+
+    /**
+     * Stop flushing and report every count still held.
+     *
+     * @throws InterruptedException
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (running) {
+            running = false;
+            LockSupport.unpark(flushThread);
+            flushThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        flush(window -> true);
+    }
+
+    /**
+     * Open an advised call on the calling thread. Every call opened must be
+     * closed by {@link #exitCall()}.
+     */
+    public void enterCall() {
+        callChain.get().depth++;
+    }
+
+    /**
+     * Close the innermost advised call open on the calling thread, forgetting
+     * the exceptions thrown in the chain when it is the outermost.
+     */
+    public void exitCall() {
+        callChain.get().exit();
+    }
+
+    /**
+     * Mark an exception thrown out of the innermost advised call open on the
+     * calling thread.
+     *
+     * @param exception
+     * @return false if a call this one encloses already marked it, so it was
+     *         logged lower down the same call chain.
+     */
+    public boolean markThrown(final Throwable exception) {
+        return callChain.get().mark(exception);
+    }
+
+    /**
+     * Decide whether an exception is logged.
+     *
+     * @param exception
+     * @param logger
+     *            where a count of suppressed exceptions is flushed if the
+     *            fingerprint is not logged again.
+     * @return {@link #SUPPRESSED} if it should not be logged, otherwise the
+     *         number of exceptions with the same fingerprint suppressed since
+     *         it was last logged.
+     */
+    public long acquire(final Throwable exception, final Logger logger) {
+        return acquire(exception, logger, System.nanoTime());
+    }
+
+    long acquire(final Throwable exception, final Logger logger, final long now) {
+
+        if (windowNanos == 0) {
+            return 0;
+        }
+
+        final long fingerprint = fingerprint(exception);
+        FingerprintWindow window = windows.get(fingerprint);
+        if (window == null) {
+            if (windows.size() >= maxFingerprints && !purgeIdleWindows(now)) {
+                // Too many distinct failures to track, log them all
+                return 0;
+            }
+            window = new FingerprintWindow(exception.getClass().getName(), now);
+            final FingerprintWindow raced = windows.putIfAbsent(fingerprint, window);
+            if (raced == null) {
+                return 0;
+            }
+            window = raced;
+        }
+        return window.acquire(logger, now, windowNanos);
+    }
+
+    /**
+     * @param exception
+     * @return a hash of the exception type and its top stack frames.
+     */
+    public long fingerprint(final Throwable exception) {
+
+        long hash = exception.getClass().getName().hashCode();
+        final StackTraceElement[] frames = exception.getStackTrace();
+        final int depth = Math.min(stackFrames, frames.length);
+        for (int i = 0; i < depth; i++) {
+            hash = 31 * hash + frames[i].hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * @return the number of fingerprints currently tracked.
+     */
+    public int getFingerprintCount() {
+        return windows.size();
+    }
+
+    /**
+     * Report and clear the counts of windows expired by now, dropping those
+     * with nothing left to report. The window itself is left running so the
+     * next occurrence is logged as usual.
+     */
+    void flush(final long now) {
+        flush(window -> window.isExpired(now, windowNanos));
+    }
+
+    private void flush(final Predicate<FingerprintWindow> due) {
+        for (final Map.Entry<Long, FingerprintWindow> entry : windows.entrySet()) {
+            final FingerprintWindow window = entry.getValue();
+            if (!due.test(window)) {
+                continue;
+            }
+            final long suppressed = window.takeSuppressed();
+            if (suppressed > 0) {
+                window.logger.debug(SUPPRESSED_MESSAGE, suppressed, window.type);
+            } else {
+                windows.remove(entry.getKey(), window);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, windowNanos);
+            if (running) {
+                flush(System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Drop windows that have expired without suppressing anything.
+     *
+     * @return true if there is now room for another fingerprint.
+     */
+    private boolean purgeIdleWindows(final long now) {
+        windows.values().removeIf(window -> window.isIdle(now, windowNanos));
+        return windows.size() < maxFingerprints;
+    }
+
+    /**
+     * Suppression count for one fingerprint within the current window.
+     */
+    private static final class FingerprintWindow {
+
+        private final String type;
+
+        private final AtomicLong windowStart;
+
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private volatile Logger logger;
+
+        FingerprintWindow(final String type, final long windowStart) {
+            this.type = type;
+            this.windowStart = new AtomicLong(windowStart);
+        }
+
+        long acquire(final Logger logger, final long now, final long windowNanos) {
+            final long start = windowStart.get();
+            if (now - start < windowNanos || !windowStart.compareAndSet(start, now)) {
+                // In the window, or another thread has just logged it
+                this.logger = logger;
+                suppressed.incrementAndGet();
+                return SUPPRESSED;
+            }
+            return suppressed.getAndSet(0);
+        }
+
+        long takeSuppressed() {
+            return suppressed.getAndSet(0);
+        }
+
+        boolean isExpired(final long now, final long windowNanos) {
+            return now - windowStart.get() >= windowNanos;
+        }
+
+        boolean isIdle(final long now, final long windowNanos) {
+            return suppressed.get() == 0 && isExpired(now, windowNanos);
+        }
+    }
+
+    /**
+     * The advised calls open on a thread and a ring of the exceptions most
+     * recently thrown out of them, each with the depth of the outermost call
+     * that has thrown it so far.
+     */
+    private static final class CallChain {
+
+        private final Throwable[] thrown = new Throwable[THROWN_PER_CHAIN];
+
+        private final int[] thrownDepth = new int[THROWN_PER_CHAIN];
+
+        private int next;
+
+        private int marked;
+
+        private int depth;
+
+        void exit() {
+            if (depth > 0 && --depth == 0 && marked > 0) {
+                // Nothing outlives the chain on a pooled thread
+                Arrays.fill(thrown, null);
+                next = 0;
+                marked = 0;
+            }
+        }
+
+        boolean mark(final Throwable exception) {
+            for (int i = 0; i < thrown.length; i++) {
+                if (thrown[i] == exception) {
+                    // Rethrown by an enclosing call, or thrown again by another
+                    final boolean rethrown = depth < thrownDepth[i];
+                    thrownDepth[i] = depth;
+                    return !rethrown;
+                }
+            }
+            thrown[next] = exception;
+            thrownDepth[next] = depth;
+            next = (next + 1) % thrown.length;
+            marked++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+
+/**
+ * Logs plain Future results that are already complete when the advised method
+ * returns, e.g. AsyncResult. A plain Future gives no way to be told of later
+ * completion without blocking, so pending futures are logged as returned.
+ */
+@Component
+public class FutureReturnValueHandler extends AbstractFutureReturnValueHandler {
+
+    @Autowired(required = true)
+    public FutureReturnValueHandler(final SlowCallPolicy slowCallPolicy) {
+        super(slowCallPolicy);
+    }
+
+    @Override
+    public boolean supports(final JoinPointDescriptor descriptor, final Object returnValue) {
+        return returnValue instanceof Future
+               && !(returnValue instanceof CompletionStage)
+               && !(returnValue instanceof ListenableFuture)
+               && ((Future<?>) returnValue).isDone();
+    }
+
+    @Override
+    public Object decorate(final JoinPointDescriptor descriptor,
+                           final Object returnValue,
+                           final Object[] arguments,
+                           final IProceedingJoinPointLogger pjpLogger,
+                           final LogVerbosity verbosity,
+                           final long startNanos) {
+
+        final Future<?> future = (Future<?>) returnValue;
+        if (future.isCancelled()) {
+            return returnValue;
+        }
+
+        try {
+            // Done, so this doesn't block
+            logCompletion(descriptor, arguments, pjpLogger, verbosity, startNanos, future.get(), null);
+        } catch (final ExecutionException e) {
+            logCompletion(descriptor, arguments, pjpLogger, verbosity, startNanos, null, e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return returnValue;
+    }
+}
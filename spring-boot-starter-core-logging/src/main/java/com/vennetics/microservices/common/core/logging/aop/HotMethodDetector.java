@@ -0,0 +1,144 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+/**
+ * Demotes advised methods to a pass-through fast path when the advice costs
+ * more than it is worth: when they are called more often than the configured
+ * rate, or when they are called often and their body is so short that the
+ * estimated advice overhead exceeds the configured share of it. Enabled with
+ * com.vennetics.microservices.common.core.logging.hot-methods.enabled=true.
+ * <P>
+ * Every call is counted but the body is only timed on a random sample of
+ * calls. Each method is evaluated by whichever measured call first finds its
+ * window has ended. Demoted methods are not logged or counted until
+ * restored, invocation listeners still see them.
+ */
+@Component
+public class HotMethodDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotMethodDetector.class);
+
+    private final boolean enabled;
+
+    private final int measureEvery;
+
+    private final long windowNanos;
+
+    private final double maxCallsPerSecond;
+
+    private final long adviceOverheadNanos;
+
+    private final double maxOverheadRatio;
+
+    private final double minCallsPerSecond;
+
+    @Autowired(required = true)
+    public HotMethodDetector(final LoggingProperties loggingProperties) {
+        super();
+        final LoggingProperties.HotMethods hotMethods = loggingProperties.getHotMethods();
+        enabled = hotMethods.isEnabled();
+        measureEvery = Math.max(1, hotMethods.getMeasureEvery());
+        windowNanos = TimeUnit.MILLISECONDS.toNanos(hotMethods.getWindowMillis());
+        maxCallsPerSecond = hotMethods.getMaxCallsPerSecond();
+        adviceOverheadNanos = hotMethods.getAdviceOverheadNanos();
+        maxOverheadRatio = hotMethods.getMaxOverheadRatio();
+        minCallsPerSecond = hotMethods.getMinCallsPerSecond();
+    }
+
+    /**
+     * @return true if methods are demoted automatically.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Count a call and decide whether its body is timed.
+     *
+     * @param descriptor
+     * @return true if the caller should time the body and report it to
+     *         {@link #recordBody(JoinPointDescriptor, long, long)}.
+     */
+    public boolean countCall(final JoinPointDescriptor descriptor) {
+        if (!enabled) {
+            return false;
+        }
+        descriptor.getHotMethodState().countCall();
+        return ThreadLocalRandom.current().nextInt(measureEvery) == 0;
+    }
+
+    /**
+     * Record a timed body, evaluating the method if its window has ended.
+     *
+     * @param descriptor
+     * @param elapsedNanos
+     *            time in the body.
+     * @param now
+     *            {@link System#nanoTime()} at the end of the body.
+     */
+    public void recordBody(final JoinPointDescriptor descriptor, final long elapsedNanos, final long now) {
+        final HotMethodState state = descriptor.getHotMethodState();
+        state.recordBody(elapsedNanos);
+        if (state.closeWindow(now, windowNanos) && !state.isPinned() && isHot(state)) {
+            state.setDemoted(true);
+            logger.info("Demoted {} to pass-through at {} calls/s with a mean body of {}ns",
+                        descriptor,
+                        Math.round(state.getCallsPerSecond()),
+                        state.getMeanBodyNanos());
+        }
+    }
+
+    /**
+     * Demote a method by hand.
+     *
+     * @param descriptor
+     */
+    public void demote(final JoinPointDescriptor descriptor) {
+        logger.info("Demoting {} to pass-through", descriptor);
+        descriptor.getHotMethodState().setDemoted(true);
+    }
+
+    /**
+     * Restore a demoted method and stop it being demoted again
+     * automatically.
+     *
+     * @param descriptor
+     */
+    public void restore(final JoinPointDescriptor descriptor) {
+        logger.info("Restoring logging advice of {}", descriptor);
+        final HotMethodState state = descriptor.getHotMethodState();
+        state.setPinned(true);
+        state.setDemoted(false);
+    }
+
+    /**
+     * Restore a method and allow it to be demoted again automatically.
+     *
+     * @param descriptor
+     */
+    public void reset(final JoinPointDescriptor descriptor) {
+        final HotMethodState state = descriptor.getHotMethodState();
+        state.setPinned(false);
+        state.setDemoted(false);
+    }
+
+    private boolean isHot(final HotMethodState state) {
+        if (maxCallsPerSecond > 0 && state.getCallsPerSecond() > maxCallsPerSecond) {
+            return true;
+        }
+        final long meanBodyNanos = state.getMeanBodyNanos();
+        return maxOverheadRatio > 0
+               && state.getCallsPerSecond() >= minCallsPerSecond
+               && meanBodyNanos >= 0
+               && adviceOverheadNanos > meanBodyNanos * maxOverheadRatio;
+    }
+}
@@ -0,0 +1,102 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per join point call rate and body time counters used by the
+ * {@link HotMethodDetector}. Counters are striped and reset at the end of
+ * each evaluation window.
+ */
+public final class HotMethodState {
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder measuredCalls = new LongAdder();
+
+    private final LongAdder measuredNanos = new LongAdder();
+
+    /**
+     * Start of the current window in {@link System#nanoTime()} units, or
+     * {@link Long#MIN_VALUE} before the first measured call.
+     */
+    private final AtomicLong windowStart = new AtomicLong(Long.MIN_VALUE);
+
+    private volatile boolean demoted;
+
+    private volatile boolean pinned;
+
+    private volatile double callsPerSecond;
+
+    private volatile long meanBodyNanos = -1;
+
+    /**
+     * @return true if the advice should only proceed.
+     */
+    public boolean isDemoted() {
+        return demoted;
+    }
+
+    /**
+     * @return true if the method was restored by hand and will not be demoted
+     *         again automatically.
+     */
+    public boolean isPinned() {
+        return pinned;
+    }
+
+    /**
+     * @return call rate over the last completed window.
+     */
+    public double getCallsPerSecond() {
+        return callsPerSecond;
+    }
+
+    /**
+     * @return mean time in the method body over the last completed window,
+     *         or -1 if none was measured.
+     */
+    public long getMeanBodyNanos() {
+        return meanBodyNanos;
+    }
+
+    void countCall() {
+        calls.increment();
+    }
+
+    void recordBody(final long elapsedNanos) {
+        measuredCalls.increment();
+        measuredNanos.add(elapsedNanos);
+    }
+
+    /**
+     * Close the window if it has run for long enough, publishing its rate and
+     * mean body time. Only one caller closes each window.
+     *
+     * @return true if this call closed the window.
+     */
+    boolean closeWindow(final long now, final long windowNanos) {
+        final long start = windowStart.get();
+        if (start == Long.MIN_VALUE) {
+            windowStart.compareAndSet(start, now);
+            return false;
+        }
+        final long elapsed = now - start;
+        if (elapsed < windowNanos || !windowStart.compareAndSet(start, now)) {
+            return false;
+        }
+        final long measured = measuredCalls.sumThenReset();
+        final long nanos = measuredNanos.sumThenReset();
+        callsPerSecond = calls.sumThenReset() * 1e9 / elapsed;
+        meanBodyNanos = measured == 0 ? -1 : nanos / measured;
+        return true;
+    }
+
+    void setDemoted(final boolean demoted) {
+        this.demoted = demoted;
+    }
+
+    void setPinned(final boolean pinned) {
+        this.pinned = pinned;
+    }
+}
@@ -1,5 +1,7 @@
 package com.vennetics.microservices.common.core.logging.aop;
 
+import java.lang.reflect.Method;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 
 /**
@@ -18,4 +20,17 @@ public interface ICoreParameterNameDiscoverer {
      */
     String[] getParamNames(ProceedingJoinPoint pjp);
 
+    /**
+     * Get the param names for a method invoked on a target class. When the
+     * method is declared on an interface the target class implementation is
+     * used to find the names.
+     *
+     * @param method
+     *            the method from the join point signature.
+     * @param targetClass
+     *            the class of the target object, may be null.
+     * @return the names in argument order.
+     */
+    String[] getParamNames(Method method, Class<?> targetClass);
+
 }
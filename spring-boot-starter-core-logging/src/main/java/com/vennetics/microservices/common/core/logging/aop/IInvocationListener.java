@@ -0,0 +1,53 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+/**
+ * Notified by the {@link CoreLoggerAdvice} around the invocation of every
+ * advised method, whatever its logging verbosity. Listener beans are picked up
+ * automatically. Implementations are on the call path of every advised method
+ * so must be cheap and must not throw.
+ */
+public interface IInvocationListener {
+
+    /**
+     * Called on the invoking thread before the advised method proceeds.
+     *
+     * @param descriptor
+     */
+    default void beforeInvocation(final JoinPointDescriptor descriptor) {
+        // Most listeners only need the outcome
+    }
+
+    /**
+     * @return true if this listener needs the arguments passed to
+     *         {@link #beforeInvocation(JoinPointDescriptor, Object[])}. They
+     *         are only fetched from the join point when a listener asks.
+     */
+    default boolean isArgumentsRequired() {
+        return false;
+    }
+
+    /**
+     * Called on the invoking thread before the advised method proceeds.
+     *
+     * @param descriptor
+     * @param arguments
+     *            the call arguments, null unless some listener requires them.
+     */
+    default void beforeInvocation(final JoinPointDescriptor descriptor, final Object[] arguments) {
+        beforeInvocation(descriptor);
+    }
+
+    /**
+     * Called on the invoking thread after the advised method returns or
+     * throws.
+     *
+     * @param descriptor
+     * @param elapsedNanos
+     *            time spent in the advised method.
+     * @param failure
+     *            the exception thrown or null.
+     */
+    void afterInvocation(final JoinPointDescriptor descriptor,
+                         final long elapsedNanos,
+                         final Throwable failure);
+}
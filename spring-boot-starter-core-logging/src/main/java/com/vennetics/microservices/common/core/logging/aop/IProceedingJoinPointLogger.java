@@ -1,37 +1,103 @@
 package com.vennetics.microservices.common.core.logging.aop;
 
-import org.aspectj.lang.ProceedingJoinPoint;
-import org.slf4j.Logger;
-
 /**
- * Provides utility methods for creating logging information using the AspectJ
- * ProceedingJoinPoint type.
+ * Provides utility methods for creating logging information for an advised
+ * method described by a prebuilt {@link JoinPointDescriptor}.
  */
 public interface IProceedingJoinPointLogger {
 
     /**
      * Log an exception thrown from the pjp invocation.
      * 
-     * @param logger
-     * @param pjp
+     * @param descriptor
      * @param exception
      */
-    void logException(final Logger logger, final ProceedingJoinPoint pjp, final Throwable exception);
+    void logException(final JoinPointDescriptor descriptor, final Throwable exception);
 
     /**
      * Log method entry to the PJP.
      * 
-     * @param logger
-     * @param pjp
+     * @param descriptor
+     * @param arguments
      */
-    void logMethodEntry(final Logger logger, final ProceedingJoinPoint pjp);
+    void logMethodEntry(final JoinPointDescriptor descriptor, final Object[] arguments);
 
     /**
      * Log method exit from the PJP.
      * 
-     * @param logger
-     * @param pjp
+     * @param descriptor
      * @param returnValue
      */
-    void logMethodExit(final Logger logger, final ProceedingJoinPoint pjp, final Object returnValue);
+    void logMethodExit(final JoinPointDescriptor descriptor, final Object returnValue);
+
+    /**
+     * Log the time taken by a call without its arguments or result.
+     * 
+     * @param descriptor
+     * @param elapsedNanos
+     */
+    void logMethodTime(final JoinPointDescriptor descriptor, final long elapsedNanos);
+
+    /**
+     * Log an item emitted by an Observable returned from the PJP.
+     * 
+     * @param descriptor
+     * @param index
+     *            zero based position of the item.
+     * @param item
+     */
+    void logObservableItem(final JoinPointDescriptor descriptor, final long index, final Object item);
+
+    /**
+     * Log completion of an Observable returned from the PJP.
+     * 
+     * @param descriptor
+     * @param items
+     *            number of items emitted.
+     * @param firstItemNanos
+     *            time from subscription to the first item or -1 if there were
+     *            none.
+     * @param completedNanos
+     *            time from subscription to completion.
+     */
+    void logObservableCompleted(final JoinPointDescriptor descriptor,
+                                final long items,
+                                final long firstItemNanos,
+                                final long completedNanos);
+
+    /**
+     * Log the value of a future returned from the PJP once it completes.
+     * 
+     * @param descriptor
+     * @param result
+     * @param elapsedNanos
+     *            time from the call to completion of the future.
+     */
+    void logFutureCompleted(final JoinPointDescriptor descriptor, final Object result, final long elapsedNanos);
+
+    /**
+     * Log a call with its arguments and outcome once it is known to be worth
+     * logging because it was slow or threw.
+     * 
+     * @param descriptor
+     * @param arguments
+     * @param result
+     *            the value returned, null if the call threw.
+     * @param failure
+     *            the exception thrown or null.
+     * @param elapsedNanos
+     */
+    default void logSlowCall(final JoinPointDescriptor descriptor,
+                             final Object[] arguments,
+                             final Object result,
+                             final Throwable failure,
+                             final long elapsedNanos) {
+        logMethodEntry(descriptor, arguments);
+        if (failure != null) {
+            logException(descriptor, failure);
+        } else {
+            logMethodExit(descriptor, result);
+        }
+        logMethodTime(descriptor, elapsedNanos);
+    }
 }
@@ -0,0 +1,43 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+
+/**
+ * Logs a result that is delivered after the advised method returns, such as
+ * an Observable or a Future, by decorating the returned value or attaching a
+ * completion callback to it. Decoration must not change
+ * when or whether the underlying work runs.
+ */
+public interface IReturnValueHandler {
+
+    /**
+     * @param descriptor
+     * @param returnValue
+     *            non null value returned by the advised method.
+     * @return true if this handler decorates the value.
+     */
+    boolean supports(final JoinPointDescriptor descriptor, final Object returnValue);
+
+    /**
+     * @param descriptor
+     * @param returnValue
+     * @param arguments
+     *            arguments of the advised call, only fetched at
+     *            {@link LogVerbosity#SLOW} so a slow completion can be logged
+     *            with them, otherwise null.
+     * @param pjpLogger
+     *            logger to report the deferred result to.
+     * @param verbosity
+     *            verbosity in force for the invocation, never OFF.
+     * @param startNanos
+     *            {@link System#nanoTime()} when the advised method was called.
+     *            Not measured when only exceptions are logged.
+     * @return the value to return to the caller in place of the original.
+     */
+    Object decorate(final JoinPointDescriptor descriptor,
+                    final Object returnValue,
+                    final Object[] arguments,
+                    final IProceedingJoinPointLogger pjpLogger,
+                    final LogVerbosity verbosity,
+                    final long startNanos);
+}
@@ -0,0 +1,162 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.lang.reflect.Method;
+
+import org.slf4j.Logger;
+
+/**
+ * Everything the logging advice needs to know about an advised method that
+ * does not change between invocations. Built once per target class and method
+ * by the {@link JoinPointDescriptorRegistry} so the per-call cost is a lookup.
+ */
+public final class JoinPointDescriptor {
+
+    private final int id;
+
+    private final Class<?> targetClass;
+
+    private final Method method;
+
+    private final String className;
+
+    private final String methodName;
+
+    private final String[] paramNames;
+
+    private final Logger logger;
+
+    private final boolean selected;
+
+    private final SamplingState samplingState = new SamplingState();
+
+    private final HotMethodState hotMethodState = new HotMethodState();
+
+    private volatile CachedVerbosity cachedVerbosity;
+
+    /**
+     * Resolved by the {@link SlowCallPolicy} on first use, negative until
+     * then.
+     */
+    private volatile long slowThresholdNanos = -1;
+
+    JoinPointDescriptor(final int id,
+                        final Class<?> targetClass,
+                        final Method method,
+                        final String className,
+                        final String[] paramNames,
+                        final Logger logger) {
+        this(id, targetClass, method, className, paramNames, logger, true);
+    }
+
+    JoinPointDescriptor(final int id,
+                        final Class<?> targetClass,
+                        final Method method,
+                        final String className,
+                        final String[] paramNames,
+                        final Logger logger,
+                        final boolean selected) {
+        this.id = id;
+        this.targetClass = targetClass;
+        this.method = method;
+        this.className = className;
+        this.methodName = method.getName();
+        this.paramNames = paramNames;
+        this.logger = logger;
+        this.selected = selected;
+    }
+
+    /**
+     * @return a registry unique id, usable as a compact reference to this
+     *         descriptor.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the class of the advised target object.
+     */
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * @return the method as seen by the join point signature.
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the declaring type name of the advised method.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return the advised method name.
+     */
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * @return the discovered parameter names or null if they could not be
+     *         determined.
+     */
+    @SuppressWarnings("squid:S2384")
+    public String[] getParamNames() {
+        return paramNames;
+    }
+
+    /**
+     * @return the logger named by the target object.
+     */
+    public Logger getLogger() {
+        return logger;
+    }
+
+    /**
+     * @return false if the {@link LoggingMethodSelector} rejected the method,
+     *         in which case the advice only proceeds.
+     */
+    public boolean isSelected() {
+        return selected;
+    }
+
+    /**
+     * @return sampling counters for this method.
+     */
+    public SamplingState getSamplingState() {
+        return samplingState;
+    }
+
+    /**
+     * @return call rate and demotion state for this method.
+     */
+    public HotMethodState getHotMethodState() {
+        return hotMethodState;
+    }
+
+    CachedVerbosity getCachedVerbosity() {
+        return cachedVerbosity;
+    }
+
+    void setCachedVerbosity(final CachedVerbosity cachedVerbosity) {
+        this.cachedVerbosity = cachedVerbosity;
+    }
+
+    long getSlowThresholdNanos() {
+        return slowThresholdNanos;
+    }
+
+    void setSlowThresholdNanos(final long slowThresholdNanos) {
+        this.slowThresholdNanos = slowThresholdNanos;
+    }
+
+    @Override
+    public String toString() {
+        return className + "." + methodName;
+    }
+}
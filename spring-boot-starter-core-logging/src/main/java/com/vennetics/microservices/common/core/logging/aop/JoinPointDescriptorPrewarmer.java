@@ -0,0 +1,135 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+/**
+ * Builds the {@link JoinPointDescriptor} of every advised bean method once all
+ * singletons exist, before the context reports it is refreshed. Parameter
+ * names, loggers and selection are then resolved during startup rather than by
+ * the first call to each method.
+ * <P>
+ * Proxied beans are found by their {@link ProxyLoggingAdvisor}. When woven,
+ * the public methods of every bean are offered to the
+ * {@link LoggingMethodSelector}.
+ */
+@Component
+@ConditionalOnProperty(
+                prefix = "com.vennetics.microservices.common.core.logging.prewarm",
+                name = "enabled",
+                havingValue = "true",
+                matchIfMissing = true)
+public class JoinPointDescriptorPrewarmer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(JoinPointDescriptorPrewarmer.class);
+
+    private final ConfigurableListableBeanFactory beanFactory;
+
+    private final JoinPointDescriptorRegistry descriptorRegistry;
+
+    private final LoggingMethodSelector methodSelector;
+
+    private final boolean woven;
+
+    @Autowired(required = true)
+    public JoinPointDescriptorPrewarmer(final ConfigurableListableBeanFactory beanFactory,
+                                        final JoinPointDescriptorRegistry descriptorRegistry,
+                                        final LoggingMethodSelector methodSelector,
+                                        final LoggingProperties loggingProperties) {
+        super();
+        this.beanFactory = beanFactory;
+        this.descriptorRegistry = descriptorRegistry;
+        this.methodSelector = methodSelector;
+        this.woven = loggingProperties.getWeaving().isEnabled();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        final long start = System.nanoTime();
+        final int before = descriptorRegistry.getDescriptors().size();
+
+        // Only singletons that already exist, so lazy beans and factory bean
+        // products are not created early
+        for (final String beanName : beanFactory.getSingletonNames()) {
+            tryPrewarm(beanName);
+        }
+
+        logger.debug("Prewarmed {} join point descriptors in {}ms",
+                     descriptorRegistry.getDescriptors().size() - before,
+                     (System.nanoTime() - start) / 1000000);
+    }
+
+    private void tryPrewarm(final String beanName) {
+        try {
+            final Object bean = beanFactory.getSingleton(beanName);
+            if (bean != null) {
+                prewarm(bean);
+            }
+        } catch (final RuntimeException e) {
+            logger.trace("Not prewarming bean {}", beanName, e);
+        }
+    }
+
+    /**
+     * @param bean
+     *            a singleton, possibly proxied.
+     */
+    void prewarm(final Object bean) {
+        final Class<?> targetClass = AopProxyUtils.ultimateTargetClass(bean);
+        if (woven) {
+            prewarm(new Class<?>[] { targetClass }, targetClass);
+        } else if (bean instanceof Advised && isLoggingProxy((Advised) bean)) {
+            // JDK proxies are invoked with interface methods, CGLIB proxies
+            // with the class methods
+            prewarm(AopUtils.isJdkDynamicProxy(bean) ? ClassUtils.getAllInterfacesForClass(targetClass)
+                                                     : new Class<?>[] { targetClass },
+                    targetClass);
+        }
+    }
+
+    private void prewarm(final Class<?>[] invokedTypes, final Class<?> targetClass) {
+        if (!methodSelector.isCandidate(targetClass)) {
+            return;
+        }
+        for (final Class<?> invokedType : invokedTypes) {
+            for (final Method method : ReflectionUtils.getUniqueDeclaredMethods(invokedType)) {
+                if (isCandidate(method) && methodSelector.isLogged(method, targetClass)) {
+                    descriptorRegistry.getDescriptor(method, targetClass);
+                }
+            }
+        }
+    }
+
+    private static boolean isCandidate(final Method method) {
+        final int modifiers = method.getModifiers();
+        return Modifier.isPublic(modifiers)
+               && !Modifier.isStatic(modifiers)
+               && !method.isBridge()
+               && method.getDeclaringClass() != Object.class;
+    }
+
+    private static boolean isLoggingProxy(final Advised advised) {
+        for (final Advisor advisor : advised.getAdvisors()) {
+            if (advisor instanceof ProxyLoggingAdvisor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,175 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches a {@link JoinPointDescriptor} per advised method and target class.
+ * <P>
+ * The common case, where a method is only ever advised on one target class, is
+ * resolved with a single lookup keyed by {@link Method}. Interface methods
+ * implemented by several advised beans fall back to a lookup keyed by both
+ * the target class and the method.
+ */
+@Component
+public class JoinPointDescriptorRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(JoinPointDescriptorRegistry.class);
+
+    private final ICoreParameterNameDiscoverer coreParameterNameDiscoverer;
+
+    private final LoggingMethodSelector methodSelector;
+
+    private final ConcurrentMap<Method, JoinPointDescriptor> byMethod = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<DescriptorKey, JoinPointDescriptor> byTargetAndMethod = new ConcurrentHashMap<>();
+
+    /**
+     * Indexed by descriptor id. Only written when a new method is first seen.
+     */
+    private final List<JoinPointDescriptor> descriptors = new CopyOnWriteArrayList<>();
+
+    @Autowired(required = true)
+    public JoinPointDescriptorRegistry(final ICoreParameterNameDiscoverer coreParameterNameDiscoverer,
+                                       final LoggingMethodSelector methodSelector) {
+        super();
+        this.coreParameterNameDiscoverer = coreParameterNameDiscoverer;
+        this.methodSelector = methodSelector;
+    }
+
+    /**
+     * Get the descriptor for the method being invoked by the pjp, creating it
+     * on first use.
+     *
+     * @param pjp
+     * @return the descriptor
+     */
+    public JoinPointDescriptor getDescriptor(final ProceedingJoinPoint pjp) {
+
+        final Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        final Object target = pjp.getTarget();
+        final Class<?> targetClass = target != null ? target.getClass() : method.getDeclaringClass();
+        return getDescriptor(method, targetClass);
+    }
+
+    /**
+     * Get the descriptor for a method invoked on a target class, creating it
+     * on first use. Allows descriptors to be built before the first call.
+     *
+     * @param method
+     *            the method as seen by the join point signature.
+     * @param targetClass
+     * @return the descriptor
+     */
+    public JoinPointDescriptor getDescriptor(final Method method, final Class<?> targetClass) {
+
+        final JoinPointDescriptor descriptor = byMethod.get(method);
+        if (descriptor != null && descriptor.getTargetClass() == targetClass) {
+            return descriptor;
+        }
+
+        final JoinPointDescriptor shared = byTargetAndMethod.get(new DescriptorKey(targetClass,
+                                                                                   method));
+        if (shared != null) {
+            return shared;
+        }
+
+        return createDescriptor(targetClass, method);
+    }
+
+    /**
+     * @param id
+     * @return the descriptor previously issued with the id.
+     */
+    public JoinPointDescriptor getDescriptor(final int id) {
+        return descriptors.get(id);
+    }
+
+    /**
+     * @return all descriptors created so far in id order.
+     */
+    public List<JoinPointDescriptor> getDescriptors() {
+        return Collections.unmodifiableList(descriptors);
+    }
+
+    private synchronized JoinPointDescriptor createDescriptor(final Class<?> targetClass,
+                                                              final Method method) {
+
+        // Re-check under the lock in case another thread got here first
+        final JoinPointDescriptor existing = byMethod.get(method);
+        if (existing != null && existing.getTargetClass() == targetClass) {
+            return existing;
+        }
+
+        final DescriptorKey key = new DescriptorKey(targetClass, method);
+        final JoinPointDescriptor shared = byTargetAndMethod.get(key);
+        if (shared != null) {
+            return shared;
+        }
+
+        final JoinPointDescriptor descriptor = new JoinPointDescriptor(descriptors.size(),
+                                                                       targetClass,
+                                                                       method,
+                                                                       method.getDeclaringClass()
+                                                                             .getName(),
+                                                                       coreParameterNameDiscoverer.getParamNames(method,
+                                                                                                                 targetClass),
+                                                                       LoggerFactory.getLogger(targetClass),
+                                                                       methodSelector.isLogged(method,
+                                                                                               targetClass));
+        descriptors.add(descriptor);
+
+        if (existing == null) {
+            byMethod.put(method, descriptor);
+        } else {
+            byTargetAndMethod.put(key, descriptor);
+        }
+
+        logger.trace("Registered join point descriptor {} for {}", descriptor.getId(), descriptor);
+
+        return descriptor;
+    }
+
+    /**
+     * Composite key used when one method is advised on several target classes.
+     */
+    private static final class DescriptorKey {
+
+        private final Class<?> targetClass;
+
+        private final Method method;
+
+        DescriptorKey(final Class<?> targetClass, final Method method) {
+            this.targetClass = targetClass;
+            this.method = method;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * targetClass.hashCode() + method.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DescriptorKey)) {
+                return false;
+            }
+            final DescriptorKey other = (DescriptorKey) obj;
+            return targetClass == other.targetClass && method.equals(other.method);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+
+/**
+ * Logs the outcome of Spring ListenableFuture results, e.g. from @Async
+ * methods or AsyncRestTemplate, when they complete.
+ */
+@Component
+public class ListenableFutureReturnValueHandler extends AbstractFutureReturnValueHandler {
+
+    @Autowired(required = true)
+    public ListenableFutureReturnValueHandler(final SlowCallPolicy slowCallPolicy) {
+        super(slowCallPolicy);
+    }
+
+    @Override
+    public boolean supports(final JoinPointDescriptor descriptor, final Object returnValue) {
+        return returnValue instanceof ListenableFuture;
+    }
+
+    @Override
+    public Object decorate(final JoinPointDescriptor descriptor,
+                           final Object returnValue,
+                           final Object[] arguments,
+                           final IProceedingJoinPointLogger pjpLogger,
+                           final LogVerbosity verbosity,
+                           final long startNanos) {
+
+        ((ListenableFuture<?>) returnValue).addCallback(new ListenableFutureCallback<Object>() {
+
+            @Override
+            public void onSuccess(final Object result) {
+                logCompletion(descriptor, arguments, pjpLogger, verbosity, startNanos, result, null);
+            }
+
+            @Override
+            public void onFailure(final Throwable failure) {
+                logCompletion(descriptor, arguments, pjpLogger, verbosity, startNanos, null, failure);
+            }
+        });
+        return returnValue;
+    }
+}
@@ -0,0 +1,79 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.SamplingStrategy;
+
+/**
+ * Decides whether an invocation is logged according to the configured
+ * {@link SamplingStrategy}, counting suppressed invocations per method.
+ */
+@Component
+public class LogSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogSampler.class);
+
+    /**
+     * Bound on a burst of token bucket intervals, so a rate of zero means
+     * only the burst is logged while the bucket arithmetic stays well clear
+     * of overflow.
+     */
+    private static final long MAX_BUCKET_NANOS = Long.MAX_VALUE / 4;
+
+    private final SamplingStrategy strategy;
+
+    private final int everyNth;
+
+    private final double probability;
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    @Autowired(required = true)
+    public LogSampler(final LoggingProperties loggingProperties) {
+        super();
+        final LoggingProperties.Sampling sampling = loggingProperties.getSampling();
+        strategy = sampling.getStrategy();
+        everyNth = Math.max(1, sampling.getEveryNth());
+        probability = sampling.getProbability();
+        final int burst = Math.max(1, sampling.getBurst());
+        intervalNanos = (long) Math.min(TimeUnit.SECONDS.toNanos(1) / Math.max(sampling.getRatePerSecond(),
+                                                                               Double.MIN_NORMAL),
+                                        MAX_BUCKET_NANOS / burst);
+        burstNanos = intervalNanos * burst;
+        logger.debug("Logging sampling strategy {}", strategy);
+    }
+
+    /**
+     * @param descriptor
+     * @return true if this invocation should be logged.
+     */
+    public boolean sample(final JoinPointDescriptor descriptor) {
+        final SamplingState state = descriptor.getSamplingState();
+        switch (strategy) {
+            case EVERY_NTH:
+                return state.record(state.everyNth(everyNth));
+            case PROBABILISTIC:
+                return state.record(ThreadLocalRandom.current().nextDouble() < probability);
+            case TOKEN_BUCKET:
+                return state.record(state.tryAcquire(System.nanoTime(), intervalNanos, burstNanos));
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @return the strategy in use.
+     */
+    public SamplingStrategy getStrategy() {
+        return strategy;
+    }
+}
@@ -0,0 +1,101 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+/**
+ * Decides the {@link LogVerbosity} of each advised method. Decisions are
+ * cached on the join point descriptor and invalidated whenever the levels
+ * change, so the per-call cost is two volatile reads and no allocation.
+ */
+@Component
+public class LogVerbosityManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogVerbosityManager.class);
+
+    private final LoggingProperties loggingProperties;
+
+    private volatile VerbosityRules rules;
+
+    @Autowired(required = true)
+    public LogVerbosityManager(final LoggingProperties loggingProperties) {
+        super();
+        this.loggingProperties = loggingProperties;
+        reset();
+    }
+
+    /**
+     * @param descriptor
+     * @return the verbosity to apply to the method.
+     */
+    public LogVerbosity getVerbosity(final JoinPointDescriptor descriptor) {
+
+        final VerbosityRules current = rules;
+        final CachedVerbosity cached = descriptor.getCachedVerbosity();
+
+        if (cached != null && cached.getRules() == current) {
+            return cached.getVerbosity();
+        }
+
+        final LogVerbosity verbosity = current.resolve(descriptor);
+        descriptor.setCachedVerbosity(new CachedVerbosity(current, verbosity));
+        return verbosity;
+    }
+
+    /**
+     * @return the verbosity used when no level matches.
+     */
+    public LogVerbosity getDefaultVerbosity() {
+        return rules.getDefaultVerbosity();
+    }
+
+    /**
+     * @return the configured levels keyed by package, class or method name.
+     */
+    public Map<String, LogVerbosity> getLevels() {
+        return rules.getLevels();
+    }
+
+    /**
+     * Change the verbosity used when no level matches.
+     *
+     * @param verbosity
+     */
+    public synchronized void setDefaultVerbosity(final LogVerbosity verbosity) {
+        logger.info("Setting default logging verbosity to {}", verbosity);
+        rules = new VerbosityRules(verbosity, rules.getLevels());
+    }
+
+    /**
+     * Set or clear the verbosity for a package, class or class.method name.
+     *
+     * @param name
+     * @param verbosity
+     *            the new level or null to remove it.
+     */
+    public synchronized void setLevel(final String name, final LogVerbosity verbosity) {
+        logger.info("Setting logging verbosity of {} to {}", name, verbosity);
+        final Map<String, LogVerbosity> levels = new HashMap<>(rules.getLevels());
+        if (verbosity == null) {
+            levels.remove(name);
+        } else {
+            levels.put(name, verbosity);
+        }
+        rules = new VerbosityRules(rules.getDefaultVerbosity(), levels);
+    }
+
+    /**
+     * Discard runtime changes and return to the configured properties.
+     */
+    public final synchronized void reset() {
+        rules = new VerbosityRules(loggingProperties.getVerbosity(), loggingProperties.getLevels());
+    }
+}
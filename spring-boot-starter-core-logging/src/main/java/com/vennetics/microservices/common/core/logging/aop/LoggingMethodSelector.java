@@ -0,0 +1,205 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.PatternMatchUtils;
+
+import com.vennetics.microservices.common.core.logging.Logged;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.NotLogged;
+
+/**
+ * Decides whether a method is advised at all. Meant to be asked once per
+ * method, when the proxy is created or the join point is first seen, never per
+ * call.
+ * <P>
+ * In order of precedence:
+ * <ol>
+ * <li>Nothing in the logging package itself.</li>
+ * <li>{@link NotLogged} or {@link Logged} on the method.</li>
+ * <li>{@link NotLogged} or {@link Logged} on the type.</li>
+ * <li>Methods matching an exclude pattern are not advised.</li>
+ * <li>If include patterns are set only matching methods are advised.</li>
+ * <li>Otherwise methods in com.vennetics packages are advised.</li>
+ * </ol>
+ * {@link #isCandidate(Class)} rejects whole classes cheaply before any of
+ * their methods are asked about.
+ */
+@Component
+public class LoggingMethodSelector {
+
+    private static final String LOGGING_PACKAGE = "com.vennetics.microservices.common.core.logging.";
+
+    private static final String VENNETICS_PACKAGE = "com.vennetics.";
+
+    private final AspectJExpressionPointcut defaultPointcut = new AspectJExpressionPointcut();
+
+    private final String[] includes;
+
+    private final String[] excludes;
+
+    /**
+     * Literal start of each include pattern, a class whose name does not fit
+     * any of them has no included method.
+     */
+    private final String[] includePrefixes;
+
+    @Autowired(required = true)
+    public LoggingMethodSelector(final LoggingProperties loggingProperties) {
+        super();
+        defaultPointcut.setExpression(LoggingPointcuts.class.getName() + ".inLoggingPointCut()");
+        includes = toArray(loggingProperties.getSelection().getIncludes());
+        excludes = toArray(loggingProperties.getSelection().getExcludes());
+        includePrefixes = literalPrefixes(includes);
+    }
+
+    /**
+     * Checks names and annotations of a class once so classes that cannot
+     * have a selected method are rejected without any per method matching.
+     * May accept a class with no selected method, never rejects one that has
+     * one.
+     *
+     * @param targetClass
+     *            the class of the advised object.
+     * @return false if no method of the class would be advised.
+     */
+    public boolean isCandidate(final Class<?> targetClass) {
+
+        if (targetClass.getName().startsWith(LOGGING_PACKAGE)) {
+            return false;
+        }
+
+        final boolean byName = includes.length > 0 ? isIncludedClass(targetClass.getName())
+                                                   : isVenneticsType(targetClass);
+        return byName
+               || AnnotationUtils.findAnnotation(targetClass, Logged.class) != null
+               || hasLoggedMethod(targetClass);
+    }
+
+    /**
+     * @param method
+     *            the invoked method, possibly from an interface.
+     * @param targetClass
+     *            the class of the advised object.
+     * @return true if calls to the method should be advised.
+     */
+    public boolean isLogged(final Method method, final Class<?> targetClass) {
+
+        // Never advise the logger, it would advise itself
+        if (targetClass.getName().startsWith(LOGGING_PACKAGE)) {
+            return false;
+        }
+
+        final Method specificMethod = ClassUtils.getMostSpecificMethod(method, targetClass);
+
+        final Boolean onMethod = annotatedSelection(AnnotationUtils.findAnnotation(specificMethod,
+                                                                                   NotLogged.class),
+                                                    AnnotationUtils.findAnnotation(specificMethod,
+                                                                                   Logged.class));
+        if (onMethod != null) {
+            return onMethod;
+        }
+
+        final Boolean onType = annotatedSelection(AnnotationUtils.findAnnotation(targetClass,
+                                                                                 NotLogged.class),
+                                                  AnnotationUtils.findAnnotation(targetClass,
+                                                                                 Logged.class));
+        if (onType != null) {
+            return onType;
+        }
+
+        final String name = targetClass.getName() + "." + method.getName();
+        if (PatternMatchUtils.simpleMatch(excludes, name)) {
+            return false;
+        }
+        if (includes.length > 0) {
+            return PatternMatchUtils.simpleMatch(includes, name);
+        }
+        return defaultPointcut.matches(method, targetClass);
+    }
+
+    private boolean isIncludedClass(final String className) {
+        final String qualifier = className + ".";
+        for (final String prefix : includePrefixes) {
+            if (qualifier.startsWith(prefix) || prefix.startsWith(qualifier)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The default pointcut matches methods declared by com.vennetics
+     * supertypes too, so all of them are checked.
+     */
+    private static boolean isVenneticsType(final Class<?> targetClass) {
+        for (Class<?> type = targetClass; type != null; type = type.getSuperclass()) {
+            if (type.getName().startsWith(VENNETICS_PACKAGE)) {
+                return true;
+            }
+        }
+        for (final Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            if (type.getName().startsWith(VENNETICS_PACKAGE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Any method of the class or its supertypes that could carry
+     * {@link Logged}, directly or as a meta-annotation.
+     */
+    private static boolean hasLoggedMethod(final Class<?> targetClass) {
+        for (Class<?> type = targetClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            if (hasLoggedDeclaredMethod(type)) {
+                return true;
+            }
+        }
+        for (final Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            if (hasLoggedDeclaredMethod(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasLoggedDeclaredMethod(final Class<?> type) {
+        for (final Method method : type.getDeclaredMethods()) {
+            if (AnnotationUtils.getAnnotation(method, Logged.class) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] literalPrefixes(final String[] patterns) {
+        final List<String> prefixes = new ArrayList<>(patterns.length);
+        for (final String pattern : patterns) {
+            final int wildcard = pattern.indexOf('*');
+            prefixes.add(wildcard < 0 ? pattern : pattern.substring(0, wildcard));
+        }
+        return toArray(prefixes);
+    }
+
+    private static Boolean annotatedSelection(final NotLogged notLogged, final Logged logged) {
+        if (notLogged != null) {
+            return Boolean.FALSE;
+        }
+        if (logged != null) {
+            return Boolean.TRUE;
+        }
+        return null;
+    }
+
+    private static String[] toArray(final List<String> patterns) {
+        return patterns.toArray(new String[patterns.size()]);
+    }
+}
@@ -20,6 +20,48 @@ public class LoggingPointcuts {
         // Pointcut method - no implementation
     }
 
+    /**
+     * As {@link #inLoggingPointCut()} when woven into the bytecode rather than
+     * applied by proxies. Weaving reaches every class, not just beans, so only
+     * public instance methods are advised and the object methods the logger
+     * itself calls while rendering are left alone. Annotated methods are
+     * chosen here so unwanted ones are never woven, the include and exclude
+     * patterns are applied when a woven method is first called.
+     */
+    @Pointcut("(inLoggingPointCut() || annotatedLogged()) && !annotatedNotLogged()"
+              + " && execution(public !static * *(..)) && !objectMethods()")
+    public void inWovenLoggingPointCut() {
+        // Pointcut method - no implementation
+    }
+
+    /**
+     * Method or its type annotated with Logged.
+     */
+    @Pointcut("@annotation(com.vennetics.microservices.common.core.logging.Logged)"
+              + " || @within(com.vennetics.microservices.common.core.logging.Logged)")
+    public void annotatedLogged() {
+        // Pointcut method - no implementation
+    }
+
+    /**
+     * Method annotated with NotLogged, or its type unless the method is
+     * annotated with Logged.
+     */
+    @Pointcut("@annotation(com.vennetics.microservices.common.core.logging.NotLogged)"
+              + " || (@within(com.vennetics.microservices.common.core.logging.NotLogged)"
+              + " && !@annotation(com.vennetics.microservices.common.core.logging.Logged))")
+    public void annotatedNotLogged() {
+        // Pointcut method - no implementation
+    }
+
+    /**
+     * toString, equals and hashCode.
+     */
+    @Pointcut("execution(String toString()) || execution(boolean equals(Object)) || execution(int hashCode())")
+    public void objectMethods() {
+        // Pointcut method - no implementation
+    }
+
     /**
      * Implementation (not the interface) is in a vennetics package.
      */
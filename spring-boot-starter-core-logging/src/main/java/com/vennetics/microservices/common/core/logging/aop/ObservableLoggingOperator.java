@@ -0,0 +1,100 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rx.Observable;
+import rx.Subscriber;
+
+/**
+ * Pass through operator logging the notifications seen by each subscriber.
+ * Timings are measured from subscription, completion is logged once it took
+ * at least the given time.
+ */
+final class ObservableLoggingOperator implements Observable.Operator<Object, Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObservableLoggingOperator.class);
+
+    private final JoinPointDescriptor descriptor;
+
+    private final IProceedingJoinPointLogger pjpLogger;
+
+    private final int maxItems;
+
+    private final long minCompletionNanos;
+
+    ObservableLoggingOperator(final JoinPointDescriptor descriptor,
+                              final IProceedingJoinPointLogger pjpLogger,
+                              final int maxItems,
+                              final long minCompletionNanos) {
+        this.descriptor = descriptor;
+        this.pjpLogger = pjpLogger;
+        this.maxItems = maxItems;
+        this.minCompletionNanos = minCompletionNanos;
+    }
+
+    @Override
+    public Subscriber<? super Object> call(final Subscriber<? super Object> child) {
+        return new LoggingSubscriber(child, System.nanoTime());
+    }
+
+    /**
+     * Shares the child's subscription and producer so unsubscription and
+     * backpressure are unaffected.
+     */
+    private final class LoggingSubscriber extends Subscriber<Object> {
+
+        private final Subscriber<? super Object> child;
+
+        private final long subscribedNanos;
+
+        private long items;
+
+        private long firstItemNanos = -1;
+
+        LoggingSubscriber(final Subscriber<? super Object> child, final long subscribedNanos) {
+            super(child);
+            this.child = child;
+            this.subscribedNanos = subscribedNanos;
+        }
+
+        @Override
+        public void onNext(final Object item) {
+            if (items == 0) {
+                firstItemNanos = System.nanoTime() - subscribedNanos;
+            }
+            if (items < maxItems) {
+                try {
+                    pjpLogger.logObservableItem(descriptor, items, item);
+                } catch (final RuntimeException e) {
+                    logger.warn("Failed to log observable item.", e);
+                }
+            }
+            items++;
+            child.onNext(item);
+        }
+
+        @Override
+        public void onCompleted() {
+            final long elapsedNanos = System.nanoTime() - subscribedNanos;
+            if (elapsedNanos >= minCompletionNanos) {
+                try {
+                    pjpLogger.logObservableCompleted(descriptor, items, firstItemNanos, elapsedNanos);
+                } catch (final RuntimeException e) {
+                    logger.warn("Failed to log observable completion.", e);
+                }
+            }
+            child.onCompleted();
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            try {
+                pjpLogger.logException(descriptor, error);
+            } catch (final RuntimeException e) {
+                logger.warn("Failed to log observable error.", e);
+            }
+            child.onError(error);
+        }
+    }
+}
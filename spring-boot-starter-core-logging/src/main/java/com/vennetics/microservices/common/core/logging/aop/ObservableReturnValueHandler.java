@@ -0,0 +1,69 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+import rx.Observable;
+
+/**
+ * Logs Observable results as they are emitted to the caller's own
+ * subscriber. Nothing is subscribed or retained by the logging itself, so cold
+ * observables still only execute when the caller subscribes. At
+ * {@link LogVerbosity#SLOW} completion is logged if it took at least the
+ * threshold of the {@link SlowCallPolicy}.
+ */
+@Component
+public class ObservableReturnValueHandler implements IReturnValueHandler {
+
+    private final int maxItems;
+
+    private final SlowCallPolicy slowCallPolicy;
+
+    @Autowired(required = true)
+    public ObservableReturnValueHandler(final LoggingProperties loggingProperties,
+                                        final SlowCallPolicy slowCallPolicy) {
+        super();
+        maxItems = loggingProperties.getDeferred().getMaxItems();
+        this.slowCallPolicy = slowCallPolicy;
+    }
+
+    @Override
+    public boolean supports(final JoinPointDescriptor descriptor, final Object returnValue) {
+        // lift() returns a plain Observable so subclasses can't be replaced
+        return returnValue instanceof Observable
+               && descriptor.getMethod().getReturnType() == Observable.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object decorate(final JoinPointDescriptor descriptor,
+                           final Object returnValue,
+                           final Object[] arguments,
+                           final IProceedingJoinPointLogger pjpLogger,
+                           final LogVerbosity verbosity,
+                           final long startNanos) {
+
+        final int renderedItems = verbosity == LogVerbosity.FULL ? maxItems : 0;
+        final long minCompletionNanos;
+        switch (verbosity) {
+            case FULL:
+            case TIMING:
+                minCompletionNanos = 0L;
+                break;
+            case SLOW:
+                minCompletionNanos = slowCallPolicy.getThresholdNanos(descriptor);
+                break;
+            default:
+                minCompletionNanos = Long.MAX_VALUE;
+                break;
+        }
+
+        return ((Observable<Object>) returnValue).lift(new ObservableLoggingOperator(descriptor,
+                                                                                     pjpLogger,
+                                                                                     renderedItems,
+                                                                                     minCompletionNanos));
+    }
+}
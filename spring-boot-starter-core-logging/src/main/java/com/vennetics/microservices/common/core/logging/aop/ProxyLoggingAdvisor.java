@@ -0,0 +1,108 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.lang.reflect.Method;
+
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LoggingConstants;
+
+/**
+ * Applies the {@link CoreLoggerAdvice} through Spring AOP proxies. This is the
+ * default and is replaced by the {@link WovenLoggingAspect} when
+ * com.vennetics.microservices.common.core.logging.weaving.enabled=true.
+ * <P>
+ * The pointcut is static so the {@link LoggingMethodSelector} is consulted
+ * once per method while the proxy is created, and only for classes it
+ * accepts as candidates. Beans with no selected methods are not proxied and
+ * unselected methods go straight to the target.
+ */
+@Component
+@ConditionalOnProperty(
+                prefix = "com.vennetics.microservices.common.core.logging.weaving",
+                name = "enabled",
+                havingValue = "false",
+                matchIfMissing = true)
+public class ProxyLoggingAdvisor extends AbstractPointcutAdvisor {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Pointcut pointcut;
+
+    private final transient Advice advice;
+
+    @Autowired(required = true)
+    public ProxyLoggingAdvisor(final CoreLoggerAdvice coreLoggerAdvice,
+                               final LoggingMethodSelector methodSelector) {
+        super();
+        pointcut = new SelectorPointcut(methodSelector);
+        advice = new LoggingInterceptor(coreLoggerAdvice);
+        setOrder(LoggingConstants.LOGGING_ADVICE_ORDER);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return advice;
+    }
+
+    /**
+     * Matches the methods chosen by the selector in the classes it accepts as
+     * candidates.
+     */
+    private static final class SelectorPointcut extends StaticMethodMatcherPointcut {
+
+        private final LoggingMethodSelector methodSelector;
+
+        private final ClassFilter classFilter;
+
+        SelectorPointcut(final LoggingMethodSelector methodSelector) {
+            this.methodSelector = methodSelector;
+            this.classFilter = methodSelector::isCandidate;
+        }
+
+        @Override
+        public ClassFilter getClassFilter() {
+            return classFilter;
+        }
+
+        @Override
+        public boolean matches(final Method method, final Class<?> targetClass) {
+            return methodSelector.isLogged(method, targetClass);
+        }
+    }
+
+    /**
+     * Presents the invocation to the advice as a join point, as Spring does
+     * for around advice declared with @Aspect.
+     */
+    private static final class LoggingInterceptor implements MethodInterceptor {
+
+        private final CoreLoggerAdvice coreLoggerAdvice;
+
+        LoggingInterceptor(final CoreLoggerAdvice coreLoggerAdvice) {
+            this.coreLoggerAdvice = coreLoggerAdvice;
+        }
+
+        @Override
+        // Allow throwable as needed by AOP.
+        @SuppressWarnings({ "squid:S00112" })
+        public Object invoke(final MethodInvocation invocation) throws Throwable {
+            return coreLoggerAdvice.doLogging(new MethodInvocationProceedingJoinPoint((ProxyMethodInvocation) invocation));
+        }
+    }
+}
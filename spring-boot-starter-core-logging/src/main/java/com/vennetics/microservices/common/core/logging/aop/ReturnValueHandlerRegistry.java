@@ -0,0 +1,40 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Finds the {@link IReturnValueHandler} for a value returned by an advised
+ * method.
+ */
+@Component
+public class ReturnValueHandlerRegistry {
+
+    private final IReturnValueHandler[] handlers;
+
+    @Autowired(required = true)
+    public ReturnValueHandlerRegistry(final List<IReturnValueHandler> handlers) {
+        super();
+        this.handlers = handlers.toArray(new IReturnValueHandler[handlers.size()]);
+    }
+
+    /**
+     * @param descriptor
+     * @param returnValue
+     * @return the first handler supporting the value or null if it is logged
+     *         as a plain result.
+     */
+    public IReturnValueHandler getHandler(final JoinPointDescriptor descriptor, final Object returnValue) {
+        if (returnValue == null) {
+            return null;
+        }
+        for (final IReturnValueHandler handler : handlers) {
+            if (handler.supports(descriptor, returnValue)) {
+                return handler;
+            }
+        }
+        return null;
+    }
+}
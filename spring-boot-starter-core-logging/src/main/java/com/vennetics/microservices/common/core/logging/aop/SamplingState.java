@@ -0,0 +1,71 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per join point sampling state. Sampled and suppressed totals are striped
+ * counters so reporting adds no contention to the call path.
+ */
+public final class SamplingState {
+
+    private final LongAdder sampled = new LongAdder();
+
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Invocation count for one in N sampling.
+     */
+    private final AtomicLong invocations = new AtomicLong();
+
+    /**
+     * Token bucket held as the time at which the bucket will next be full, in
+     * {@link System#nanoTime()} units.
+     */
+    private final AtomicLong bucketFullAt = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @return invocations logged.
+     */
+    public long getSampled() {
+        return sampled.sum();
+    }
+
+    /**
+     * @return invocations not logged because of sampling.
+     */
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    boolean record(final boolean sample) {
+        if (sample) {
+            sampled.increment();
+        } else {
+            suppressed.increment();
+        }
+        return sample;
+    }
+
+    boolean everyNth(final int n) {
+        return invocations.getAndIncrement() % n == 0;
+    }
+
+    /**
+     * Lock-free token bucket. Each logged invocation pushes the full time out
+     * by one interval; an invocation is logged while that time is no more
+     * than a burst of intervals ahead of now.
+     */
+    boolean tryAcquire(final long now, final long intervalNanos, final long burstNanos) {
+        while (true) {
+            final long fullAt = bucketFullAt.get();
+            final long start = fullAt == Long.MIN_VALUE || fullAt - now < 0 ? now : fullAt;
+            if (start + intervalNanos - now > burstNanos) {
+                return false;
+            }
+            if (bucketFullAt.compareAndSet(fullAt, start + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+/**
+ * Decides how long a call must take to be logged at {@link LogVerbosity#SLOW}.
+ * Thresholds are resolved once per method and cached on the join point
+ * descriptor.
+ */
+@Component
+public class SlowCallPolicy {
+
+    private final long defaultThresholdNanos;
+
+    private final Map<String, Long> thresholdNanos;
+
+    @Autowired(required = true)
+    public SlowCallPolicy(final LoggingProperties loggingProperties) {
+        super();
+        final LoggingProperties.SlowCalls slowCalls = loggingProperties.getSlowCalls();
+        defaultThresholdNanos = toNanos(slowCalls.getThresholdMillis());
+        final Map<String, Long> thresholds = new HashMap<>();
+        for (final Map.Entry<String, Long> entry : slowCalls.getThresholds().entrySet()) {
+            thresholds.put(entry.getKey(), toNanos(entry.getValue()));
+        }
+        thresholdNanos = Collections.unmodifiableMap(thresholds);
+    }
+
+    /**
+     * @param descriptor
+     * @return the elapsed time at or above which a call to the method is
+     *         logged.
+     */
+    public long getThresholdNanos(final JoinPointDescriptor descriptor) {
+        final long cached = descriptor.getSlowThresholdNanos();
+        if (cached >= 0) {
+            return cached;
+        }
+        final long resolved = VerbosityRules.resolve(thresholdNanos, descriptor, defaultThresholdNanos);
+        descriptor.setSlowThresholdNanos(resolved);
+        return resolved;
+    }
+
+    private static long toNanos(final Long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+    }
+}
@@ -3,127 +3,225 @@ package com.vennetics.microservices.common.core.logging.aop;
 import static com.vennetics.microservices.common.core.logging.LoggingConstants.INDENT;
 import static com.vennetics.microservices.common.core.logging.LoggingConstants.NEW_LINE;
 
+import java.util.concurrent.TimeUnit;
+
 import org.apache.commons.lang3.StringUtils;
-import org.aspectj.lang.ProceedingJoinPoint;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import com.vennetics.microservices.common.core.logging.utils.CoreLogUtils;
-
-import rx.Observable;
+import com.vennetics.microservices.common.core.logging.LoggingConstants;
+import com.vennetics.microservices.common.core.logging.utils.LazyLogValue;
 
 /**
- * Standard logger, uses reflection to debug method parameters.
+ * Standard logger, uses reflection to debug method parameters. Names and
+ * loggers come from the prebuilt descriptor so nothing is resolved per call.
+ * Arguments and results are passed as {@link LazyLogValue}s so they are only
+ * rendered if the backend writes the event.
+ * Exceptions are logged with their stack trace subject to the
+ * {@link ExceptionLogThrottle}. Replaced by the structured logger when
+ * com.vennetics.microservices.common.core.logging.structured.enabled=true.
  */
 @Component
+@Qualifier(LoggingConstants.PJP_RENDERER)
+@ConditionalOnProperty(
+                prefix = "com.vennetics.microservices.common.core.logging.structured",
+                name = "enabled",
+                havingValue = "false",
+                matchIfMissing = true)
 public class StandardPjpLogger implements IProceedingJoinPointLogger {
 
-    private final ICoreParameterNameDiscoverer coreParameterNameDiscoverer;
+    private final ExceptionLogThrottle exceptionLogThrottle;
 
     @Autowired(required = true)
-    public StandardPjpLogger(final ICoreParameterNameDiscoverer coreParameterNameDiscoverer) {
+    public StandardPjpLogger(final ExceptionLogThrottle exceptionLogThrottle) {
         super();
-        this.coreParameterNameDiscoverer = coreParameterNameDiscoverer;
+        this.exceptionLogThrottle = exceptionLogThrottle;
     }
 
     @Override
-    public void logException(final Logger logger,
-                             final ProceedingJoinPoint pjp,
-                             final Throwable exception) {
-        final String description = getClassName(pjp) + ".";
+    public void logException(final JoinPointDescriptor descriptor, final Throwable exception) {
+        if (!acquireException(descriptor, exception)) {
+            return;
+        }
 
-        String message = exception.getMessage();
+        final Logger logger = descriptor.getLogger();
+        final String description = descriptor.getClassName() + ".";
 
-        if (StringUtils.isBlank(message)) {
-            message = "Blank message on exception type " + exception.getClass().getName();
+        logger.debug("{} <<< Exception in method: {}{} Error Message: {}{}",
+                     NEW_LINE,
+                     description,
+                     descriptor.getMethodName(),
+                     message(exception),
+                     NEW_LINE,
+                     exception);
+    }
+
+    @Override
+    public void logSlowCall(final JoinPointDescriptor descriptor,
+                            final Object[] arguments,
+                            final Object result,
+                            final Throwable failure,
+                            final long elapsedNanos) {
+
+        if (failure != null && !acquireException(descriptor, failure)) {
+            return;
         }
 
-        logger.debug("{} <<< Exception in method: {}{} Error Message: {}{}",
+        final Logger logger = descriptor.getLogger();
+        final String description = descriptor.getClassName() + ".";
+        final long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+
+        if (failure != null) {
+            logger.debug("{} <<< {}{}{} failed after {}us{}{}Error Message: {}{}",
+                         NEW_LINE,
+                         description,
+                         descriptor.getMethodName(),
+                         LazyLogValue.parameters(descriptor.getParamNames(), arguments),
+                         elapsedMicros,
+                         NEW_LINE,
+                         INDENT,
+                         message(failure),
+                         NEW_LINE,
+                         failure);
+            return;
+        }
+
+        logger.debug("{} <<< {}{}{} took {}us{}{}result={}{}",
                      NEW_LINE,
                      description,
-                     pjp.getSignature().getName(),
-                     message,
+                     descriptor.getMethodName(),
+                     LazyLogValue.parameters(descriptor.getParamNames(), arguments),
+                     elapsedMicros,
+                     NEW_LINE,
+                     INDENT,
+                     LazyLogValue.returnValue(result),
                      NEW_LINE);
     }
 
     @Override
-    public void logMethodEntry(final Logger logger, final ProceedingJoinPoint pjp) {
+    public void logMethodEntry(final JoinPointDescriptor descriptor, final Object[] arguments) {
 
-        final String description = getClassName(pjp) + ".";
-
-        final String[] names = coreParameterNameDiscoverer.getParamNames(pjp);
+        final Logger logger = descriptor.getLogger();
+        final String description = descriptor.getClassName() + ".";
 
         logger.debug("{} >>> {}{}{}{}",
                      NEW_LINE,
                      description,
-                     pjp.getSignature().getName(),
-                     parameters(names, pjp.getArgs()),
+                     descriptor.getMethodName(),
+                     LazyLogValue.parameters(descriptor.getParamNames(), arguments),
                      NEW_LINE);
 
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
-    public void logMethodExit(final Logger logger,
-                              final ProceedingJoinPoint pjp,
-                              final Object returnValue) {
-
-        final String description = getClassName(pjp) + ".";
-
-        if (returnValue instanceof Observable) {
-            final Observable observableReturnValue = (Observable) returnValue;
-
-            // Cache the observable.
-            // Future subscriptions to the same will not cause a
-            // re-execution.
-            //
-            observableReturnValue.cache().subscribe(subscribeResult -> {
-                final String returnAsString = CoreLogUtils.returnValueAsString(subscribeResult);
-
-                logger.debug("{} <<< {}{}{}{}observableResult={}{}",
-                             NEW_LINE,
-                             description,
-                             pjp.getSignature().getName(),
-                             NEW_LINE,
-                             INDENT,
-                             returnAsString,
-                             NEW_LINE);
-            });
-        } else {
-
-            final String returnAsString = CoreLogUtils.returnValueAsString(returnValue);
-
-            logger.debug("{} <<< {}{}{}{}result={}{}",
-                         NEW_LINE,
-                         description,
-                         pjp.getSignature().getName(),
-                         NEW_LINE,
-                         INDENT,
-                         returnAsString,
-                         NEW_LINE);
-        }
+    public void logMethodExit(final JoinPointDescriptor descriptor, final Object returnValue) {
+
+        final Logger logger = descriptor.getLogger();
+        final String description = descriptor.getClassName() + ".";
 
+        logger.debug("{} <<< {}{}{}{}result={}{}",
+                     NEW_LINE,
+                     description,
+                     descriptor.getMethodName(),
+                     NEW_LINE,
+                     INDENT,
+                     LazyLogValue.returnValue(returnValue),
+                     NEW_LINE);
+    }
+
+    @Override
+    public void logMethodTime(final JoinPointDescriptor descriptor, final long elapsedNanos) {
+
+        descriptor.getLogger().debug("{} <<< {}.{} took {}us{}",
+                                     NEW_LINE,
+                                     descriptor.getClassName(),
+                                     descriptor.getMethodName(),
+                                     TimeUnit.NANOSECONDS.toMicros(elapsedNanos),
+                                     NEW_LINE);
+    }
+
+    @Override
+    public void logObservableItem(final JoinPointDescriptor descriptor, final long index, final Object item) {
+
+        final Logger logger = descriptor.getLogger();
+        final String description = descriptor.getClassName() + ".";
+
+        logger.debug("{} <<< {}{}{}{}observableResult[{}]={}{}",
+                     NEW_LINE,
+                     description,
+                     descriptor.getMethodName(),
+                     NEW_LINE,
+                     INDENT,
+                     index,
+                     LazyLogValue.returnValue(item),
+                     NEW_LINE);
     }
 
-    /** Log entry parameters */
-    private static String parameters(final String[] names, final Object[] arguments) {
+    @Override
+    public void logObservableCompleted(final JoinPointDescriptor descriptor,
+                                       final long items,
+                                       final long firstItemNanos,
+                                       final long completedNanos) {
+
+        descriptor.getLogger().debug("{} <<< {}.{} completed with {} items, first after {}us, took {}us{}",
+                                     NEW_LINE,
+                                     descriptor.getClassName(),
+                                     descriptor.getMethodName(),
+                                     items,
+                                     firstItemNanos < 0 ? "-" : TimeUnit.NANOSECONDS.toMicros(firstItemNanos),
+                                     TimeUnit.NANOSECONDS.toMicros(completedNanos),
+                                     NEW_LINE);
+    }
 
-        final StringBuilder sb = new StringBuilder("(");
-        if (arguments != null) {
+    @Override
+    public void logFutureCompleted(final JoinPointDescriptor descriptor,
+                                   final Object result,
+                                   final long elapsedNanos) {
+
+        final Logger logger = descriptor.getLogger();
+        final String description = descriptor.getClassName() + ".";
 
-            sb.append(NEW_LINE);
+        logger.debug("{} <<< {}{} completed after {}us{}{}futureResult={}{}",
+                     NEW_LINE,
+                     description,
+                     descriptor.getMethodName(),
+                     TimeUnit.NANOSECONDS.toMicros(elapsedNanos),
+                     NEW_LINE,
+                     INDENT,
+                     LazyLogValue.returnValue(result),
+                     NEW_LINE);
+    }
 
-            CoreLogUtils.appendNamedParameters(sb, names, arguments, 1);
+    /**
+     * Consult the throttle, reporting any similar exceptions it suppressed.
+     *
+     * @return true if the exception should be logged.
+     */
+    private boolean acquireException(final JoinPointDescriptor descriptor, final Throwable exception) {
 
+        final long suppressed = exceptionLogThrottle.acquire(exception, descriptor.getLogger());
+        if (suppressed == ExceptionLogThrottle.SUPPRESSED) {
+            return false;
         }
 
-        sb.append(')');
-        return sb.toString();
+        if (suppressed > 0) {
+            descriptor.getLogger().debug("{} " + ExceptionLogThrottle.SUPPRESSED_MESSAGE + "{}",
+                                         NEW_LINE,
+                                         suppressed,
+                                         exception.getClass().getName(),
+                                         NEW_LINE);
+        }
+        return true;
     }
 
-    /** Returns the real class name being invoked */
-    private static String getClassName(final ProceedingJoinPoint pjp) {
-        return pjp.getSignature().getDeclaringTypeName();
+    private static String message(final Throwable exception) {
+        final String message = exception.getMessage();
+        if (StringUtils.isBlank(message)) {
+            return "Blank message on exception type " + exception.getClass().getName();
+        }
+        return message;
     }
 }
@@ -0,0 +1,89 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+
+/**
+ * Immutable snapshot of the configured verbosity levels. A new instance is
+ * created on every change so its identity can be used to detect stale cached
+ * decisions.
+ */
+final class VerbosityRules {
+
+    private final LogVerbosity defaultVerbosity;
+
+    private final Map<String, LogVerbosity> levels;
+
+    VerbosityRules(final LogVerbosity defaultVerbosity, final Map<String, LogVerbosity> levels) {
+        this.defaultVerbosity = defaultVerbosity;
+        this.levels = Collections.unmodifiableMap(new HashMap<>(levels));
+    }
+
+    LogVerbosity getDefaultVerbosity() {
+        return defaultVerbosity;
+    }
+
+    Map<String, LogVerbosity> getLevels() {
+        return levels;
+    }
+
+    /**
+     * Resolve the most specific level for the descriptor, matching the method
+     * on both the implementation class and the declaring (possibly interface)
+     * type. The longest matching name wins.
+     *
+     * @param descriptor
+     * @return the matched level or the default.
+     */
+    LogVerbosity resolve(final JoinPointDescriptor descriptor) {
+        return resolve(levels, descriptor, defaultVerbosity);
+    }
+
+    /**
+     * As {@link #resolve(JoinPointDescriptor)} for any setting keyed by
+     * package, class or class.method name.
+     *
+     * @param values
+     * @param descriptor
+     * @param defaultValue
+     * @return the matched value or the default.
+     */
+    static <V> V resolve(final Map<String, V> values,
+                         final JoinPointDescriptor descriptor,
+                         final V defaultValue) {
+
+        if (values.isEmpty()) {
+            return defaultValue;
+        }
+
+        final String targetMatch = longestMatch(values, descriptor.getTargetClass().getName() + "."
+                                                        + descriptor.getMethodName());
+        final String declaredMatch = longestMatch(values, descriptor.getClassName() + "."
+                                                          + descriptor.getMethodName());
+
+        if (targetMatch == null && declaredMatch == null) {
+            return defaultValue;
+        }
+        if (declaredMatch == null
+            || targetMatch != null && targetMatch.length() >= declaredMatch.length()) {
+            return values.get(targetMatch);
+        }
+        return values.get(declaredMatch);
+    }
+
+    private static String longestMatch(final Map<String, ?> values, final String qualifiedName) {
+
+        String name = qualifiedName;
+        while (!values.containsKey(name)) {
+            final int separator = name.lastIndexOf('.');
+            if (separator < 0) {
+                return null;
+            }
+            name = name.substring(0, separator);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,49 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Applies the {@link CoreLoggerAdvice} by weaving it into the bytecode of the
+ * application, either at build time with ajc or at class load with the
+ * AspectJ agent and META-INF/aop-vennetics-logging.xml. Woven calls have no
+ * proxy in front of them so self-invocations are logged too.
+ * <P>
+ * AspectJ creates the single instance, so the advice is bound once the Spring
+ * context has built it by the {@link WovenLoggingAspectBinder}. Until then, and
+ * after the context closes, woven methods just proceed.
+ */
+@Aspect
+public class WovenLoggingAspect {
+
+    private static volatile CoreLoggerAdvice coreLoggerAdvice;
+
+    /**
+     * @param pjp
+     * @return the result from the target object.
+     * @throws Throwable
+     */
+    @Around("LoggingPointcuts.inWovenLoggingPointCut()")
+    // Allow throwable as needed by AOP.
+    @SuppressWarnings({ "squid:S00112" })
+    public Object doLogging(final ProceedingJoinPoint pjp) throws Throwable {
+        final CoreLoggerAdvice advice = coreLoggerAdvice;
+        if (advice == null) {
+            return pjp.proceed();
+        }
+        return advice.doLogging(pjp);
+    }
+
+    /**
+     * @param advice
+     *            applied to woven methods or null to stop logging them.
+     */
+    static void bind(final CoreLoggerAdvice advice) {
+        coreLoggerAdvice = advice;
+    }
+
+    static CoreLoggerAdvice getBoundAdvice() {
+        return coreLoggerAdvice;
+    }
+}
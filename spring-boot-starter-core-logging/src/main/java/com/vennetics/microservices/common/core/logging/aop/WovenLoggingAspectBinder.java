@@ -0,0 +1,55 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.aspectj.lang.Aspects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the {@link CoreLoggerAdvice} to the {@link WovenLoggingAspect} when
+ * com.vennetics.microservices.common.core.logging.weaving.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(
+                prefix = "com.vennetics.microservices.common.core.logging.weaving",
+                name = "enabled",
+                havingValue = "true")
+public class WovenLoggingAspectBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(WovenLoggingAspectBinder.class);
+
+    private final CoreLoggerAdvice coreLoggerAdvice;
+
+    @Autowired(required = true)
+    public WovenLoggingAspectBinder(final CoreLoggerAdvice coreLoggerAdvice) {
+        super();
+        this.coreLoggerAdvice = coreLoggerAdvice;
+    }
+
+    /**
+     * Start logging woven methods.
+     */
+    @PostConstruct
+    public void bind() {
+        if (!Aspects.hasAspect(WovenLoggingAspect.class)) {
+            logger.warn("Logging weaving is enabled but {} has not been woven. Build with ajc or run with the "
+                        + "AspectJ agent and -Dorg.aspectj.weaver.loadtime.configuration="
+                        + "META-INF/aop-vennetics-logging.xml", WovenLoggingAspect.class.getName());
+        }
+        WovenLoggingAspect.bind(coreLoggerAdvice);
+        logger.debug("Bound CoreLoggerAdvice to woven methods");
+    }
+
+    /**
+     * Stop logging woven methods as the advice is no longer usable.
+     */
+    @PreDestroy
+    public void unbind() {
+        WovenLoggingAspect.bind(null);
+    }
+}
@@ -0,0 +1,412 @@
+package com.vennetics.microservices.common.core.logging.async;
+
+import static com.vennetics.microservices.common.core.logging.LoggingConstants.NEW_LINE;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.AsyncOverflowPolicy;
+import com.vennetics.microservices.common.core.logging.LoggingConstants;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.IProceedingJoinPointLogger;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+
+/**
+ * Captures a snapshot of each event into a bounded lock-free ring buffer and
+ * renders it on a background thread using the standard or structured logger.
+ * The caller is never blocked: when the renderer falls behind details or whole
+ * events are dropped according to the {@link AsyncOverflowPolicy} and counted.
+ * <P>
+ * Arguments and results are captured by reference so objects mutated after
+ * the call may be rendered in their later state.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(
+                prefix = "com.vennetics.microservices.common.core.logging.async",
+                name = "enabled",
+                havingValue = "true")
+public class AsyncPjpLogger implements IProceedingJoinPointLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncPjpLogger.class);
+
+    /**
+     * Renderer sleep when there is nothing to render.
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Minimum interval between reports of dropped events.
+     */
+    private static final long DROP_REPORT_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private static final String MDC_EVENT_TIME = "aopEventTime";
+
+    private final IProceedingJoinPointLogger renderer;
+
+    private final LogEventRingBuffer ringBuffer;
+
+    private final AsyncOverflowPolicy overflowPolicy;
+
+    private final boolean captureMdc;
+
+    private final int detailThreshold;
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private final AtomicLong droppedDetails = new AtomicLong();
+
+    private long reportedDrops;
+
+    private long lastDropReport;
+
+    private volatile boolean running;
+
+    private Thread rendererThread;
+
+    @Autowired(required = true)
+    public AsyncPjpLogger(@Qualifier(LoggingConstants.PJP_RENDERER) final IProceedingJoinPointLogger renderer,
+                          final LoggingProperties loggingProperties) {
+        super();
+        this.renderer = renderer;
+        final LoggingProperties.Async async = loggingProperties.getAsync();
+        ringBuffer = new LogEventRingBuffer(async.getBufferSize());
+        overflowPolicy = async.getOverflowPolicy();
+        captureMdc = async.isCaptureMdc();
+        detailThreshold = ringBuffer.getCapacity() - ringBuffer.getCapacity() / 4;
+    }
+
+    /**
+     * Start the renderer thread.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        rendererThread = new Thread(this::renderLoop, "aop-log-renderer");
+        rendererThread.setDaemon(true);
+        rendererThread.start();
+        logger.info("Started asynchronous advice logging with {} slots and policy {}",
+                    ringBuffer.getCapacity(),
+                    overflowPolicy);
+    }
+
+    /**
+     * Stop the renderer once everything already captured has been rendered.
+     *
+     * @throws InterruptedException
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(rendererThread);
+        rendererThread.join(TimeUnit.SECONDS.toMillis(5));
+        logger.info("Stopped asynchronous advice logging. Dropped {} events and {} details",
+                    droppedEvents.get(),
+                    droppedDetails.get());
+    }
+
+    @Override
+    public void logException(final JoinPointDescriptor descriptor, final Throwable exception) {
+        final LogEvent event = claim(LogEvent.Type.EXCEPTION, descriptor);
+        if (event != null) {
+            event.setException(exception);
+            ringBuffer.publish(event);
+        }
+    }
+
+    @Override
+    public void logMethodEntry(final JoinPointDescriptor descriptor, final Object[] arguments) {
+        final LogEvent event = claim(LogEvent.Type.ENTRY, descriptor);
+        if (event != null) {
+            if (!event.isDetailDropped()) {
+                event.setArguments(arguments);
+            }
+            ringBuffer.publish(event);
+        }
+    }
+
+    @Override
+    public void logMethodExit(final JoinPointDescriptor descriptor, final Object returnValue) {
+        final LogEvent event = claim(LogEvent.Type.EXIT, descriptor);
+        if (event != null) {
+            if (!event.isDetailDropped()) {
+                event.setReturnValue(returnValue);
+            }
+            ringBuffer.publish(event);
+        }
+    }
+
+    @Override
+    public void logMethodTime(final JoinPointDescriptor descriptor, final long elapsedNanos) {
+        final LogEvent event = claim(LogEvent.Type.TIME, descriptor);
+        if (event != null) {
+            event.setElapsedNanos(elapsedNanos);
+            ringBuffer.publish(event);
+        }
+    }
+
+    @Override
+    public void logObservableItem(final JoinPointDescriptor descriptor, final long index, final Object item) {
+        final LogEvent event = claim(LogEvent.Type.OBSERVABLE_ITEM, descriptor);
+        if (event != null) {
+            event.setItemCount(index);
+            if (!event.isDetailDropped()) {
+                event.setReturnValue(item);
+            }
+            ringBuffer.publish(event);
+        }
+    }
+
+    @Override
+    public void logObservableCompleted(final JoinPointDescriptor descriptor,
+                                       final long items,
+                                       final long firstItemNanos,
+                                       final long completedNanos) {
+        final LogEvent event = claim(LogEvent.Type.OBSERVABLE_COMPLETED, descriptor);
+        if (event != null) {
+            event.setItemCount(items);
+            event.setFirstItemNanos(firstItemNanos);
+            event.setElapsedNanos(completedNanos);
+            ringBuffer.publish(event);
+        }
+    }
+
+    @Override
+    public void logFutureCompleted(final JoinPointDescriptor descriptor,
+                                   final Object result,
+                                   final long elapsedNanos) {
+        final LogEvent event = claim(LogEvent.Type.FUTURE_COMPLETED, descriptor);
+        if (event != null) {
+            event.setElapsedNanos(elapsedNanos);
+            if (!event.isDetailDropped()) {
+                event.setReturnValue(result);
+            }
+            ringBuffer.publish(event);
+        }
+    }
+
+    @Override
+    public void logSlowCall(final JoinPointDescriptor descriptor,
+                            final Object[] arguments,
+                            final Object result,
+                            final Throwable failure,
+                            final long elapsedNanos) {
+        final LogEvent event = claim(LogEvent.Type.SLOW_CALL, descriptor);
+        if (event != null) {
+            event.setException(failure);
+            event.setElapsedNanos(elapsedNanos);
+            if (!event.isDetailDropped()) {
+                event.setArguments(arguments);
+                event.setReturnValue(result);
+            }
+            ringBuffer.publish(event);
+        }
+    }
+
+    /**
+     * @return events dropped because the buffer was full.
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * @return events logged without arguments or results because the buffer
+     *         was nearly full.
+     */
+    public long getDroppedDetails() {
+        return droppedDetails.get();
+    }
+
+    /**
+     * @return events waiting to be rendered.
+     */
+    public int getPendingEvents() {
+        return ringBuffer.size();
+    }
+
+    private LogEvent claim(final LogEvent.Type type, final JoinPointDescriptor descriptor) {
+
+        final boolean dropDetail = overflowPolicy == AsyncOverflowPolicy.DROP_DETAIL
+                                   && ringBuffer.size() >= detailThreshold;
+
+        final LogEvent event = ringBuffer.claim();
+        if (event == null) {
+            droppedEvents.incrementAndGet();
+            return null;
+        }
+
+        event.set(type, descriptor, System.currentTimeMillis());
+        if (dropDetail && hasDetail(type)) {
+            event.setDetailDropped(true);
+            droppedDetails.incrementAndGet();
+        }
+        if (captureMdc) {
+            event.setMdc(MDC.getCopyOfContextMap());
+        }
+        return event;
+    }
+
+    private static boolean hasDetail(final LogEvent.Type type) {
+        return type == LogEvent.Type.ENTRY
+               || type == LogEvent.Type.EXIT
+               || type == LogEvent.Type.OBSERVABLE_ITEM
+               || type == LogEvent.Type.FUTURE_COMPLETED
+               || type == LogEvent.Type.SLOW_CALL;
+    }
+
+    private void renderLoop() {
+        while (running) {
+            if (drain() == 0) {
+                reportDrops();
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        drain();
+        reportDrops();
+    }
+
+    /**
+     * Render everything currently published. Renderer thread only.
+     *
+     * @return the number of events rendered.
+     */
+    int drain() {
+        int rendered = 0;
+        LogEvent event = ringBuffer.poll();
+        while (event != null) {
+            try {
+                render(event);
+            } catch (final RuntimeException e) {
+                logger.warn("Failed to render log event", e);
+            } finally {
+                ringBuffer.release(event);
+            }
+            rendered++;
+            event = ringBuffer.poll();
+        }
+        return rendered;
+    }
+
+    private void render(final LogEvent event) {
+
+        final Map<String, String> mdc = event.getMdc();
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        } else {
+            MDC.clear();
+        }
+        MDC.put(MDC_EVENT_TIME, Long.toString(event.getTimestamp()));
+
+        final JoinPointDescriptor descriptor = event.getDescriptor();
+        switch (event.getType()) {
+            case ENTRY:
+                if (event.isDetailDropped()) {
+                    descriptor.getLogger().debug("{} >>> {}(<detail dropped>){}",
+                                                 NEW_LINE,
+                                                 descriptor,
+                                                 NEW_LINE);
+                } else {
+                    renderer.logMethodEntry(descriptor, event.getArguments());
+                }
+                break;
+            case EXIT:
+                if (event.isDetailDropped()) {
+                    descriptor.getLogger().debug("{} <<< {}(<detail dropped>){}",
+                                                 NEW_LINE,
+                                                 descriptor,
+                                                 NEW_LINE);
+                } else {
+                    renderer.logMethodExit(descriptor, event.getReturnValue());
+                }
+                break;
+            case EXCEPTION:
+                renderer.logException(descriptor, event.getException());
+                break;
+            case TIME:
+                renderer.logMethodTime(descriptor, event.getElapsedNanos());
+                break;
+            case OBSERVABLE_ITEM:
+                if (event.isDetailDropped()) {
+                    descriptor.getLogger().debug("{} <<< {}[{}](<detail dropped>){}",
+                                                 NEW_LINE,
+                                                 descriptor,
+                                                 event.getItemCount(),
+                                                 NEW_LINE);
+                } else {
+                    renderer.logObservableItem(descriptor,
+                                               event.getItemCount(),
+                                               event.getReturnValue());
+                }
+                break;
+            case OBSERVABLE_COMPLETED:
+                renderer.logObservableCompleted(descriptor,
+                                                event.getItemCount(),
+                                                event.getFirstItemNanos(),
+                                                event.getElapsedNanos());
+                break;
+            case FUTURE_COMPLETED:
+                if (event.isDetailDropped()) {
+                    renderer.logMethodTime(descriptor, event.getElapsedNanos());
+                } else {
+                    renderer.logFutureCompleted(descriptor,
+                                                event.getReturnValue(),
+                                                event.getElapsedNanos());
+                }
+                break;
+            case SLOW_CALL:
+                renderSlowCall(event);
+                break;
+            default:
+                break;
+        }
+        MDC.clear();
+    }
+
+    private void renderSlowCall(final LogEvent event) {
+        final JoinPointDescriptor descriptor = event.getDescriptor();
+        if (!event.isDetailDropped()) {
+            renderer.logSlowCall(descriptor,
+                                 event.getArguments(),
+                                 event.getReturnValue(),
+                                 event.getException(),
+                                 event.getElapsedNanos());
+        } else if (event.getException() != null) {
+            renderer.logException(descriptor, event.getException());
+        } else {
+            renderer.logMethodTime(descriptor, event.getElapsedNanos());
+        }
+    }
+
+    private void reportDrops() {
+        final long drops = droppedEvents.get();
+        final long now = System.currentTimeMillis();
+        if (drops != reportedDrops && now - lastDropReport >= DROP_REPORT_INTERVAL_MILLIS) {
+            logger.warn("Asynchronous advice logging dropped {} events ({} total)",
+                        drops - reportedDrops,
+                        drops);
+            reportedDrops = drops;
+            lastDropReport = now;
+        }
+    }
+}
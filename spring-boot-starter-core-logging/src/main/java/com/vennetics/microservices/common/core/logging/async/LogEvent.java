@@ -0,0 +1,163 @@
+package com.vennetics.microservices.common.core.logging.async;
+
+import java.util.Map;
+
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+
+/**
+ * Pre-allocated ring buffer slot holding a snapshot of one advised method
+ * event. Owned by the producer between claim and publish and by the renderer
+ * thread between poll and release.
+ */
+final class LogEvent {
+
+    /**
+     * Kinds of event captured.
+     */
+    enum Type {
+        ENTRY, EXIT, EXCEPTION, TIME, OBSERVABLE_ITEM, OBSERVABLE_COMPLETED, FUTURE_COMPLETED, SLOW_CALL
+    }
+
+    private final int index;
+
+    private long sequence;
+
+    private Type type;
+
+    private JoinPointDescriptor descriptor;
+
+    private long timestamp;
+
+    private Object[] arguments;
+
+    private Object returnValue;
+
+    private Throwable exception;
+
+    private long elapsedNanos;
+
+    private long itemCount;
+
+    private long firstItemNanos;
+
+    private boolean detailDropped;
+
+    private Map<String, String> mdc;
+
+    LogEvent(final int index) {
+        this.index = index;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(final long sequence) {
+        this.sequence = sequence;
+    }
+
+    void set(final Type type, final JoinPointDescriptor descriptor, final long timestamp) {
+        this.type = type;
+        this.descriptor = descriptor;
+        this.timestamp = timestamp;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    JoinPointDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    Object[] getArguments() {
+        return arguments;
+    }
+
+    void setArguments(final Object[] arguments) {
+        this.arguments = arguments;
+    }
+
+    Object getReturnValue() {
+        return returnValue;
+    }
+
+    void setReturnValue(final Object returnValue) {
+        this.returnValue = returnValue;
+    }
+
+    Throwable getException() {
+        return exception;
+    }
+
+    void setException(final Throwable exception) {
+        this.exception = exception;
+    }
+
+    long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    void setElapsedNanos(final long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return the item index or number of items for observable events.
+     */
+    long getItemCount() {
+        return itemCount;
+    }
+
+    void setItemCount(final long itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    long getFirstItemNanos() {
+        return firstItemNanos;
+    }
+
+    void setFirstItemNanos(final long firstItemNanos) {
+        this.firstItemNanos = firstItemNanos;
+    }
+
+    boolean isDetailDropped() {
+        return detailDropped;
+    }
+
+    void setDetailDropped(final boolean detailDropped) {
+        this.detailDropped = detailDropped;
+    }
+
+    Map<String, String> getMdc() {
+        return mdc;
+    }
+
+    void setMdc(final Map<String, String> mdc) {
+        this.mdc = mdc;
+    }
+
+    /**
+     * Drop references so rendered arguments can be collected.
+     */
+    void clear() {
+        type = null;
+        descriptor = null;
+        arguments = null;
+        returnValue = null;
+        exception = null;
+        mdc = null;
+        detailDropped = false;
+        elapsedNanos = 0;
+        itemCount = 0;
+        firstItemNanos = 0;
+    }
+}
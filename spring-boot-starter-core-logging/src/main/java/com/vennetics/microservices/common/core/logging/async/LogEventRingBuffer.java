@@ -0,0 +1,112 @@
+package com.vennetics.microservices.common.core.logging.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer single-consumer ring of pre-allocated
+ * {@link LogEvent} slots. Each slot carries a sequence number telling
+ * producers and the consumer whose turn it is, so claiming a slot is one CAS
+ * and a full ring is reported rather than waited on.
+ */
+final class LogEventRingBuffer {
+
+    private final LogEvent[] slots;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong head = new AtomicLong();
+
+    LogEventRingBuffer(final int requestedCapacity) {
+        final int capacity = powerOfTwo(requestedCapacity);
+        slots = new LogEvent[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new LogEvent(i);
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+
+    int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return an approximate count of events waiting to be rendered.
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * Claim the next free slot. Never blocks.
+     *
+     * @return the slot to fill and {@link #publish(LogEvent)} or null when the
+     *         ring is full.
+     */
+    LogEvent claim() {
+        long position = tail.get();
+        while (true) {
+            final int index = (int) (position & mask);
+            final long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    final LogEvent event = slots[index];
+                    event.setSequence(position);
+                    return event;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                return null;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Make a claimed slot visible to the consumer.
+     *
+     * @param event
+     */
+    void publish(final LogEvent event) {
+        sequences.lazySet(event.getIndex(), event.getSequence() + 1);
+    }
+
+    /**
+     * Consumer only.
+     *
+     * @return the next published event or null if there is none yet.
+     */
+    LogEvent poll() {
+        final long position = head.get();
+        final int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        return slots[index];
+    }
+
+    /**
+     * Consumer only. Return a polled slot to the producers.
+     *
+     * @param event
+     */
+    void release(final LogEvent event) {
+        event.clear();
+        final long position = head.get();
+        sequences.lazySet(event.getIndex(), position + slots.length);
+        head.lazySet(position + 1);
+    }
+
+    private static int powerOfTwo(final int requested) {
+        final int atLeastTwo = Math.max(2, requested);
+        final int capacity = Integer.highestOneBit(atLeastTwo);
+        return capacity == atLeastTwo ? capacity : capacity << 1;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Asynchronous rendering of advised method log lines.
+ */
+package com.vennetics.microservices.common.core.logging.async;
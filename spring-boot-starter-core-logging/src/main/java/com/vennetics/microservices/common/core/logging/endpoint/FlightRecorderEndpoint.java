@@ -0,0 +1,41 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.vennetics.microservices.common.core.logging.recorder.FlightRecord;
+import com.vennetics.microservices.common.core.logging.recorder.FlightRecorder;
+
+/**
+ * Reports the last advised invocations recorded on each live thread, oldest
+ * first, in the same form they are logged on error.
+ */
+@ConfigurationProperties(prefix = "endpoints.flightrecorder")
+public class FlightRecorderEndpoint extends AbstractEndpoint<Map<String, List<String>>> {
+
+    private final FlightRecorder flightRecorder;
+
+    public FlightRecorderEndpoint(final FlightRecorder flightRecorder) {
+        super("flightrecorder");
+        this.flightRecorder = flightRecorder;
+    }
+
+    @Override
+    public Map<String, List<String>> invoke() {
+
+        final Map<String, List<String>> threads = new LinkedHashMap<>();
+        for (final Map.Entry<String, List<FlightRecord>> entry : flightRecorder.snapshot().entrySet()) {
+            final List<String> lines = new ArrayList<>(entry.getValue().size());
+            for (final FlightRecord record : entry.getValue()) {
+                lines.add(flightRecorder.render(record));
+            }
+            threads.put(entry.getKey(), lines);
+        }
+        return threads;
+    }
+}
@@ -0,0 +1,62 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.vennetics.microservices.common.core.logging.aop.HotMethodDetector;
+import com.vennetics.microservices.common.core.logging.aop.HotMethodState;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+
+/**
+ * Reports the call rate and mean body time of each advised method and
+ * whether it has been demoted to a pass-through fast path. Methods are keyed
+ * by their full signature so overloads are reported separately. See
+ * {@link HotMethodsMvcEndpoint} to demote and restore methods by hand.
+ */
+@ConfigurationProperties(prefix = "endpoints.hotmethods")
+public class HotMethodsEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final HotMethodDetector hotMethodDetector;
+
+    private final JoinPointDescriptorRegistry descriptorRegistry;
+
+    public HotMethodsEndpoint(final HotMethodDetector hotMethodDetector,
+                              final JoinPointDescriptorRegistry descriptorRegistry) {
+        super("hotmethods");
+        this.hotMethodDetector = hotMethodDetector;
+        this.descriptorRegistry = descriptorRegistry;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+
+        final Map<String, Object> methods = new TreeMap<>();
+        for (final JoinPointDescriptor descriptor : descriptorRegistry.getDescriptors()) {
+            final HotMethodState state = descriptor.getHotMethodState();
+            final Map<String, Object> values = new LinkedHashMap<>();
+            values.put("demoted", state.isDemoted());
+            values.put("pinned", state.isPinned());
+            values.put("callsPerSecond", Math.round(state.getCallsPerSecond()));
+            values.put("meanBodyNanos", state.getMeanBodyNanos());
+            methods.put(MethodNames.signatureOf(descriptor), values);
+        }
+
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", hotMethodDetector.isEnabled());
+        result.put("methods", methods);
+        return result;
+    }
+
+    HotMethodDetector getHotMethodDetector() {
+        return hotMethodDetector;
+    }
+
+    JoinPointDescriptorRegistry getDescriptorRegistry() {
+        return descriptorRegistry;
+    }
+}
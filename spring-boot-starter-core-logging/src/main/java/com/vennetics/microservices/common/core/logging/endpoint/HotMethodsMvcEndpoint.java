@@ -0,0 +1,103 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import org.springframework.boot.actuate.endpoint.mvc.EndpointMvcAdapter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+
+/**
+ * Allows advised methods to be demoted and restored at runtime by target
+ * class and method name, which covers every overload, or by the full
+ * signature reported by {@link HotMethodsEndpoint} e.g.
+ *
+ * <pre>
+ * POST /hotmethods/com.vennetics.bss.Dao.find
+ * DELETE /hotmethods/com.vennetics.bss.Dao.find(java.lang.String,int)
+ * POST /hotmethods/reset
+ * </pre>
+ *
+ * A method restored with DELETE is not demoted again automatically until
+ * reset.
+ */
+public class HotMethodsMvcEndpoint extends EndpointMvcAdapter {
+
+    /**
+     * Name used to restore all methods and re-enable automatic demotion.
+     */
+    public static final String RESET = "reset";
+
+    private final HotMethodsEndpoint delegate;
+
+    public HotMethodsMvcEndpoint(final HotMethodsEndpoint delegate) {
+        super(delegate);
+        this.delegate = delegate;
+    }
+
+    /**
+     * Demote a method by signature or every overload of a class.method, or
+     * restore all methods when the name is reset.
+     *
+     * @param name
+     * @return the updated endpoint state.
+     */
+    @RequestMapping(value = "/{name:.*}", method = RequestMethod.POST)
+    @ResponseBody
+    public Object demote(@PathVariable("name") final String name) {
+        if (!delegate.isEnabled()) {
+            return getDisabledResponse();
+        }
+
+        if (RESET.equals(name)) {
+            for (final JoinPointDescriptor descriptor : delegate.getDescriptorRegistry().getDescriptors()) {
+                delegate.getHotMethodDetector().reset(descriptor);
+            }
+            return delegate.invoke();
+        }
+
+        boolean found = false;
+        for (final JoinPointDescriptor descriptor : delegate.getDescriptorRegistry().getDescriptors()) {
+            if (matches(name, descriptor)) {
+                delegate.getHotMethodDetector().demote(descriptor);
+                found = true;
+            }
+        }
+        return found ? delegate.invoke() : notFound(name);
+    }
+
+    /**
+     * Restore a method by signature or every overload of a class.method.
+     *
+     * @param name
+     * @return the updated endpoint state.
+     */
+    @RequestMapping(value = "/{name:.*}", method = RequestMethod.DELETE)
+    @ResponseBody
+    public Object restore(@PathVariable("name") final String name) {
+        if (!delegate.isEnabled()) {
+            return getDisabledResponse();
+        }
+
+        boolean found = false;
+        for (final JoinPointDescriptor descriptor : delegate.getDescriptorRegistry().getDescriptors()) {
+            if (matches(name, descriptor)) {
+                delegate.getHotMethodDetector().restore(descriptor);
+                found = true;
+            }
+        }
+        return found ? delegate.invoke() : notFound(name);
+    }
+
+    private static boolean matches(final String name, final JoinPointDescriptor descriptor) {
+        return name.equals(MethodNames.nameOf(descriptor))
+                        || name.equals(MethodNames.signatureOf(descriptor));
+    }
+
+    private static ResponseEntity<String> notFound(final String name) {
+        return new ResponseEntity<>("No advised method " + name, HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,51 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LogSampler;
+import com.vennetics.microservices.common.core.logging.aop.SamplingState;
+
+/**
+ * Reports how many invocations of each advised method were logged and how
+ * many were suppressed by sampling. Methods are keyed by their full signature
+ * so overloads are reported separately.
+ */
+@ConfigurationProperties(prefix = "endpoints.logsampling")
+public class LogSamplingEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final LogSampler logSampler;
+
+    private final JoinPointDescriptorRegistry descriptorRegistry;
+
+    public LogSamplingEndpoint(final LogSampler logSampler,
+                               final JoinPointDescriptorRegistry descriptorRegistry) {
+        super("logsampling");
+        this.logSampler = logSampler;
+        this.descriptorRegistry = descriptorRegistry;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+
+        final Map<String, Object> methods = new TreeMap<>();
+        for (final JoinPointDescriptor descriptor : descriptorRegistry.getDescriptors()) {
+            final SamplingState state = descriptor.getSamplingState();
+            final Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("sampled", state.getSampled());
+            counts.put("suppressed", state.getSuppressed());
+            methods.put(MethodNames.signatureOf(descriptor), counts);
+        }
+
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("strategy", logSampler.getStrategy());
+        result.put("methods", methods);
+        return result;
+    }
+}
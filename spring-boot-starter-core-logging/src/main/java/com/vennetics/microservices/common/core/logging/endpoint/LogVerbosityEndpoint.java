@@ -0,0 +1,54 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LogVerbosityManager;
+
+/**
+ * Exposes the logging advice verbosity levels and the level currently applied
+ * to each advised method.
+ */
+@ConfigurationProperties(prefix = "endpoints.logverbosity")
+public class LogVerbosityEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final LogVerbosityManager verbosityManager;
+
+    private final JoinPointDescriptorRegistry descriptorRegistry;
+
+    public LogVerbosityEndpoint(final LogVerbosityManager verbosityManager,
+                                final JoinPointDescriptorRegistry descriptorRegistry) {
+        super("logverbosity");
+        this.verbosityManager = verbosityManager;
+        this.descriptorRegistry = descriptorRegistry;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+
+        final Map<String, Object> methods = new TreeMap<>();
+        for (final JoinPointDescriptor descriptor : descriptorRegistry.getDescriptors()) {
+            methods.put(descriptor.getTargetClass().getName() + "." + descriptor.getMethodName(),
+                        verbosityManager.getVerbosity(descriptor));
+        }
+
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("default", verbosityManager.getDefaultVerbosity());
+        result.put("levels", new TreeMap<>(verbosityManager.getLevels()));
+        result.put("methods", methods);
+        return result;
+    }
+
+    /**
+     * @return the manager changed by the MVC endpoint.
+     */
+    public LogVerbosityManager getVerbosityManager() {
+        return verbosityManager;
+    }
+}
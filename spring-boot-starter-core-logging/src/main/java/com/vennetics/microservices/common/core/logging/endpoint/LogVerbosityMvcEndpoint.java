@@ -0,0 +1,96 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import java.util.Locale;
+
+import org.springframework.boot.actuate.endpoint.mvc.EndpointMvcAdapter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+
+/**
+ * Allows verbosity levels to be changed at runtime e.g.
+ *
+ * <pre>
+ * POST /logverbosity/com.vennetics.bss?verbosity=TIMING
+ * POST /logverbosity/default?verbosity=OFF
+ * DELETE /logverbosity/com.vennetics.bss
+ * POST /logverbosity/reset
+ * </pre>
+ */
+public class LogVerbosityMvcEndpoint extends EndpointMvcAdapter {
+
+    /**
+     * Name used to address the default verbosity.
+     */
+    public static final String DEFAULT = "default";
+
+    /**
+     * Name used to discard runtime changes.
+     */
+    public static final String RESET = "reset";
+
+    private final LogVerbosityEndpoint delegate;
+
+    public LogVerbosityMvcEndpoint(final LogVerbosityEndpoint delegate) {
+        super(delegate);
+        this.delegate = delegate;
+    }
+
+    /**
+     * Set the verbosity of a package, class, class.method or the default.
+     *
+     * @param name
+     * @param verbosity
+     * @return the updated endpoint state.
+     */
+    @RequestMapping(value = "/{name:.*}", method = RequestMethod.POST)
+    @ResponseBody
+    public Object set(@PathVariable("name") final String name,
+                      @RequestParam(value = "verbosity", required = false) final String verbosity) {
+        if (!delegate.isEnabled()) {
+            return getDisabledResponse();
+        }
+
+        if (RESET.equals(name)) {
+            delegate.getVerbosityManager().reset();
+            return delegate.invoke();
+        }
+
+        final LogVerbosity level;
+        try {
+            level = LogVerbosity.valueOf(String.valueOf(verbosity).toUpperCase(Locale.ENGLISH));
+        } catch (final IllegalArgumentException e) {
+            return new ResponseEntity<>("Unknown verbosity " + verbosity, HttpStatus.BAD_REQUEST);
+        }
+
+        if (DEFAULT.equals(name)) {
+            delegate.getVerbosityManager().setDefaultVerbosity(level);
+        } else {
+            delegate.getVerbosityManager().setLevel(name, level);
+        }
+        return delegate.invoke();
+    }
+
+    /**
+     * Remove the verbosity level of a package, class or class.method.
+     *
+     * @param name
+     * @return the updated endpoint state.
+     */
+    @RequestMapping(value = "/{name:.*}", method = RequestMethod.DELETE)
+    @ResponseBody
+    public Object remove(@PathVariable("name") final String name) {
+        if (!delegate.isEnabled()) {
+            return getDisabledResponse();
+        }
+
+        delegate.getVerbosityManager().setLevel(name, null);
+        return delegate.invoke();
+    }
+}
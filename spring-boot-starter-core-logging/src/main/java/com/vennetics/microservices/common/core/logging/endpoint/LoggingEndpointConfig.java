@@ -0,0 +1,151 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.mvc.EndpointMvcAdapter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import com.vennetics.microservices.common.core.logging.aop.HotMethodDetector;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LogSampler;
+import com.vennetics.microservices.common.core.logging.aop.LogVerbosityManager;
+import com.vennetics.microservices.common.core.logging.metrics.LatencyRecorder;
+import com.vennetics.microservices.common.core.logging.profile.StackProfiler;
+import com.vennetics.microservices.common.core.logging.recorder.FlightRecorder;
+
+/**
+ * Registers the logging actuator endpoints when the actuator is on the
+ * classpath. The MVC variants are only added to web applications.
+ */
+@Configuration
+@ConditionalOnClass(Endpoint.class)
+public class LoggingEndpointConfig {
+
+    /**
+     * @param verbosityManager
+     * @param descriptorRegistry
+     * @return endpoint reporting verbosity levels.
+     */
+    @Bean
+    public LogVerbosityEndpoint logVerbosityEndpoint(final LogVerbosityManager verbosityManager,
+                                                     final JoinPointDescriptorRegistry descriptorRegistry) {
+        return new LogVerbosityEndpoint(verbosityManager, descriptorRegistry);
+    }
+
+    /**
+     * @param logSampler
+     * @param descriptorRegistry
+     * @return endpoint reporting sampled and suppressed invocations.
+     */
+    @Bean
+    public LogSamplingEndpoint logSamplingEndpoint(final LogSampler logSampler,
+                                                   final JoinPointDescriptorRegistry descriptorRegistry) {
+        return new LogSamplingEndpoint(logSampler, descriptorRegistry);
+    }
+
+    /**
+     * @param latencyRecorder
+     * @return endpoint reporting advised method latency percentiles.
+     */
+    @Bean
+    @ConditionalOnProperty(
+                    prefix = "com.vennetics.microservices.common.core.logging.metrics",
+                    name = "enabled",
+                    havingValue = "true")
+    public MethodLatencyEndpoint methodLatencyEndpoint(final LatencyRecorder latencyRecorder) {
+        return new MethodLatencyEndpoint(latencyRecorder);
+    }
+
+    /**
+     * @param latencyRecorder
+     * @return advised method latency gauges for the metrics endpoint.
+     */
+    @Bean
+    @ConditionalOnProperty(
+                    prefix = "com.vennetics.microservices.common.core.logging.metrics",
+                    name = "enabled",
+                    havingValue = "true")
+    public MethodLatencyPublicMetrics methodLatencyPublicMetrics(final LatencyRecorder latencyRecorder) {
+        return new MethodLatencyPublicMetrics(latencyRecorder);
+    }
+
+    /**
+     * @param flightRecorder
+     * @return endpoint reporting the last invocations on each thread.
+     */
+    @Bean
+    @ConditionalOnProperty(
+                    prefix = "com.vennetics.microservices.common.core.logging.flight-recorder",
+                    name = "enabled",
+                    havingValue = "true")
+    public FlightRecorderEndpoint flightRecorderEndpoint(final FlightRecorder flightRecorder) {
+        return new FlightRecorderEndpoint(flightRecorder);
+    }
+
+    /**
+     * @param stackProfiler
+     * @return endpoint reporting the advised method stack profile.
+     */
+    @Bean
+    @ConditionalOnProperty(
+                    prefix = "com.vennetics.microservices.common.core.logging.stack-profile",
+                    name = "enabled",
+                    havingValue = "true")
+    public StackProfileEndpoint stackProfileEndpoint(final StackProfiler stackProfiler) {
+        return new StackProfileEndpoint(stackProfiler);
+    }
+
+    /**
+     * @param hotMethodDetector
+     * @param descriptorRegistry
+     * @return endpoint reporting methods demoted to pass-through.
+     */
+    @Bean
+    public HotMethodsEndpoint hotMethodsEndpoint(final HotMethodDetector hotMethodDetector,
+                                                 final JoinPointDescriptorRegistry descriptorRegistry) {
+        return new HotMethodsEndpoint(hotMethodDetector, descriptorRegistry);
+    }
+
+    /**
+     * MVC endpoints allowing the logging advice to be changed and profiles read
+     * at runtime.
+     */
+    @Configuration
+    @ConditionalOnClass({ EndpointMvcAdapter.class, DispatcherServlet.class })
+    public static class LoggingMvcEndpointConfig {
+
+        /**
+         * @param logVerbosityEndpoint
+         * @return endpoint changing verbosity levels.
+         */
+        @Bean
+        public LogVerbosityMvcEndpoint logVerbosityMvcEndpoint(final LogVerbosityEndpoint logVerbosityEndpoint) {
+            return new LogVerbosityMvcEndpoint(logVerbosityEndpoint);
+        }
+
+        /**
+         * @param hotMethodsEndpoint
+         * @return endpoint demoting and restoring methods.
+         */
+        @Bean
+        public HotMethodsMvcEndpoint hotMethodsMvcEndpoint(final HotMethodsEndpoint hotMethodsEndpoint) {
+            return new HotMethodsMvcEndpoint(hotMethodsEndpoint);
+        }
+
+        /**
+         * @param stackProfileEndpoint
+         * @return endpoint serving the stack profile as plain text.
+         */
+        @Bean
+        @ConditionalOnProperty(
+                        prefix = "com.vennetics.microservices.common.core.logging.stack-profile",
+                        name = "enabled",
+                        havingValue = "true")
+        public StackProfileMvcEndpoint stackProfileMvcEndpoint(final StackProfileEndpoint stackProfileEndpoint) {
+            return new StackProfileMvcEndpoint(stackProfileEndpoint);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.metrics.LatencyHistogram;
+import com.vennetics.microservices.common.core.logging.metrics.LatencyRecorder;
+
+/**
+ * Reports call counts, error counts and latency percentiles in microseconds
+ * for each advised method, keyed by its full signature so overloads are
+ * reported separately.
+ */
+@ConfigurationProperties(prefix = "endpoints.methodlatency")
+public class MethodLatencyEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final LatencyRecorder latencyRecorder;
+
+    public MethodLatencyEndpoint(final LatencyRecorder latencyRecorder) {
+        super("methodlatency");
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+
+        final Map<String, Object> methods = new TreeMap<>();
+        for (final Map.Entry<JoinPointDescriptor, LatencyHistogram> entry : latencyRecorder.getHistograms()
+                                                                                             .entrySet()) {
+            final LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+            final Map<String, Long> values = new LinkedHashMap<>();
+            values.put("count", snapshot.getCount());
+            values.put("errors", snapshot.getErrors());
+            values.put("mean", toMicros(snapshot.getMeanNanos()));
+            values.put("p50", toMicros(snapshot.getValueAtPercentile(50)));
+            values.put("p90", toMicros(snapshot.getValueAtPercentile(90)));
+            values.put("p99", toMicros(snapshot.getValueAtPercentile(99)));
+            values.put("p999", toMicros(snapshot.getValueAtPercentile(99.9)));
+            values.put("max", toMicros(snapshot.getMaxNanos()));
+            methods.put(MethodNames.signatureOf(entry.getKey()), values);
+        }
+        return methods;
+    }
+
+    static long toMicros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,51 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.metrics.LatencyHistogram;
+import com.vennetics.microservices.common.core.logging.metrics.LatencyRecorder;
+
+/**
+ * Publishes advised method latency to the actuator metrics endpoint and any
+ * exporters as gauges named
+ * latency.&lt;class&gt;.&lt;method&gt;(&lt;parameter types&gt;).&lt;stat&gt;
+ * so overloads are published separately. Times are in microseconds.
+ */
+public class MethodLatencyPublicMetrics implements PublicMetrics {
+
+    private static final String PREFIX = "latency.";
+
+    private final LatencyRecorder latencyRecorder;
+
+    public MethodLatencyPublicMetrics(final LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+
+        final Collection<Metric<?>> metrics = new ArrayList<>();
+        for (final Map.Entry<JoinPointDescriptor, LatencyHistogram> entry : latencyRecorder.getHistograms()
+                                                                                             .entrySet()) {
+            final String name = PREFIX + MethodNames.signatureOf(entry.getKey()) + ".";
+            final LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+            metrics.add(new Metric<>(name + "count", snapshot.getCount()));
+            metrics.add(new Metric<>(name + "errors", snapshot.getErrors()));
+            metrics.add(new Metric<>(name + "p50",
+                                     MethodLatencyEndpoint.toMicros(snapshot.getValueAtPercentile(50))));
+            metrics.add(new Metric<>(name + "p99",
+                                     MethodLatencyEndpoint.toMicros(snapshot.getValueAtPercentile(99))));
+            metrics.add(new Metric<>(name + "p999",
+                                     MethodLatencyEndpoint.toMicros(snapshot.getValueAtPercentile(99.9))));
+            metrics.add(new Metric<>(name + "max",
+                                     MethodLatencyEndpoint.toMicros(snapshot.getMaxNanos())));
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,39 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+
+/**
+ * Names advised methods in endpoint reports and metrics. Reports are keyed by
+ * the full signature because each descriptor, and so each set of counts, is
+ * per overload.
+ */
+final class MethodNames {
+
+    private MethodNames() {
+    }
+
+    /**
+     * @param descriptor
+     * @return target class and method name, shared by all overloads.
+     */
+    static String nameOf(final JoinPointDescriptor descriptor) {
+        return descriptor.getTargetClass().getName() + "." + descriptor.getMethodName();
+    }
+
+    /**
+     * @param descriptor
+     * @return target class, method name and parameter types e.g.
+     *         com.vennetics.bss.Dao.find(java.lang.String,int)
+     */
+    static String signatureOf(final JoinPointDescriptor descriptor) {
+        final StringBuilder signature = new StringBuilder(nameOf(descriptor)).append('(');
+        final Class<?>[] parameterTypes = descriptor.getMethod().getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(parameterTypes[i].getTypeName());
+        }
+        return signature.append(')').toString();
+    }
+}
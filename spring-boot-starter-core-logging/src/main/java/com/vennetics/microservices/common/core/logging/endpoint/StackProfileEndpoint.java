@@ -0,0 +1,33 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.vennetics.microservices.common.core.logging.profile.StackProfiler;
+
+/**
+ * Reports the self time in microseconds of each distinct stack of advised
+ * methods in collapsed stack format. See {@link StackProfileMvcEndpoint} for
+ * a plain text form that flame graph tools can read directly.
+ */
+@ConfigurationProperties(prefix = "endpoints.stackprofile")
+public class StackProfileEndpoint extends AbstractEndpoint<List<String>> {
+
+    private final StackProfiler stackProfiler;
+
+    public StackProfileEndpoint(final StackProfiler stackProfiler) {
+        super("stackprofile");
+        this.stackProfiler = stackProfiler;
+    }
+
+    @Override
+    public List<String> invoke() {
+        return stackProfiler.getCollapsedStacks(StackProfiler.Measure.TIME);
+    }
+
+    StackProfiler getStackProfiler() {
+        return stackProfiler;
+    }
+}
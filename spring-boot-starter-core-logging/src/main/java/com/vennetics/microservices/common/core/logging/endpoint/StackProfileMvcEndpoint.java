@@ -0,0 +1,75 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import java.util.Locale;
+
+import org.springframework.boot.actuate.endpoint.mvc.EndpointMvcAdapter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.vennetics.microservices.common.core.logging.profile.StackProfiler;
+
+/**
+ * Serves the stack profile as plain text and allows it to be cleared e.g.
+ *
+ * <pre>
+ * GET /stackprofile/collapsed
+ * GET /stackprofile/collapsed?measure=calls
+ * POST /stackprofile/reset
+ * </pre>
+ */
+public class StackProfileMvcEndpoint extends EndpointMvcAdapter {
+
+    private final StackProfileEndpoint delegate;
+
+    public StackProfileMvcEndpoint(final StackProfileEndpoint delegate) {
+        super(delegate);
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param measure
+     *            time (the default) or calls.
+     * @return one line per stack in collapsed stack format.
+     */
+    @RequestMapping(value = "/collapsed", method = RequestMethod.GET, produces = MediaType.TEXT_PLAIN_VALUE)
+    @ResponseBody
+    public Object collapsed(@RequestParam(value = "measure", defaultValue = "time") final String measure) {
+        if (!delegate.isEnabled()) {
+            return getDisabledResponse();
+        }
+
+        final StackProfiler.Measure value;
+        try {
+            value = StackProfiler.Measure.valueOf(measure.toUpperCase(Locale.ENGLISH));
+        } catch (final IllegalArgumentException e) {
+            return new ResponseEntity<>("Unknown measure " + measure, HttpStatus.BAD_REQUEST);
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        for (final String line : delegate.getStackProfiler().getCollapsedStacks(value)) {
+            builder.append(line).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Discard the profile recorded so far.
+     *
+     * @return the now empty profile.
+     */
+    @RequestMapping(value = "/reset", method = RequestMethod.POST)
+    @ResponseBody
+    public Object reset() {
+        if (!delegate.isEnabled()) {
+            return getDisabledResponse();
+        }
+
+        delegate.getStackProfiler().reset();
+        return delegate.invoke();
+    }
+}
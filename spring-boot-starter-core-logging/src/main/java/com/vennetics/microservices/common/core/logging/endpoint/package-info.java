@@ -0,0 +1,4 @@
+/**
+ * Actuator endpoints for inspecting and controlling the logging advice.
+ */
+package com.vennetics.microservices.common.core.logging.endpoint;
@@ -0,0 +1,176 @@
+package com.vennetics.microservices.common.core.logging.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed memory, lock-free log-linear latency histogram in the style of
+ * HdrHistogram. Values below {@link #SUB_BUCKET_COUNT} nanoseconds have their
+ * own bucket; above that each power of two is split into
+ * {@link #SUB_BUCKET_COUNT}/2 linear buckets, bounding the error to about 6% from
+ * nanoseconds up to {@link #MAX_TRACKABLE_NANOS}. Larger values are recorded
+ * in the last bucket.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Linear buckets per power of two, doubled. Must be a power of two.
+     */
+    static final int SUB_BUCKET_COUNT = 32;
+
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKET_COUNT);
+
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * Roughly 4.9 hours.
+     */
+    static final long MAX_TRACKABLE_NANOS = (1L << 44) - 1;
+
+    static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_NANOS) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record one call.
+     *
+     * @param elapsedNanos
+     * @param failed
+     *            true if the call threw.
+     */
+    public void record(final long elapsedNanos, final boolean failed) {
+        final long value = Math.min(Math.max(0, elapsedNanos), MAX_TRACKABLE_NANOS);
+
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        totalNanos.add(value);
+        if (failed) {
+            errors.increment();
+        }
+
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * @return a consistent enough copy for reporting. Concurrent records may or
+     *         may not be included.
+     */
+    public Snapshot snapshot() {
+        final long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        return new Snapshot(counts,
+                            total,
+                            errors.sum(),
+                            totalNanos.sum(),
+                            maxNanos.get(),
+                            count.sum());
+    }
+
+    static int bucketIndex(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS + 1;
+        final int top = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + top - HALF_SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * @return the highest value recorded in the bucket.
+     */
+    static long bucketUpperBound(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int offset = index - SUB_BUCKET_COUNT;
+        final int shift = offset / HALF_SUB_BUCKET_COUNT + 1;
+        final long top = offset % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * Point in time view of a histogram.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+
+        private final long bucketTotal;
+
+        private final long errors;
+
+        private final long totalNanos;
+
+        private final long maxNanos;
+
+        private final long count;
+
+        Snapshot(final long[] counts,
+                 final long bucketTotal,
+                 final long errors,
+                 final long totalNanos,
+                 final long maxNanos,
+                 final long count) {
+            this.counts = counts;
+            this.bucketTotal = bucketTotal;
+            this.errors = errors;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.count = count;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * @param percentile
+         *            between 0 and 100.
+         * @return the upper bound of the bucket containing the percentile, or
+         *         0 if nothing was recorded.
+         */
+        public long getValueAtPercentile(final double percentile) {
+            if (bucketTotal == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * bucketTotal));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.vennetics.microservices.common.core.logging.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.aop.IInvocationListener;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+
+/**
+ * Records the latency of every advised call into a {@link LatencyHistogram}
+ * per join point. Enabled with
+ * com.vennetics.microservices.common.core.logging.metrics.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(
+                prefix = "com.vennetics.microservices.common.core.logging.metrics",
+                name = "enabled",
+                havingValue = "true")
+public class LatencyRecorder implements IInvocationListener {
+
+    private final ConcurrentMap<JoinPointDescriptor, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterInvocation(final JoinPointDescriptor descriptor,
+                                final long elapsedNanos,
+                                final Throwable failure) {
+        getHistogram(descriptor).record(elapsedNanos, failure != null);
+    }
+
+    /**
+     * @return the histograms recorded so far keyed by join point.
+     */
+    public Map<JoinPointDescriptor, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    private LatencyHistogram getHistogram(final JoinPointDescriptor descriptor) {
+        final LatencyHistogram histogram = histograms.get(descriptor);
+        if (histogram != null) {
+            return histogram;
+        }
+        final LatencyHistogram created = new LatencyHistogram();
+        final LatencyHistogram existing = histograms.putIfAbsent(descriptor, created);
+        return existing != null ? existing : created;
+    }
+}
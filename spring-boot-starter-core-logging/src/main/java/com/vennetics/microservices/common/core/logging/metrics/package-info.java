@@ -0,0 +1,4 @@
+/**
+ * Per method latency recording for advised methods.
+ */
+package com.vennetics.microservices.common.core.logging.metrics;
@@ -0,0 +1,224 @@
+package com.vennetics.microservices.common.core.logging.profile;
+
+import java.util.concurrent.TimeUnit;
+
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+
+/**
+ * The advised calls made by one thread beneath its outermost advised call.
+ * Repeated calls to the same method from the same parent share a node so the
+ * tree stays small however many times a loop calls through.
+ * <P>
+ * Nodes are held in parallel arrays sized up front and reused for every tree
+ * built on the thread. Calls beyond the node or depth limits get no node of
+ * their own, their time stays in the self time of the nearest call that has
+ * one.
+ */
+final class CallTree {
+
+    private static final int NONE = -1;
+
+    private final JoinPointDescriptor[] descriptors;
+
+    private final int[] firstChild;
+
+    private final int[] lastChild;
+
+    private final int[] nextSibling;
+
+    private final long[] counts;
+
+    private final long[] totalNanos;
+
+    private final long[] childNanos;
+
+    private final boolean[] failed;
+
+    /**
+     * Node of each open call, or {@link #NONE} for calls without a node.
+     */
+    private final int[] stack;
+
+    private int size;
+
+    private int depth;
+
+    private long untracked;
+
+    CallTree(final int maxNodes, final int maxDepth) {
+        final int nodes = Math.max(1, maxNodes);
+        descriptors = new JoinPointDescriptor[nodes];
+        firstChild = new int[nodes];
+        lastChild = new int[nodes];
+        nextSibling = new int[nodes];
+        counts = new long[nodes];
+        totalNanos = new long[nodes];
+        childNanos = new long[nodes];
+        failed = new boolean[nodes];
+        stack = new int[Math.max(1, maxDepth)];
+    }
+
+    /**
+     * Open a call, starting a new tree if it is the outermost.
+     *
+     * @param descriptor
+     */
+    void enter(final JoinPointDescriptor descriptor) {
+        if (depth == 0) {
+            size = 0;
+            untracked = 0;
+            stack[0] = addNode(descriptor);
+        } else if (depth < stack.length) {
+            stack[depth] = childOf(parentNode(), descriptor);
+        } else {
+            untracked++;
+        }
+        depth++;
+    }
+
+    /**
+     * Close the innermost open call.
+     *
+     * @param elapsedNanos
+     * @param failure
+     * @return true if this closed the outermost call and the tree is complete.
+     */
+    boolean exit(final long elapsedNanos, final Throwable failure) {
+        if (depth == 0) {
+            // Tree was started before this thread's recorder existed
+            return false;
+        }
+        final int node = nodeAt(--depth);
+        if (node != NONE) {
+            counts[node]++;
+            totalNanos[node] += elapsedNanos;
+            failed[node] |= failure != null;
+        }
+        if (node != NONE && depth > 0) {
+            childNanos[parentNode()] += elapsedNanos;
+        }
+        return depth == 0;
+    }
+
+    /**
+     * @return time spent in the outermost call of the last tree.
+     */
+    long getTotalNanos() {
+        return size == 0 ? 0 : totalNanos[0];
+    }
+
+    /**
+     * @return nodes in the last tree.
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * @return calls left out of the last tree because of the node or depth
+     *         limits.
+     */
+    long getUntracked() {
+        return untracked;
+    }
+
+    /**
+     * Append the tree in a compact single line form e.g.
+     *
+     * <pre>
+     * Api.get 950/50us [Dao.find x3 800/800us, Client.call! 100/100us]
+     * </pre>
+     *
+     * Times are total/self in microseconds, self excluding advised callees.
+     * Nodes that threw are marked with !.
+     *
+     * @param builder
+     */
+    void appendTo(final StringBuilder builder) {
+        if (size > 0) {
+            appendNode(builder, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        appendTo(builder);
+        return builder.toString();
+    }
+
+    private void appendNode(final StringBuilder builder, final int node) {
+        builder.append(descriptors[node]);
+        if (failed[node]) {
+            builder.append('!');
+        }
+        if (counts[node] != 1) {
+            builder.append(" x").append(counts[node]);
+        }
+        builder.append(' ')
+               .append(TimeUnit.NANOSECONDS.toMicros(totalNanos[node]))
+               .append('/')
+               .append(TimeUnit.NANOSECONDS.toMicros(totalNanos[node] - childNanos[node]))
+               .append("us");
+
+        int child = firstChild[node];
+        if (child != NONE) {
+            builder.append(" [");
+            while (child != NONE) {
+                appendNode(builder, child);
+                child = nextSibling[child];
+                if (child != NONE) {
+                    builder.append(", ");
+                }
+            }
+            builder.append(']');
+        }
+    }
+
+    private int parentNode() {
+        return nodeAt(depth - 1);
+    }
+
+    private int nodeAt(final int index) {
+        return index < stack.length ? stack[index] : NONE;
+    }
+
+    private int childOf(final int parent, final JoinPointDescriptor descriptor) {
+        if (parent == NONE) {
+            untracked++;
+            return NONE;
+        }
+        for (int child = firstChild[parent]; child != NONE; child = nextSibling[child]) {
+            if (descriptors[child] == descriptor) {
+                return child;
+            }
+        }
+        final int child = addNode(descriptor);
+        if (child != NONE) {
+            if (firstChild[parent] == NONE) {
+                firstChild[parent] = child;
+            } else {
+                nextSibling[lastChild[parent]] = child;
+            }
+            lastChild[parent] = child;
+        }
+        return child;
+    }
+
+    private int addNode(final JoinPointDescriptor descriptor) {
+        if (size == descriptors.length) {
+            untracked++;
+            return NONE;
+        }
+        final int node = size++;
+        descriptors[node] = descriptor;
+        firstChild[node] = NONE;
+        lastChild[node] = NONE;
+        nextSibling[node] = NONE;
+        counts[node] = 0;
+        totalNanos[node] = 0;
+        childNanos[node] = 0;
+        failed[node] = false;
+        return node;
+    }
+}
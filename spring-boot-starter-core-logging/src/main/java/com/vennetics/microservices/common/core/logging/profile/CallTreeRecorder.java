@@ -0,0 +1,80 @@
+package com.vennetics.microservices.common.core.logging.profile;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.IInvocationListener;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+
+/**
+ * Builds a {@link CallTree} of the advised calls made beneath each outermost
+ * advised call on a thread, typically one request, and logs it as a single
+ * line when that call returns. Enabled with
+ * com.vennetics.microservices.common.core.logging.call-tree.enabled=true and
+ * logged at info by this class's logger.
+ * <P>
+ * Only time spent on the calling thread is seen. Work completed later by a
+ * returned future or Observable is not part of the tree.
+ */
+@Component
+@ConditionalOnProperty(
+                prefix = "com.vennetics.microservices.common.core.logging.call-tree",
+                name = "enabled",
+                havingValue = "true")
+public class CallTreeRecorder implements IInvocationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallTreeRecorder.class);
+
+    private final long thresholdNanos;
+
+    private final ThreadLocal<CallTree> trees;
+
+    @Autowired(required = true)
+    public CallTreeRecorder(final LoggingProperties loggingProperties) {
+        super();
+        final LoggingProperties.CallTree settings = loggingProperties.getCallTree();
+        final int maxNodes = settings.getMaxNodes();
+        final int maxDepth = settings.getMaxDepth();
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(settings.getThresholdMillis());
+        trees = ThreadLocal.withInitial(() -> new CallTree(maxNodes, maxDepth));
+    }
+
+    @Override
+    public void beforeInvocation(final JoinPointDescriptor descriptor) {
+        trees.get().enter(descriptor);
+    }
+
+    @Override
+    public void afterInvocation(final JoinPointDescriptor descriptor,
+                                final long elapsedNanos,
+                                final Throwable failure) {
+        final CallTree tree = trees.get();
+        if (tree.exit(elapsedNanos, failure) && tree.getTotalNanos() >= thresholdNanos) {
+            emit(tree);
+        }
+    }
+
+    /**
+     * Log a completed tree. Package private to allow unit test override.
+     *
+     * @param tree
+     */
+    void emit(final CallTree tree) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        final StringBuilder builder = new StringBuilder(64 * tree.getSize());
+        tree.appendTo(builder);
+        logger.info("Call tree took {}us over {} methods, {} calls untracked: {}",
+                    TimeUnit.NANOSECONDS.toMicros(tree.getTotalNanos()),
+                    tree.getSize(),
+                    tree.getUntracked(),
+                    builder);
+    }
+}
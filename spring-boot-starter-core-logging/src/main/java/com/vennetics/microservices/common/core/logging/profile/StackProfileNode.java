@@ -0,0 +1,81 @@
+package com.vennetics.microservices.common.core.logging.profile;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+
+/**
+ * One distinct stack of advised methods, shared by every thread that calls
+ * through it. Totals are striped counters so threads recording the same
+ * stack do not contend.
+ */
+final class StackProfileNode {
+
+    private final JoinPointDescriptor descriptor;
+
+    private final StackProfileNode parent;
+
+    private final ConcurrentMap<JoinPointDescriptor, StackProfileNode> children = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAdder selfNanos = new LongAdder();
+
+    StackProfileNode(final JoinPointDescriptor descriptor, final StackProfileNode parent) {
+        this.descriptor = descriptor;
+        this.parent = parent;
+    }
+
+    /**
+     * @return the advised method or null for the root.
+     */
+    JoinPointDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    StackProfileNode getParent() {
+        return parent;
+    }
+
+    StackProfileNode getChild(final JoinPointDescriptor childDescriptor) {
+        return children.get(childDescriptor);
+    }
+
+    /**
+     * @param child
+     *            a new node whose parent is this one.
+     * @return the child, or the existing child for the same method if
+     *         another thread added it first.
+     */
+    StackProfileNode addChild(final StackProfileNode child) {
+        final StackProfileNode existing = children.putIfAbsent(child.getDescriptor(), child);
+        return existing != null ? existing : child;
+    }
+
+    Collection<StackProfileNode> getChildren() {
+        return children.values();
+    }
+
+    void record(final long elapsedNanos, final long childNanos) {
+        calls.increment();
+        totalNanos.add(elapsedNanos);
+        selfNanos.add(elapsedNanos - childNanos);
+    }
+
+    long getCalls() {
+        return calls.sum();
+    }
+
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    long getSelfNanos() {
+        return selfNanos.sum();
+    }
+}
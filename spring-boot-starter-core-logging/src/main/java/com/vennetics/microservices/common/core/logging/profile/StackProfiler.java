@@ -0,0 +1,204 @@
+package com.vennetics.microservices.common.core.logging.profile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.IInvocationListener;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+
+/**
+ * Aggregates the stacks of advised methods seen on every thread into a tree
+ * of {@link StackProfileNode}s, counting calls and total and self time per
+ * distinct stack. Exported in the collapsed stack format read by flame graph
+ * tools, one line per stack e.g.
+ *
+ * <pre>
+ * com.vennetics.Api.get;com.vennetics.Dao.find 8200
+ * </pre>
+ *
+ * Enabled with
+ * com.vennetics.microservices.common.core.logging.stack-profile.enabled=true.
+ * <P>
+ * Every advised call is measured rather than sampled, so the profile is exact
+ * for advised methods but says nothing about time in other code beyond
+ * attributing it to the nearest advised caller as self time.
+ */
+@Component
+@ConditionalOnProperty(
+                prefix = "com.vennetics.microservices.common.core.logging.stack-profile",
+                name = "enabled",
+                havingValue = "true")
+public class StackProfiler implements IInvocationListener {
+
+    /**
+     * What the value of each collapsed stack line measures.
+     */
+    public enum Measure {
+
+        /**
+         * Self time in microseconds.
+         */
+        TIME,
+
+        /**
+         * Number of calls.
+         */
+        CALLS
+    }
+
+    private final int maxStacks;
+
+    private final int maxDepth;
+
+    private final ThreadLocal<ThreadStack> threadStack;
+
+    private volatile StackProfileNode root = new StackProfileNode(null, null);
+
+    private final AtomicInteger stacks = new AtomicInteger();
+
+    @Autowired(required = true)
+    public StackProfiler(final LoggingProperties loggingProperties) {
+        super();
+        final LoggingProperties.StackProfile settings = loggingProperties.getStackProfile();
+        maxStacks = settings.getMaxStacks();
+        maxDepth = Math.max(1, settings.getMaxDepth());
+        threadStack = ThreadLocal.withInitial(() -> new ThreadStack(maxDepth));
+    }
+
+    @Override
+    public void beforeInvocation(final JoinPointDescriptor descriptor) {
+        final ThreadStack stack = threadStack.get();
+        final StackProfileNode parent = stack.depth == 0 ? root : stack.current();
+        stack.push(parent == null ? null : child(parent, descriptor));
+    }
+
+    @Override
+    public void afterInvocation(final JoinPointDescriptor descriptor,
+                                final long elapsedNanos,
+                                final Throwable failure) {
+        threadStack.get().pop(elapsedNanos);
+    }
+
+    /**
+     * @param measure
+     * @return every stack recorded since the last reset with a non zero value
+     *         for the measure, in collapsed stack format.
+     */
+    public List<String> getCollapsedStacks(final Measure measure) {
+        final List<String> lines = new ArrayList<>();
+        final StringBuilder path = new StringBuilder(256);
+        for (final StackProfileNode child : root.getChildren()) {
+            collapse(child, path, measure, lines);
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+
+    /**
+     * Discard everything recorded so far. Calls in progress complete into
+     * the discarded profile.
+     */
+    public void reset() {
+        root = new StackProfileNode(null, null);
+        stacks.set(0);
+    }
+
+    private StackProfileNode child(final StackProfileNode parent, final JoinPointDescriptor descriptor) {
+        final StackProfileNode existing = parent.getChild(descriptor);
+        if (existing != null) {
+            return existing;
+        }
+        if (stacks.get() >= maxStacks) {
+            // Time is attributed to the parent as self time
+            return null;
+        }
+        final StackProfileNode created = new StackProfileNode(descriptor, parent);
+        final StackProfileNode added = parent.addChild(created);
+        if (added == created) {
+            stacks.incrementAndGet();
+        }
+        return added;
+    }
+
+    private static void collapse(final StackProfileNode node,
+                                 final StringBuilder path,
+                                 final Measure measure,
+                                 final List<String> lines) {
+        final int length = path.length();
+        if (length > 0) {
+            path.append(';');
+        }
+        path.append(node.getDescriptor());
+
+        final long value = measure == Measure.CALLS ? node.getCalls()
+                                                    : TimeUnit.NANOSECONDS.toMicros(node.getSelfNanos());
+        if (value > 0) {
+            lines.add(path.toString() + ' ' + value);
+        }
+        for (final StackProfileNode child : node.getChildren()) {
+            collapse(child, path, measure, lines);
+        }
+        path.setLength(length);
+    }
+
+    /**
+     * Open advised calls on one thread and the time spent so far in their
+     * advised callees.
+     */
+    private static final class ThreadStack {
+
+        private final StackProfileNode[] nodes;
+
+        private final long[] childNanos;
+
+        private int depth;
+
+        ThreadStack(final int maxDepth) {
+            nodes = new StackProfileNode[maxDepth];
+            childNanos = new long[maxDepth];
+        }
+
+        /**
+         * @return the innermost open node or null if it is not tracked.
+         */
+        StackProfileNode current() {
+            return depth <= nodes.length ? nodes[depth - 1] : null;
+        }
+
+        void push(final StackProfileNode node) {
+            if (depth < nodes.length) {
+                nodes[depth] = node;
+                childNanos[depth] = 0;
+            }
+            depth++;
+        }
+
+        void pop(final long elapsedNanos) {
+            if (depth == 0) {
+                // Call started before the profiler was in place
+                return;
+            }
+            depth--;
+            if (depth >= nodes.length) {
+                return;
+            }
+            final StackProfileNode node = nodes[depth];
+            nodes[depth] = null;
+            // Untracked calls stay in their caller's self time
+            if (node != null) {
+                node.record(elapsedNanos, childNanos[depth]);
+                if (depth > 0) {
+                    childNanos[depth - 1] += elapsedNanos;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Profiles of where time is spent across nested advised calls.
+ */
+package com.vennetics.microservices.common.core.logging.profile;
@@ -0,0 +1,72 @@
+package com.vennetics.microservices.common.core.logging.recorder;
+
+/**
+ * One invocation taken from a thread's flight log.
+ */
+public final class FlightRecord {
+
+    private final long endMillis;
+
+    private final int descriptorId;
+
+    private final int depth;
+
+    private final boolean failed;
+
+    private final long elapsedNanos;
+
+    private final int digest;
+
+    FlightRecord(final long endMillis,
+                 final int descriptorId,
+                 final int depth,
+                 final boolean failed,
+                 final long elapsedNanos,
+                 final int digest) {
+        this.endMillis = endMillis;
+        this.descriptorId = descriptorId;
+        this.depth = depth;
+        this.failed = failed;
+        this.elapsedNanos = elapsedNanos;
+        this.digest = digest;
+    }
+
+    /**
+     * @return wall clock time the call returned or threw.
+     */
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    /**
+     * @return id of the join point descriptor of the advised method.
+     */
+    public int getDescriptorId() {
+        return descriptorId;
+    }
+
+    /**
+     * @return number of advised calls open on the thread around this one.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return true if the call threw.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return digest of the arguments or 0 if they were not digested.
+     */
+    public int getDigest() {
+        return digest;
+    }
+}
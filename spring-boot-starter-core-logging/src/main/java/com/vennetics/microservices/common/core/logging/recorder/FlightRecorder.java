@@ -0,0 +1,223 @@
+package com.vennetics.microservices.common.core.logging.recorder;
+
+import static com.vennetics.microservices.common.core.logging.LoggingConstants.INDENT;
+import static com.vennetics.microservices.common.core.logging.LoggingConstants.NEW_LINE;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.IInvocationListener;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.utils.PasswordProtectingLogUtils;
+
+/**
+ * Keeps the last invocations completed on each thread in a
+ * {@link ThreadFlightLog}, whatever the logging verbosity, so there is context
+ * for a failure without debug logging. When an exception escapes the
+ * outermost advised call on a thread the thread's log is written at info by
+ * this class's logger. Enabled with
+ * com.vennetics.microservices.common.core.logging.flight-recorder.enabled=true.
+ * <P>
+ * Argument digests, when enabled, hash strings, numbers, booleans, characters
+ * and enum names. Other arguments contribute only their type and arguments
+ * with excluded field names contribute nothing.
+ */
+@Component
+@ConditionalOnProperty(
+                prefix = "com.vennetics.microservices.common.core.logging.flight-recorder",
+                name = "enabled",
+                havingValue = "true")
+public class FlightRecorder implements IInvocationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorder.class);
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+                                                                          .withZone(ZoneId.systemDefault());
+
+    private final JoinPointDescriptorRegistry descriptorRegistry;
+
+    private final int size;
+
+    private final int maxDepth;
+
+    private final boolean argumentDigests;
+
+    private final boolean dumpOnError;
+
+    private final long dumpIntervalNanos;
+
+    private final AtomicLong nextDumpNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * Every thread's log, for snapshots. Weak so logs go with their threads.
+     */
+    private final Map<Thread, ThreadFlightLog> logs = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final ThreadLocal<ThreadFlightLog> threadLog = ThreadLocal.withInitial(this::createThreadLog);
+
+    @Autowired(required = true)
+    public FlightRecorder(final JoinPointDescriptorRegistry descriptorRegistry,
+                          final LoggingProperties loggingProperties) {
+        super();
+        this.descriptorRegistry = descriptorRegistry;
+        final LoggingProperties.FlightRecorder settings = loggingProperties.getFlightRecorder();
+        size = settings.getSize();
+        maxDepth = settings.getMaxDepth();
+        argumentDigests = settings.isArgumentDigests();
+        dumpOnError = settings.isDumpOnError();
+        dumpIntervalNanos = TimeUnit.MILLISECONDS.toNanos(settings.getDumpIntervalMillis());
+    }
+
+    @Override
+    public boolean isArgumentsRequired() {
+        return argumentDigests;
+    }
+
+    @Override
+    public void beforeInvocation(final JoinPointDescriptor descriptor, final Object[] arguments) {
+        threadLog.get().enter(argumentDigests ? digest(descriptor, arguments) : 0);
+    }
+
+    @Override
+    public void afterInvocation(final JoinPointDescriptor descriptor,
+                                final long elapsedNanos,
+                                final Throwable failure) {
+        final ThreadFlightLog log = threadLog.get();
+        if (log.exit(descriptor.getId(), elapsedNanos, failure != null)
+            && failure != null
+            && dumpOnError
+            && acquireDump()) {
+            dump(log, failure);
+        }
+    }
+
+    /**
+     * @return the records held for each live thread keyed by thread name,
+     *         oldest first.
+     */
+    public Map<String, List<FlightRecord>> snapshot() {
+        final List<ThreadFlightLog> current;
+        synchronized (logs) {
+            current = new ArrayList<>(logs.values());
+        }
+        final Map<String, List<FlightRecord>> snapshot = new TreeMap<>();
+        for (final ThreadFlightLog log : current) {
+            snapshot.put(log.getThreadName(), log.snapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @param record
+     * @return the record as a single line e.g.
+     *         <code>12:00:01.250   ! com.vennetics.Dao.find 900us #1f2e3d4c</code>
+     *         with nested calls indented and failures marked by !.
+     */
+    public String render(final FlightRecord record) {
+        final StringBuilder builder = new StringBuilder(96);
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(record.getEndMillis()), builder);
+        builder.append(' ');
+        for (int i = 0; i < record.getDepth(); i++) {
+            builder.append(INDENT);
+        }
+        builder.append(record.isFailed() ? "! " : "  ");
+        builder.append(describe(record.getDescriptorId()))
+               .append(' ')
+               .append(TimeUnit.NANOSECONDS.toMicros(record.getElapsedNanos()))
+               .append("us");
+        if (record.getDigest() != 0) {
+            builder.append(" #").append(Integer.toHexString(record.getDigest()));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Write a thread's records to the log.
+     */
+    void dump(final ThreadFlightLog log, final Throwable failure) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        final StringBuilder builder = new StringBuilder(128 * size);
+        for (final FlightRecord record : log.snapshot()) {
+            builder.append(NEW_LINE).append(render(record));
+        }
+        logger.info("Flight recorder for thread {} after {}:{}", log.getThreadName(), failure, builder);
+    }
+
+    /**
+     * At most one dump per interval so a failure storm does not flood the
+     * log.
+     */
+    private boolean acquireDump() {
+        final long now = System.nanoTime();
+        final long next = nextDumpNanos.get();
+        return now - next >= 0 && nextDumpNanos.compareAndSet(next, now + dumpIntervalNanos);
+    }
+
+    private String describe(final int descriptorId) {
+        try {
+            return descriptorRegistry.getDescriptor(descriptorId).toString();
+        } catch (final IndexOutOfBoundsException e) {
+            return "#" + descriptorId;
+        }
+    }
+
+    private ThreadFlightLog createThreadLog() {
+        final Thread thread = Thread.currentThread();
+        final ThreadFlightLog log = new ThreadFlightLog(thread.getName(), size, maxDepth);
+        logs.put(thread, log);
+        return log;
+    }
+
+    /**
+     * @return a non zero hash of the arguments.
+     */
+    static int digest(final JoinPointDescriptor descriptor, final Object[] arguments) {
+        if (arguments == null) {
+            return 0;
+        }
+        final String[] names = descriptor.getParamNames();
+        final Collection<String> excluded = PasswordProtectingLogUtils.getExcludedFieldNames();
+        int hash = 1;
+        for (int i = 0; i < arguments.length; i++) {
+            final boolean protect = names != null && i < names.length && excluded.contains(names[i]);
+            hash = 31 * hash + (protect ? 0 : digest(arguments[i]));
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static int digest(final Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name().hashCode();
+        }
+        if (value instanceof String
+            || value instanceof Number
+            || value instanceof Boolean
+            || value instanceof Character) {
+            return value.hashCode();
+        }
+        return value.getClass().getName().hashCode();
+    }
+}
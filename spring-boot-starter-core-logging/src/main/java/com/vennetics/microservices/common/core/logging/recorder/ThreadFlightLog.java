@@ -0,0 +1,142 @@
+package com.vennetics.microservices.common.core.logging.recorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring of the last invocations completed on one thread, held as packed longs
+ * so recording allocates nothing. Written only by the owning thread. Other
+ * threads may take a snapshot at any time; slots overwritten while the
+ * snapshot is copied are discarded rather than reported torn.
+ */
+final class ThreadFlightLog {
+
+    private static final int SLOT_LONGS = 4;
+
+    private static final int MAX_DEPTH = 0xFFFF;
+
+    private final String threadName;
+
+    private final int capacity;
+
+    /**
+     * One more slot than the capacity so a write in progress never
+     * overwrites a record a snapshot should return.
+     */
+    private final int ringSize;
+
+    /**
+     * Written with lazySet, an ordered store as cheap as a plain one on most
+     * hardware, and read as volatile by snapshots. That keeps the copy ahead
+     * of the second read of {@link #written}, which a plain array clone
+     * would not guarantee, and a slot seen rewritten implies that read sees
+     * the record count the rewrite started from.
+     */
+    private final AtomicLongArray slots;
+
+    /**
+     * Wall clock and nanoTime when the log was created, used to turn
+     * recorded nanoTimes into times of day.
+     */
+    private final long baseMillis;
+
+    private final long baseNanos;
+
+    /**
+     * Total records written. Volatile so a snapshot sees complete slots.
+     * Advanced only after the slots of a record are written.
+     */
+    private volatile long written;
+
+    private int depth;
+
+    /**
+     * Argument digest of each open call, indexed by depth.
+     */
+    private final int[] openDigests;
+
+    ThreadFlightLog(final String threadName, final int capacity, final int maxDepth) {
+        this.threadName = threadName;
+        this.capacity = Math.max(1, capacity);
+        ringSize = this.capacity + 1;
+        slots = new AtomicLongArray(ringSize * SLOT_LONGS);
+        openDigests = new int[Math.max(1, maxDepth)];
+        baseMillis = System.currentTimeMillis();
+        baseNanos = System.nanoTime();
+    }
+
+    String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * Open a call. Owning thread only.
+     *
+     * @param digest
+     *            argument digest or 0.
+     */
+    void enter(final int digest) {
+        if (depth < openDigests.length) {
+            openDigests[depth] = digest;
+        }
+        depth++;
+    }
+
+    /**
+     * Record a completed call. Owning thread only.
+     *
+     * @param descriptorId
+     * @param elapsedNanos
+     * @param failed
+     * @return true if this closed the outermost call on the thread.
+     */
+    boolean exit(final int descriptorId, final long elapsedNanos, final boolean failed) {
+        if (depth > 0) {
+            depth--;
+        }
+        final int digest = depth < openDigests.length ? openDigests[depth] : 0;
+        final long sequence = written;
+        final int offset = (int) (sequence % ringSize) * SLOT_LONGS;
+        slots.lazySet(offset, System.nanoTime());
+        slots.lazySet(offset + 1, elapsedNanos);
+        slots.lazySet(offset + 2, (long) descriptorId << 32 | Math.min(depth, MAX_DEPTH) << 1 | (failed ? 1 : 0));
+        slots.lazySet(offset + 3, digest);
+        written = sequence + 1;
+        return depth == 0;
+    }
+
+    /**
+     * @return the records still held, oldest first.
+     */
+    List<FlightRecord> snapshot() {
+
+        final long end = written;
+        final long start = Math.max(0, end - capacity);
+        final long[] copy = new long[slots.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = slots.get(i);
+        }
+        // Writes since, including one in progress, may have overwritten the
+        // oldest copied slots
+        final long firstIntact = Math.max(start, written - capacity);
+
+        if (end == firstIntact) {
+            return Collections.emptyList();
+        }
+        final List<FlightRecord> records = new ArrayList<>((int) (end - firstIntact));
+        for (long sequence = firstIntact; sequence < end; sequence++) {
+            final int offset = (int) (sequence % ringSize) * SLOT_LONGS;
+            final long packed = copy[offset + 2];
+            records.add(new FlightRecord(baseMillis + TimeUnit.NANOSECONDS.toMillis(copy[offset] - baseNanos),
+                                         (int) (packed >>> 32),
+                                         (int) (packed >>> 1) & MAX_DEPTH,
+                                         (packed & 1) != 0,
+                                         copy[offset + 1],
+                                         (int) copy[offset + 3]));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Always-on recording of recent advised invocations for post-mortem context.
+ */
+package com.vennetics.microservices.common.core.logging.recorder;
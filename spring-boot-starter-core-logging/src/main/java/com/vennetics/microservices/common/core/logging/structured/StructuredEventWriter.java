@@ -0,0 +1,255 @@
+package com.vennetics.microservices.common.core.logging.structured;
+
+import com.vennetics.microservices.common.core.logging.StructuredLogFormat;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.utils.PasswordProtectingLogUtils;
+
+/**
+ * Encodes one event at a time into a reused buffer. Values are rendered into
+ * a second reused buffer and escaped from there a character at a time so no
+ * String is built per argument.
+ * <P>
+ * Not thread safe, each thread has its own writer.
+ */
+final class StructuredEventWriter {
+
+    private static final int INITIAL_EVENT_CAPACITY = 512;
+
+    private static final int INITIAL_VALUE_CAPACITY = 128;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final StructuredLogFormat format;
+
+    private StringBuilder event = new StringBuilder(INITIAL_EVENT_CAPACITY);
+
+    private StringBuilder value = new StringBuilder(INITIAL_VALUE_CAPACITY);
+
+    /**
+     * Set while an event is being written so a value whose toString logs
+     * through the same thread does not overwrite it. Cleared if rendering a
+     * value throws.
+     */
+    private boolean inUse;
+
+    /**
+     * True until the first field of the current object is written.
+     */
+    private boolean first;
+
+    /**
+     * Key prefix for fields nested in an object in key=value form.
+     */
+    private String prefix = "";
+
+    StructuredEventWriter(final StructuredLogFormat format) {
+        this.format = format;
+    }
+
+    boolean isInUse() {
+        return inUse;
+    }
+
+    /**
+     * @return the capacity of the event buffer kept for the next event.
+     */
+    int getCapacity() {
+        return event.capacity();
+    }
+
+    /**
+     * Start an event for a method.
+     *
+     * @param type
+     * @param descriptor
+     * @return this
+     */
+    StructuredEventWriter begin(final String type, final JoinPointDescriptor descriptor) {
+        inUse = true;
+        event.setLength(0);
+        first = true;
+        prefix = "";
+        if (format == StructuredLogFormat.JSON) {
+            event.append('{');
+        }
+        return field("event", type).field("class", descriptor.getClassName())
+                                   .field("method", descriptor.getMethodName());
+    }
+
+    StructuredEventWriter field(final String name, final long number) {
+        name(name);
+        event.append(number);
+        return this;
+    }
+
+    /**
+     * Write an escaped string or null.
+     */
+    StructuredEventWriter field(final String name, final CharSequence text) {
+        name(name);
+        if (text == null) {
+            event.append("null");
+        } else {
+            quote(text);
+        }
+        return this;
+    }
+
+    /**
+     * Write a result or item rendered with the password protecting renderer.
+     */
+    StructuredEventWriter value(final String name, final Object object) {
+        if (object == null) {
+            return field(name, (CharSequence) null);
+        }
+        value.setLength(0);
+        try {
+            PasswordProtectingLogUtils.appendPasswordSensitiveObject(value, object);
+        } catch (final RuntimeException e) {
+            inUse = false;
+            throw e;
+        }
+        return field(name, value);
+    }
+
+    /**
+     * Write named arguments, redacting excluded names. Arguments are no
+     * longer rendered once together they exceed the configured line length.
+     *
+     * @param names
+     *            the discovered parameter names or null.
+     * @param arguments
+     * @return this
+     */
+    StructuredEventWriter arguments(final String[] names, final Object[] arguments) {
+        if (arguments == null) {
+            return this;
+        }
+
+        startObject("args");
+        long remaining = PasswordProtectingLogUtils.getRenderingLimits().getMaxLineLength();
+        for (int i = 0; i < arguments.length; i++) {
+            if (remaining <= 0) {
+                field("more", arguments.length - i);
+                break;
+            }
+            final String key = names != null ? names[i] : "arg" + (i + 1);
+            if (arguments[i] == null) {
+                field(key, (CharSequence) null);
+                continue;
+            }
+            value.setLength(0);
+            try {
+                PasswordProtectingLogUtils.appendParamValue(value,
+                                                            key,
+                                                            arguments[i],
+                                                            (int) Math.min(Integer.MAX_VALUE, remaining));
+            } catch (final RuntimeException e) {
+                inUse = false;
+                throw e;
+            }
+            remaining -= value.length();
+            field(key, value);
+        }
+        endObject();
+        return this;
+    }
+
+    /**
+     * Finish the event and release the writer.
+     *
+     * @param maxRetained
+     *            buffer capacity above which buffers are replaced rather than
+     *            kept for the next event.
+     * @return the encoded line.
+     */
+    String end(final int maxRetained) {
+        if (format == StructuredLogFormat.JSON) {
+            event.append('}');
+        }
+        final String line = event.toString();
+        if (event.capacity() > maxRetained) {
+            event = new StringBuilder(INITIAL_EVENT_CAPACITY);
+        }
+        if (value.capacity() > maxRetained) {
+            value = new StringBuilder(INITIAL_VALUE_CAPACITY);
+        }
+        inUse = false;
+        return line;
+    }
+
+    private void startObject(final String name) {
+        if (format == StructuredLogFormat.JSON) {
+            name(name);
+            event.append('{');
+            first = true;
+        } else {
+            prefix = name + ".";
+        }
+    }
+
+    private void endObject() {
+        if (format == StructuredLogFormat.JSON) {
+            event.append('}');
+            first = false;
+        } else {
+            prefix = "";
+        }
+    }
+
+    private void name(final String name) {
+        if (format == StructuredLogFormat.JSON) {
+            if (!first) {
+                event.append(',');
+            }
+            event.append('"').append(name).append("\":");
+        } else {
+            if (!first) {
+                event.append(' ');
+            }
+            event.append(prefix).append(name).append('=');
+        }
+        first = false;
+    }
+
+    /**
+     * Append quoted text escaped so the event stays on one line and parses
+     * as a JSON string. The same escaping is used for key=value form.
+     */
+    private void quote(final CharSequence text) {
+        event.append('"');
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    event.append("\\\"");
+                    break;
+                case '\\':
+                    event.append("\\\\");
+                    break;
+                case '\n':
+                    event.append("\\n");
+                    break;
+                case '\r':
+                    event.append("\\r");
+                    break;
+                case '\t':
+                    event.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        event.append("\\u")
+                             .append(HEX[c >> 12 & 0xf])
+                             .append(HEX[c >> 8 & 0xf])
+                             .append(HEX[c >> 4 & 0xf])
+                             .append(HEX[c & 0xf]);
+                    } else {
+                        event.append(c);
+                    }
+                    break;
+            }
+        }
+        event.append('"');
+    }
+}
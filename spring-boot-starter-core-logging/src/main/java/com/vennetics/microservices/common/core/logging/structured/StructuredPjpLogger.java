@@ -0,0 +1,170 @@
+package com.vennetics.microservices.common.core.logging.structured;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LoggingConstants;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.StructuredLogFormat;
+import com.vennetics.microservices.common.core.logging.aop.ExceptionLogThrottle;
+import com.vennetics.microservices.common.core.logging.aop.IProceedingJoinPointLogger;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+
+/**
+ * Logs each event as a single line of JSON or key=value pairs so log
+ * shippers do not have to re-parse multi-line text. Replaces the standard
+ * logger when com.vennetics.microservices.common.core.logging.structured.enabled=true,
+ * including as the renderer behind asynchronous logging.
+ * <P>
+ * Events are encoded through a per thread buffer so the only String built
+ * per event is the line itself. Values are rendered and redacted as the
+ * standard logger does. Exceptions are passed to the backend with their stack
+ * trace subject to the {@link ExceptionLogThrottle}.
+ */
+@Component
+@Qualifier(LoggingConstants.PJP_RENDERER)
+@ConditionalOnProperty(
+                prefix = "com.vennetics.microservices.common.core.logging.structured",
+                name = "enabled",
+                havingValue = "true")
+public class StructuredPjpLogger implements IProceedingJoinPointLogger {
+
+    private final ExceptionLogThrottle exceptionLogThrottle;
+
+    private final StructuredLogFormat format;
+
+    private final int maxRetainedBuffer;
+
+    private final ThreadLocal<StructuredEventWriter> writers;
+
+    @Autowired(required = true)
+    public StructuredPjpLogger(final ExceptionLogThrottle exceptionLogThrottle,
+                               final LoggingProperties loggingProperties) {
+        super();
+        this.exceptionLogThrottle = exceptionLogThrottle;
+        final LoggingProperties.Structured structured = loggingProperties.getStructured();
+        format = structured.getFormat();
+        maxRetainedBuffer = structured.getMaxRetainedBuffer();
+        writers = ThreadLocal.withInitial(() -> new StructuredEventWriter(format));
+    }
+
+    @Override
+    public void logException(final JoinPointDescriptor descriptor, final Throwable exception) {
+        final long suppressed = exceptionLogThrottle.acquire(exception, descriptor.getLogger());
+        if (suppressed == ExceptionLogThrottle.SUPPRESSED) {
+            return;
+        }
+
+        final StructuredEventWriter writer = begin("exception", descriptor);
+        failure(writer, exception, suppressed);
+        descriptor.getLogger().debug(writer.end(maxRetainedBuffer), exception);
+    }
+
+    @Override
+    public void logMethodEntry(final JoinPointDescriptor descriptor, final Object[] arguments) {
+        final StructuredEventWriter writer = begin("entry", descriptor);
+        writer.arguments(descriptor.getParamNames(), arguments);
+        descriptor.getLogger().debug(writer.end(maxRetainedBuffer));
+    }
+
+    @Override
+    public void logMethodExit(final JoinPointDescriptor descriptor, final Object returnValue) {
+        final StructuredEventWriter writer = begin("exit", descriptor);
+        writer.value("result", returnValue);
+        descriptor.getLogger().debug(writer.end(maxRetainedBuffer));
+    }
+
+    @Override
+    public void logMethodTime(final JoinPointDescriptor descriptor, final long elapsedNanos) {
+        final StructuredEventWriter writer = begin("time", descriptor);
+        writer.field("micros", TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        descriptor.getLogger().debug(writer.end(maxRetainedBuffer));
+    }
+
+    @Override
+    public void logObservableItem(final JoinPointDescriptor descriptor, final long index, final Object item) {
+        final StructuredEventWriter writer = begin("item", descriptor);
+        writer.field("index", index).value("item", item);
+        descriptor.getLogger().debug(writer.end(maxRetainedBuffer));
+    }
+
+    @Override
+    public void logObservableCompleted(final JoinPointDescriptor descriptor,
+                                       final long items,
+                                       final long firstItemNanos,
+                                       final long completedNanos) {
+        final StructuredEventWriter writer = begin("completed", descriptor);
+        writer.field("items", items);
+        if (firstItemNanos >= 0) {
+            writer.field("firstItemMicros", TimeUnit.NANOSECONDS.toMicros(firstItemNanos));
+        }
+        writer.field("micros", TimeUnit.NANOSECONDS.toMicros(completedNanos));
+        descriptor.getLogger().debug(writer.end(maxRetainedBuffer));
+    }
+
+    @Override
+    public void logFutureCompleted(final JoinPointDescriptor descriptor,
+                                   final Object result,
+                                   final long elapsedNanos) {
+        final StructuredEventWriter writer = begin("future", descriptor);
+        writer.value("result", result).field("micros", TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        descriptor.getLogger().debug(writer.end(maxRetainedBuffer));
+    }
+
+    @Override
+    public void logSlowCall(final JoinPointDescriptor descriptor,
+                            final Object[] arguments,
+                            final Object result,
+                            final Throwable failure,
+                            final long elapsedNanos) {
+
+        long suppressed = 0;
+        if (failure != null) {
+            suppressed = exceptionLogThrottle.acquire(failure, descriptor.getLogger());
+            if (suppressed == ExceptionLogThrottle.SUPPRESSED) {
+                return;
+            }
+        }
+
+        final StructuredEventWriter writer = begin("slow", descriptor);
+        writer.arguments(descriptor.getParamNames(), arguments);
+        if (failure != null) {
+            failure(writer, failure, suppressed);
+        } else {
+            writer.value("result", result);
+        }
+        writer.field("micros", TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+
+        if (failure != null) {
+            descriptor.getLogger().debug(writer.end(maxRetainedBuffer), failure);
+        } else {
+            descriptor.getLogger().debug(writer.end(maxRetainedBuffer));
+        }
+    }
+
+    /**
+     * Start an event on this thread's writer, or on a new one if rendering a
+     * value has re-entered the logger.
+     */
+    private StructuredEventWriter begin(final String type, final JoinPointDescriptor descriptor) {
+        StructuredEventWriter writer = writers.get();
+        if (writer.isInUse()) {
+            writer = new StructuredEventWriter(format);
+        }
+        return writer.begin(type, descriptor);
+    }
+
+    private static void failure(final StructuredEventWriter writer,
+                                final Throwable exception,
+                                final long suppressed) {
+        writer.field("exception", exception.getClass().getName())
+              .field("message", exception.getMessage());
+        if (suppressed > 0) {
+            writer.field("suppressed", suppressed);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Single line structured encoding of advised method log events.
+ */
+package com.vennetics.microservices.common.core.logging.structured;
@@ -24,6 +24,25 @@ public final class CoreLogUtils {
                                       final String key,
                                       final Object value,
                                       final int indentLevel) {
+        appendKeyValue(builder, key, value, indentLevel, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Append a key value to a log builder with a configurable indent, sharing
+     * a line length budget with other values.
+     *
+     * @param builder
+     * @param key
+     * @param value
+     * @param indentLevel
+     * @param lineLimit
+     *            builder length beyond which values are no longer rendered.
+     */
+    public static void appendKeyValue(final StringBuilder builder,
+                                      final String key,
+                                      final Object value,
+                                      final int indentLevel,
+                                      final int lineLimit) {
 
         for (int i = 0; i < indentLevel; i++) {
             builder.append(INDENT);
@@ -31,14 +50,15 @@ public final class CoreLogUtils {
 
         builder.append(key);
         builder.append("=[");
-        builder.append(PasswordProtectingLogUtils.paramValueToString(key, value));
+        PasswordProtectingLogUtils.appendParamValue(builder, key, value, lineLimit);
         builder.append(']');
 
         builder.append(NEW_LINE);
     }
 
     /**
-     * Used in PJP logging to log parameters
+     * Used in PJP logging to log parameters. Parameters are no longer
+     * rendered once the line is longer than the configured maximum.
      *
      * @param builder
      * @param names
@@ -52,20 +72,41 @@ public final class CoreLogUtils {
 
         if (arguments != null) {
 
+            final int lineLimit = lineLimit(builder);
+
             for (int i = 0; i < arguments.length; i++) {
 
+                if (builder.length() > lineLimit) {
+                    appendMoreParameters(builder, arguments.length - i, indentLevel);
+                    break;
+                }
+
                 // Null check in case param name could not be determined e.g.
                 // via reflection
                 final String key = names != null ? names[i] : "arg" + (i + 1);
 
                 final Object value = arguments[i];
 
-                appendKeyValue(builder, key, value, indentLevel);
+                appendKeyValue(builder, key, value, indentLevel, lineLimit);
 
             }
         }
     }
 
+    private static int lineLimit(final StringBuilder builder) {
+        final long maxLineLength = PasswordProtectingLogUtils.getRenderingLimits().getMaxLineLength();
+        return (int) Math.min(Integer.MAX_VALUE, builder.length() + maxLineLength);
+    }
+
+    private static void appendMoreParameters(final StringBuilder builder,
+                                             final int more,
+                                             final int indentLevel) {
+        for (int i = 0; i < indentLevel; i++) {
+            builder.append(INDENT);
+        }
+        builder.append("...(").append(more).append(" more)").append(NEW_LINE);
+    }
+
     /**
      * Map a PJP return value to a string. Checks for void results.
      *
@@ -74,18 +115,12 @@ public final class CoreLogUtils {
      */
     public static String returnValueAsString(final Object returnValue) {
 
-        final String returnAsString;
-        if (returnValue != null) {
-            if (returnValue.getClass().isPrimitive()) {
-                returnAsString = "<" + returnValue + ">";
-            } else {
-                returnAsString = "<"
-                                + PasswordProtectingLogUtils.passwordSensitiveObjectToString(returnValue)
-                                + ">";
-            }
-        } else {
-            returnAsString = "<void>";
+        if (returnValue == null) {
+            return "<void>";
         }
-        return returnAsString;
+
+        final StringBuilder builder = new StringBuilder().append('<');
+        PasswordProtectingLogUtils.appendPasswordSensitiveObject(builder, returnValue);
+        return builder.append('>').toString();
     }
 }
@@ -0,0 +1,27 @@
+package com.vennetics.microservices.common.core.logging.utils;
+
+/**
+ * Renders values of a type for logging in place of the default field by field
+ * or toString() rendering. Register as a Spring bean to render large or
+ * sensitive domain types cheaply, e.g. by id only.
+ * <P>
+ * Output is appended unredacted and cut at the configured value length.
+ *
+ * @param <T>
+ *            the rendered type. Subclasses are rendered too.
+ */
+public interface ITypeRenderer<T> {
+
+    /**
+     * @return the type rendered.
+     */
+    Class<T> getType();
+
+    /**
+     * @param builder
+     *            to append to.
+     * @param value
+     *            never null.
+     */
+    void render(final StringBuilder builder, final T value);
+}
@@ -0,0 +1,97 @@
+package com.vennetics.microservices.common.core.logging.utils;
+
+import static com.vennetics.microservices.common.core.logging.LoggingConstants.NEW_LINE;
+
+/**
+ * A log argument rendered by its toString only when the logging backend
+ * formats the event, so nothing is rendered for events discarded by level or
+ * by a log4j2 context wide filter. Log4j2 before 2.6 formats the arguments
+ * as it creates the event, so events denied later by a logger or appender
+ * filter are still rendered. The rendered string is kept so backends
+ * formatting an event more than once only render it once.
+ * <P>
+ * Backends format on the calling thread before handing events to
+ * asynchronous appenders, so values are still rendered as they were at the
+ * time of the call.
+ */
+public abstract class LazyLogValue {
+
+    private String rendered;
+
+    /**
+     * @param names
+     *            the discovered parameter names or null.
+     * @param arguments
+     * @return the named arguments rendered as
+     *         {@link CoreLogUtils#appendNamedParameters(StringBuilder, String[], Object[], int)}
+     *         does, in brackets.
+     */
+    public static LazyLogValue parameters(final String[] names, final Object[] arguments) {
+        return new Parameters(names, arguments);
+    }
+
+    /**
+     * @param returnValue
+     * @return the value rendered as
+     *         {@link CoreLogUtils#returnValueAsString(Object)} does.
+     */
+    public static LazyLogValue returnValue(final Object returnValue) {
+        return new ReturnValue(returnValue);
+    }
+
+    /**
+     * @return the rendered value, called at most once.
+     */
+    protected abstract String render();
+
+    @Override
+    public final String toString() {
+        String value = rendered;
+        if (value == null) {
+            value = render();
+            rendered = value;
+        }
+        return value;
+    }
+
+    private static final class Parameters extends LazyLogValue {
+
+        private final String[] names;
+
+        private final Object[] arguments;
+
+        Parameters(final String[] names, final Object[] arguments) {
+            this.names = names;
+            this.arguments = arguments;
+        }
+
+        @Override
+        protected String render() {
+            final StringBuilder sb = new StringBuilder("(");
+            if (arguments != null) {
+
+                sb.append(NEW_LINE);
+
+                CoreLogUtils.appendNamedParameters(sb, names, arguments, 1);
+
+            }
+
+            sb.append(')');
+            return sb.toString();
+        }
+    }
+
+    private static final class ReturnValue extends LazyLogValue {
+
+        private final Object returnValue;
+
+        ReturnValue(final Object returnValue) {
+            this.returnValue = returnValue;
+        }
+
+        @Override
+        protected String render() {
+            return CoreLogUtils.returnValueAsString(returnValue);
+        }
+    }
+}
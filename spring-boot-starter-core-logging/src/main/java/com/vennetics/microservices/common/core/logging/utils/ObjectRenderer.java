@@ -0,0 +1,473 @@
+package com.vennetics.microservices.common.core.logging.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Renders objects for logging with the rendering strategy for each class
+ * worked out once and cached in a {@link ClassValue}.
+ * <P>
+ * Classes without their own toString() are rendered field by field in the
+ * style of commons-lang ReflectionToStringBuilder, e.g.
+ * com.x.Foo@1b6d3586[name=bob,child=com.x.Bar@4554617c[id=3]], using
+ * MethodHandle getters built when the class is first seen. Static, transient,
+ * synthetic and excluded fields are dropped at that point. Nested objects are
+ * rendered to {@link #MAX_DEPTH}, after which, and for cycles, only the class
+ * and identity hash are shown. String values are redacted with the
+ * {@link SensitiveNameRedactor}.
+ * <P>
+ * Output is bounded by the {@link RenderingLimits}: collections, maps and
+ * arrays stop after a number of elements with a "...(N more)" marker, byte
+ * arrays are shown as their length and a hex prefix, and rendering stops once
+ * the value or line length is reached. {@link ITypeRenderer}s take precedence
+ * for the types they render.
+ * <P>
+ * Everything is appended to the caller's builder. Thread safe.
+ */
+final class ObjectRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectRenderer.class);
+
+    /**
+     * Levels of nested objects rendered field by field below the top level.
+     */
+    static final int MAX_DEPTH = 3;
+
+    static final String TRUNCATED = "...(truncated)";
+
+    private static final String NULL = "<null>";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Set<String> excludedFieldNames;
+
+    private final SensitiveNameRedactor redactor;
+
+    private final RenderingLimits limits;
+
+    private final List<ITypeRenderer<?>> typeRenderers;
+
+    private final ClassValue<TypeRenderer> renderers = new ClassValue<TypeRenderer>() {
+
+        @Override
+        protected TypeRenderer computeValue(final Class<?> type) {
+            return createRenderer(type);
+        }
+    };
+
+    ObjectRenderer(final Set<String> excludedFieldNames,
+                   final SensitiveNameRedactor redactor,
+                   final RenderingLimits limits,
+                   final List<ITypeRenderer<?>> typeRenderers) {
+        this.excludedFieldNames = excludedFieldNames;
+        this.redactor = redactor;
+        this.limits = limits;
+        this.typeRenderers = typeRenderers;
+    }
+
+    /**
+     * Append a value that is a line on its own.
+     *
+     * @param builder
+     * @param value
+     */
+    void append(final StringBuilder builder, final Object value) {
+        append(builder,
+               value,
+               (int) Math.min(Integer.MAX_VALUE, (long) builder.length() + limits.getMaxLineLength()));
+    }
+
+    /**
+     * Append a top level value. Values with their own toString() are trusted
+     * and appended unredacted.
+     *
+     * @param builder
+     * @param value
+     * @param lineLimit
+     *            builder length at which the line is full.
+     */
+    void append(final StringBuilder builder, final Object value, final int lineLimit) {
+        if (value == null) {
+            builder.append((String) null);
+            return;
+        }
+
+        final int limit = (int) Math.min((long) builder.length() + limits.getMaxValueLength(),
+                                         lineLimit);
+        final TypeRenderer renderer = renderers.get(value.getClass());
+        if (renderer.kind == Kind.TO_STRING) {
+            appendString(builder, value.toString(), limit, false);
+        } else {
+            appendValue(new RenderContext(builder, limit), value, renderer, 0);
+        }
+
+        if (builder.length() > limit) {
+            builder.setLength(Math.max(0, limit));
+            builder.append(TRUNCATED);
+        }
+    }
+
+    /**
+     * @param type
+     * @return true if the class has its own toString().
+     */
+    boolean isToStringImplemented(final Class<?> type) {
+        return renderers.get(type).kind == Kind.TO_STRING;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void appendValue(final RenderContext context,
+                             final Object value,
+                             final TypeRenderer renderer,
+                             final int depth) {
+        final StringBuilder builder = context.builder;
+        switch (renderer.kind) {
+            case CUSTOM:
+                ((ITypeRenderer) renderer.custom).render(builder, value);
+                break;
+            case STRING:
+                appendString(builder, (String) value, context.limit, true);
+                break;
+            case TO_STRING:
+                appendString(builder, value.toString(), context.limit, true);
+                break;
+            case BYTES:
+                appendBytes(builder, (byte[]) value);
+                break;
+            case ARRAY:
+                appendArray(context, value, depth);
+                break;
+            case COLLECTION:
+                appendCollection(context, (Collection<?>) value, depth);
+                break;
+            case MAP:
+                appendMap(context, (Map<?, ?>) value, depth);
+                break;
+            default:
+                appendFields(context, value, renderer, depth);
+                break;
+        }
+    }
+
+    private void appendNested(final RenderContext context, final Object value, final int depth) {
+        if (value == null) {
+            context.builder.append(NULL);
+        } else {
+            appendValue(context, value, renderers.get(value.getClass()), depth);
+        }
+    }
+
+    /**
+     * Append no more than one character past the limit so a huge string is
+     * never copied whole.
+     */
+    private void appendString(final StringBuilder builder,
+                              final String value,
+                              final int limit,
+                              final boolean redact) {
+        final int room = Math.max(0, limit - builder.length()) + 1;
+        final String prefix = value.length() > room ? value.substring(0, room) : value;
+        builder.append(redact ? redactor.redact(prefix) : prefix);
+    }
+
+    private void appendBytes(final StringBuilder builder, final byte[] bytes) {
+        builder.append("byte[").append(bytes.length).append("]{");
+        final int shown = Math.min(bytes.length, limits.getMaxBytes());
+        for (int i = 0; i < shown; i++) {
+            builder.append(HEX[(bytes[i] >> 4) & 0xF]).append(HEX[bytes[i] & 0xF]);
+        }
+        if (shown < bytes.length) {
+            builder.append("...");
+        }
+        builder.append('}');
+    }
+
+    private void appendArray(final RenderContext context, final Object array, final int depth) {
+        final StringBuilder builder = context.builder;
+        if (!context.enter(array, depth)) {
+            appendIdentity(builder, array);
+            return;
+        }
+
+        builder.append('{');
+        final int length = Array.getLength(array);
+        final int shown = Math.min(length, limits.getMaxElements());
+        for (int i = 0; i < shown && !context.isFull(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            appendNested(context, Array.get(array, i), depth + 1);
+        }
+        appendMore(builder, length - shown);
+        builder.append('}');
+        context.exit(depth);
+    }
+
+    private void appendCollection(final RenderContext context,
+                                  final Collection<?> collection,
+                                  final int depth) {
+        final StringBuilder builder = context.builder;
+        if (!context.enter(collection, depth)) {
+            appendIdentity(builder, collection);
+            return;
+        }
+
+        builder.append('[');
+        final int size = collection.size();
+        int shown = 0;
+        final Iterator<?> iterator = collection.iterator();
+        while (iterator.hasNext() && shown < limits.getMaxElements() && !context.isFull()) {
+            if (shown > 0) {
+                builder.append(", ");
+            }
+            appendNested(context, iterator.next(), depth + 1);
+            shown++;
+        }
+        appendMore(builder, size - shown);
+        builder.append(']');
+        context.exit(depth);
+    }
+
+    private void appendMap(final RenderContext context, final Map<?, ?> map, final int depth) {
+        final StringBuilder builder = context.builder;
+        if (!context.enter(map, depth)) {
+            appendIdentity(builder, map);
+            return;
+        }
+
+        builder.append('{');
+        final int size = map.size();
+        int shown = 0;
+        final Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext() && shown < limits.getMaxElements() && !context.isFull()) {
+            final Map.Entry<?, ?> entry = iterator.next();
+            if (shown > 0) {
+                builder.append(", ");
+            }
+            appendNested(context, entry.getKey(), depth + 1);
+            builder.append('=');
+            if (entry.getKey() instanceof String && excludedFieldNames.contains(entry.getKey())) {
+                builder.append(redactor.getReplacement());
+            } else {
+                appendNested(context, entry.getValue(), depth + 1);
+            }
+            shown++;
+        }
+        appendMore(builder, size - shown);
+        builder.append('}');
+        context.exit(depth);
+    }
+
+    private void appendFields(final RenderContext context,
+                              final Object value,
+                              final TypeRenderer renderer,
+                              final int depth) {
+        final StringBuilder builder = context.builder;
+        appendIdentity(builder, value);
+        if (!context.enter(value, depth)) {
+            return;
+        }
+
+        builder.append('[');
+        final FieldAccessor[] fields = renderer.fields;
+        for (int i = 0; i < fields.length && !context.isFull(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(fields[i].name).append('=');
+            appendNested(context, fields[i].get(value), depth + 1);
+        }
+        builder.append(']');
+        context.exit(depth);
+    }
+
+    private static void appendMore(final StringBuilder builder, final int more) {
+        if (more > 0) {
+            builder.append(",...(").append(more).append(" more)");
+        }
+    }
+
+    private static void appendIdentity(final StringBuilder builder, final Object value) {
+        builder.append(value.getClass().getName())
+               .append('@')
+               .append(Integer.toHexString(System.identityHashCode(value)));
+    }
+
+    private TypeRenderer createRenderer(final Class<?> type) {
+        for (final ITypeRenderer<?> typeRenderer : typeRenderers) {
+            if (typeRenderer.getType().isAssignableFrom(type)) {
+                return new TypeRenderer(Kind.CUSTOM, null, typeRenderer);
+            }
+        }
+        if (type == String.class) {
+            return new TypeRenderer(Kind.STRING, null, null);
+        }
+        if (type == byte[].class) {
+            return new TypeRenderer(Kind.BYTES, null, null);
+        }
+        if (type.isArray()) {
+            return new TypeRenderer(Kind.ARRAY, null, null);
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return new TypeRenderer(Kind.COLLECTION, null, null);
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return new TypeRenderer(Kind.MAP, null, null);
+        }
+        if (declaresToString(type)) {
+            return new TypeRenderer(Kind.TO_STRING, null, null);
+        }
+        return new TypeRenderer(Kind.FIELDS, fieldAccessors(type), null);
+    }
+
+    private static boolean declaresToString(final Class<?> type) {
+        try {
+            return type.getMethod("toString").getDeclaringClass() != Object.class;
+        } catch (NoSuchMethodException | SecurityException e) {
+            // Not a signinficant problem if toString not implemented
+            logger.trace("ToString not found on {}", type, e);
+            return false;
+        }
+    }
+
+    /**
+     * Fields of the class and its superclasses, most derived first, as
+     * ReflectionToStringBuilder would render them.
+     */
+    private FieldAccessor[] fieldAccessors(final Class<?> type) {
+        final List<FieldAccessor> accessors = new ArrayList<>();
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                if (isRendered(field)) {
+                    addAccessor(accessors, lookup, field);
+                }
+            }
+        }
+        return accessors.toArray(new FieldAccessor[accessors.size()]);
+    }
+
+    private boolean isRendered(final Field field) {
+        final int modifiers = field.getModifiers();
+        return !Modifier.isStatic(modifiers)
+               && !Modifier.isTransient(modifiers)
+               && !field.isSynthetic()
+               && field.getName().indexOf('$') < 0
+               && !excludedFieldNames.contains(field.getName());
+    }
+
+    private static void addAccessor(final Collection<FieldAccessor> accessors,
+                                    final MethodHandles.Lookup lookup,
+                                    final Field field) {
+        try {
+            field.setAccessible(true);
+            accessors.add(new FieldAccessor(field.getName(),
+                                            lookup.unreflectGetter(field).asType(GETTER_TYPE)));
+        } catch (IllegalAccessException | SecurityException e) {
+            logger.trace("Field {} can't be rendered", field, e);
+        }
+    }
+
+    /**
+     * How instances of a class are rendered.
+     */
+    private enum Kind {
+        CUSTOM, STRING, TO_STRING, BYTES, ARRAY, COLLECTION, MAP, FIELDS
+    }
+
+    private static final class TypeRenderer {
+
+        private final Kind kind;
+
+        private final FieldAccessor[] fields;
+
+        private final ITypeRenderer<?> custom;
+
+        TypeRenderer(final Kind kind, final FieldAccessor[] fields, final ITypeRenderer<?> custom) {
+            this.kind = kind;
+            this.fields = fields;
+            this.custom = custom;
+        }
+    }
+
+    private static final class FieldAccessor {
+
+        private final String name;
+
+        private final MethodHandle getter;
+
+        FieldAccessor(final String name, final MethodHandle getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+
+        // MethodHandle.invokeExact is declared to throw Throwable
+        @SuppressWarnings("squid:S1181")
+        Object get(final Object target) {
+            try {
+                return (Object) getter.invokeExact(target);
+            } catch (final Throwable e) {
+                logger.trace("Failed to read field {}", name, e);
+                return "<unavailable>";
+            }
+        }
+    }
+
+    /**
+     * State of one top level render: the builder, where it is full and the
+     * containers being rendered, for cycle detection.
+     */
+    private static final class RenderContext {
+
+        private final StringBuilder builder;
+
+        private final int limit;
+
+        private final Object[] path = new Object[MAX_DEPTH + 1];
+
+        RenderContext(final StringBuilder builder, final int limit) {
+            this.builder = builder;
+            this.limit = limit;
+        }
+
+        boolean isFull() {
+            return builder.length() > limit;
+        }
+
+        /**
+         * @return false if the container is too deep or already being
+         *         rendered.
+         */
+        boolean enter(final Object container, final int depth) {
+            if (depth > MAX_DEPTH) {
+                return false;
+            }
+            for (int i = 0; i < depth; i++) {
+                if (path[i] == container) {
+                    return false;
+                }
+            }
+            path[depth] = container;
+            return true;
+        }
+
+        void exit(final int depth) {
+            path[depth] = null;
+        }
+    }
+}
@@ -2,44 +2,85 @@ package com.vennetics.microservices.common.core.logging.utils;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Utility methods for avoiding the debugging of password information.
  */
 public final class PasswordProtectingLogUtils {
 
-    private static final Logger logger = LoggerFactory.getLogger(PasswordProtectingLogUtils.class);
-
     private static final String PROTECTED = "<*protected*>";
 
     /**
-     * List of field names that will not be logged when encountered
+     * Field names that will not be logged when encountered, unless replaced by
+     * {@link #setExcludedFieldNames(Collection)}.
      */
-    private static final Collection<String> EXCLUDED_FIELD_NAMES = new ArrayList<String>();
+    public static final List<String> DEFAULT_EXCLUDED_FIELD_NAMES;
 
     static {
-        EXCLUDED_FIELD_NAMES.add("password");
-        EXCLUDED_FIELD_NAMES.add("j_password");
-        EXCLUDED_FIELD_NAMES.add("Password");
-        EXCLUDED_FIELD_NAMES.add("newPassword");
-        EXCLUDED_FIELD_NAMES.add("secret");
-        EXCLUDED_FIELD_NAMES.add("client_secret");
+        final List<String> names = new ArrayList<>();
+        names.add("password");
+        names.add("j_password");
+        names.add("Password");
+        names.add("newPassword");
+        names.add("secret");
+        names.add("client_secret");
+        names.add("Authorization");
+        names.add("authorization");
+        names.add("Proxy-Authorization");
+        DEFAULT_EXCLUDED_FIELD_NAMES = Collections.unmodifiableList(names);
     }
 
+    /**
+     * Replaced as a whole so readers always see a consistent set and redactor.
+     */
+    private static volatile Exclusions exclusions = new Exclusions(DEFAULT_EXCLUDED_FIELD_NAMES,
+                                                                   RenderingLimits.DEFAULT,
+                                                                   Collections.emptyList());
 
     private PasswordProtectingLogUtils() {
 
     }
 
     public static Collection<String> getExcludedFieldNames() {
-        return EXCLUDED_FIELD_NAMES;
+        return exclusions.names;
+    }
+
+    /**
+     * Replace the field names that will not be logged.
+     *
+     * @param fieldNames
+     */
+    public static synchronized void setExcludedFieldNames(final Collection<String> fieldNames) {
+        exclusions = new Exclusions(fieldNames, exclusions.renderingLimits, exclusions.typeRenderers);
+    }
+
+    public static RenderingLimits getRenderingLimits() {
+        return exclusions.renderingLimits;
+    }
+
+    /**
+     * Replace the caps on how much of a value is rendered.
+     *
+     * @param renderingLimits
+     */
+    public static synchronized void setRenderingLimits(final RenderingLimits renderingLimits) {
+        exclusions = new Exclusions(exclusions.names, renderingLimits, exclusions.typeRenderers);
+    }
+
+    /**
+     * Replace the renderers used for specific types. The first renderer for a
+     * supertype of a value is used.
+     *
+     * @param typeRenderers
+     */
+    public static synchronized void setTypeRenderers(final List<ITypeRenderer<?>> typeRenderers) {
+        exclusions = new Exclusions(exclusions.names, exclusions.renderingLimits, typeRenderers);
     }
 
     /**
@@ -52,7 +93,7 @@ public final class PasswordProtectingLogUtils {
      */
     public static String paramValueToString(final String paramName, final Object paramValue) {
 
-        if (PasswordProtectingLogUtils.EXCLUDED_FIELD_NAMES.contains(paramName)) {
+        if (exclusions.names.contains(paramName)) {
             return PROTECTED;
         }
 
@@ -60,6 +101,43 @@ public final class PasswordProtectingLogUtils {
         return passwordSensitiveObjectToString(paramValue);
     }
 
+    /**
+     * As {@link #paramValueToString(String, Object)} but appending to the
+     * builder.
+     *
+     * @param builder
+     * @param paramName
+     * @param paramValue
+     */
+    public static void appendParamValue(final StringBuilder builder,
+                                        final String paramName,
+                                        final Object paramValue) {
+        appendParamValue(builder, paramName, paramValue, Integer.MAX_VALUE);
+    }
+
+    /**
+     * As {@link #appendParamValue(StringBuilder, String, Object)} sharing a
+     * line length budget with other values.
+     *
+     * @param builder
+     * @param paramName
+     * @param paramValue
+     * @param lineLimit
+     *            builder length beyond which nothing more is rendered.
+     */
+    public static void appendParamValue(final StringBuilder builder,
+                                        final String paramName,
+                                        final Object paramValue,
+                                        final int lineLimit) {
+
+        final Exclusions current = exclusions;
+        if (current.names.contains(paramName)) {
+            builder.append(PROTECTED);
+        } else {
+            current.renderer.append(builder, paramValue, lineLimit);
+        }
+    }
+
     /**
      * Calls toString on an object by applying rules.
      *
@@ -72,33 +150,28 @@ public final class PasswordProtectingLogUtils {
      */
     public static String passwordSensitiveObjectToString(final Object value) {
 
-        String result;
         if (value == null) {
+            return null;
+        }
 
-            result = null;
-
-        } else if (!(value instanceof String) && isToStringImplemented(value)) {
-
-            // For classes with explicit string implementations use it
-            // Assume developer had the sense not to log a password.
-
-            result = value.toString();
-
-        } else {
-
-            String unformattedString;
-            if (value instanceof String) {
-
-                unformattedString = value.toString();
-            } else {
+        final StringBuilder builder = new StringBuilder();
+        appendPasswordSensitiveObject(builder, value);
+        return builder.toString();
+    }
 
-                unformattedString = reflectionToString(value);
-            }
+    /**
+     * As {@link #passwordSensitiveObjectToString(Object)} but appending to the
+     * builder.
+     *
+     * @param builder
+     * @param value
+     */
+    public static void appendPasswordSensitiveObject(final StringBuilder builder, final Object value) {
 
-            // Belt and braces in case string contains of the form password=blah
-            result = PasswordProtectingLogUtils.excludeFieldNames(unformattedString);
-        }
-        return result;
+        // For classes with explicit string implementations use it
+        // Assume developer had the sense not to log a password.
+        // Otherwise excluded fields are dropped and strings redacted
+        exclusions.renderer.append(builder, value);
     }
 
     /**
@@ -112,37 +185,33 @@ public final class PasswordProtectingLogUtils {
         if (StringUtils.isEmpty(content)) {
             return content;
         }
-        String result = content;
-        for (final String excludedName : PasswordProtectingLogUtils.EXCLUDED_FIELD_NAMES) {
-            final String pattern = excludedName + "=[^&]*";
-            final Pattern r = Pattern.compile(pattern);
-            final Matcher m = r.matcher(result);
-            if (m.find()) {
-                result = m.replaceAll(excludedName + "=" + PROTECTED);
-            }
-        }
-
-        return result;
+        return exclusions.redactor.redact(content);
     }
 
     /**
-     * @param object
-     * @return true if the object declaring class implements toString()
+     * Excluded names compiled for lookup and redaction along with the
+     * renderer using them.
      */
-    private static boolean isToStringImplemented(final Object object) {
-        try {
-            return !object.getClass()
-                          .getMethod("toString")
-                          .getDeclaringClass()
-                          .equals(Object.class);
-        } catch (NoSuchMethodException | SecurityException e) {
-            // Not a signinficant problem if toString not implemented
-            logger.trace("ToString not found on {}", object.getClass(), e);
-            return false;
-        }
-    }
+    private static final class Exclusions {
+
+        private final Set<String> names;
+
+        private final SensitiveNameRedactor redactor;
+
+        private final RenderingLimits renderingLimits;
 
-    private static String reflectionToString(final Object pojo) {
-        return ReflectionToStringBuilder.toStringExclude(pojo, EXCLUDED_FIELD_NAMES);
+        private final List<ITypeRenderer<?>> typeRenderers;
+
+        private final ObjectRenderer renderer;
+
+        Exclusions(final Collection<String> fieldNames,
+                   final RenderingLimits renderingLimits,
+                   final List<ITypeRenderer<?>> typeRenderers) {
+            names = Collections.unmodifiableSet(new HashSet<>(fieldNames));
+            redactor = new SensitiveNameRedactor(names, PROTECTED);
+            this.renderingLimits = renderingLimits;
+            this.typeRenderers = Collections.unmodifiableList(new ArrayList<>(typeRenderers));
+            renderer = new ObjectRenderer(names, redactor, renderingLimits, this.typeRenderers);
+        }
     }
 }
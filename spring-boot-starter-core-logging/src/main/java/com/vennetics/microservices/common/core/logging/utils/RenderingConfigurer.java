@@ -0,0 +1,53 @@
+package com.vennetics.microservices.common.core.logging.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+/**
+ * Applies the configured excluded field names, rendering limits and any
+ * {@link ITypeRenderer} beans to {@link PasswordProtectingLogUtils}.
+ */
+@Component
+public class RenderingConfigurer {
+
+    private final LoggingProperties loggingProperties;
+
+    private List<ITypeRenderer<?>> typeRenderers = new ArrayList<>();
+
+    @Autowired(required = true)
+    public RenderingConfigurer(final LoggingProperties loggingProperties) {
+        super();
+        this.loggingProperties = loggingProperties;
+    }
+
+    /**
+     * @param typeRenderers
+     *            renderers for specific types in precedence order.
+     */
+    @Autowired(required = false)
+    public void setTypeRenderers(final List<ITypeRenderer<?>> typeRenderers) {
+        this.typeRenderers = typeRenderers;
+    }
+
+    /**
+     * Compile the configuration for use by the static utilities.
+     */
+    @PostConstruct
+    public void configure() {
+        final LoggingProperties.Rendering rendering = loggingProperties.getRendering();
+
+        PasswordProtectingLogUtils.setExcludedFieldNames(loggingProperties.getExcludedFieldNames());
+        PasswordProtectingLogUtils.setRenderingLimits(new RenderingLimits(rendering.getMaxValueLength(),
+                                                                          rendering.getMaxLineLength(),
+                                                                          rendering.getMaxElements(),
+                                                                          rendering.getMaxBytes()));
+        PasswordProtectingLogUtils.setTypeRenderers(typeRenderers);
+    }
+}
@@ -0,0 +1,56 @@
+package com.vennetics.microservices.common.core.logging.utils;
+
+/**
+ * Caps on how much of a value is rendered into a log line.
+ */
+public final class RenderingLimits {
+
+    /**
+     * Limits used until configured.
+     */
+    public static final RenderingLimits DEFAULT = new RenderingLimits(2000, 16000, 50, 32);
+
+    private final int maxValueLength;
+
+    private final int maxLineLength;
+
+    private final int maxElements;
+
+    private final int maxBytes;
+
+    /**
+     * @param maxValueLength
+     *            characters rendered per value.
+     * @param maxLineLength
+     *            characters rendered for all the values in a line.
+     * @param maxElements
+     *            elements rendered per collection, map or array.
+     * @param maxBytes
+     *            bytes of a byte array rendered as hex.
+     */
+    public RenderingLimits(final int maxValueLength,
+                           final int maxLineLength,
+                           final int maxElements,
+                           final int maxBytes) {
+        this.maxValueLength = maxValueLength;
+        this.maxLineLength = maxLineLength;
+        this.maxElements = maxElements;
+        this.maxBytes = maxBytes;
+    }
+
+    public int getMaxValueLength() {
+        return maxValueLength;
+    }
+
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    public int getMaxElements() {
+        return maxElements;
+    }
+
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+}
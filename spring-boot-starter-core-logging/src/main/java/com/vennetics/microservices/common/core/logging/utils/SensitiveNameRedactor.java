@@ -0,0 +1,147 @@
+package com.vennetics.microservices.common.core.logging.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Redacts name=value pairs whose name ends with any of a fixed set of
+ * sensitive names, e.g. password=secret in a URI, in a single pass.
+ * <P>
+ * The names are compiled once into a trie of reversed names. The content is
+ * scanned for '=' and only at each '=' is the trie walked backwards over the
+ * preceding characters, so the cost is linear in the content length whatever
+ * the number of names. The value is redacted up to the next '&amp;' or the end
+ * of the content. Content with nothing to redact is returned as is.
+ * <P>
+ * Immutable and thread safe.
+ */
+public final class SensitiveNameRedactor {
+
+    private static final char SEPARATOR = '=';
+
+    private static final char TERMINATOR = '&';
+
+    private final Node root = new Node();
+
+    private final String replacement;
+
+    /**
+     * @param names
+     *            case sensitive names to redact. Blank names are ignored.
+     * @param replacement
+     *            text the value is replaced with.
+     */
+    public SensitiveNameRedactor(final Collection<String> names, final String replacement) {
+        this.replacement = replacement;
+        for (final String name : names) {
+            if (name != null && !name.isEmpty()) {
+                add(name);
+            }
+        }
+    }
+
+    /**
+     * @return text values are replaced with.
+     */
+    public String getReplacement() {
+        return replacement;
+    }
+
+    /**
+     * @param content
+     * @return the content with sensitive values replaced.
+     */
+    public String redact(final String content) {
+        if (content == null) {
+            return null;
+        }
+
+        StringBuilder result = null;
+        int copied = 0;
+        int separator = content.indexOf(SEPARATOR);
+        while (separator >= 0) {
+            if (endsWithName(content, separator)) {
+                if (result == null) {
+                    result = new StringBuilder(content.length() + replacement.length());
+                }
+                result.append(content, copied, separator + 1).append(replacement);
+
+                final int terminator = content.indexOf(TERMINATOR, separator + 1);
+                if (terminator < 0) {
+                    return result.toString();
+                }
+                copied = terminator;
+                separator = content.indexOf(SEPARATOR, terminator + 1);
+            } else {
+                separator = content.indexOf(SEPARATOR, separator + 1);
+            }
+        }
+
+        if (result == null) {
+            return content;
+        }
+        return result.append(content, copied, content.length()).toString();
+    }
+
+    private boolean endsWithName(final String content, final int end) {
+        Node node = root;
+        for (int i = end - 1; i >= 0; i--) {
+            node = node.child(content.charAt(i));
+            if (node == null) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(final String name) {
+        Node node = root;
+        for (int i = name.length() - 1; i >= 0; i--) {
+            node = node.getOrAddChild(name.charAt(i));
+        }
+        node.terminal = true;
+    }
+
+    /**
+     * Trie node with children in a sorted array. Names share few characters
+     * so arrays are small and binary searched.
+     */
+    private static final class Node {
+
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private boolean terminal;
+
+        Node child(final char key) {
+            final int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node getOrAddChild(final char key) {
+            final int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            final int insert = -index - 1;
+            final char[] newKeys = new char[keys.length + 1];
+            final Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insert);
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+
+            final Node child = new Node();
+            newKeys[insert] = key;
+            newChildren[insert] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+}
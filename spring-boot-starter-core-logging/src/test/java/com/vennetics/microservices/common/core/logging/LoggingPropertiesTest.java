@@ -0,0 +1,49 @@
+package com.vennetics.microservices.common.core.logging;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.EnvironmentTestUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+public class LoggingPropertiesTest {
+
+    private AnnotationConfigApplicationContext context;
+
+    @After
+    public void close() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    public void shouldBindVerbosityLevels() {
+        context = new AnnotationConfigApplicationContext();
+        EnvironmentTestUtils.addEnvironment(context,
+                                            "com.vennetics.microservices.common.core.logging.verbosity=timing",
+                                            "com.vennetics.microservices.common.core.logging.levels[com.vennetics.bss]=OFF",
+                                            "com.vennetics.microservices.common.core.logging.levels[com.vennetics.bss.Foo.bar]=FULL",
+                                            "com.vennetics.microservices.common.core.logging.excluded-field-names=pin,token");
+        context.register(PropertiesConfig.class);
+        context.refresh();
+
+        final LoggingProperties properties = context.getBean(LoggingProperties.class);
+
+        assertEquals(LogVerbosity.TIMING, properties.getVerbosity());
+        assertEquals(LogVerbosity.OFF, properties.getLevels().get("com.vennetics.bss"));
+        assertEquals(LogVerbosity.FULL, properties.getLevels().get("com.vennetics.bss.Foo.bar"));
+        assertEquals(Arrays.asList("pin", "token"), properties.getExcludedFieldNames());
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(LoggingProperties.class)
+    static class PropertiesConfig {
+
+    }
+}
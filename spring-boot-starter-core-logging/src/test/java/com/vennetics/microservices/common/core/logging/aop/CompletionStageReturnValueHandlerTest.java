@@ -0,0 +1,130 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CompletionStageReturnValueHandlerTest {
+
+    private static final Object[] ARGS = new Object[] { "argument" };
+
+    @Mock
+    private IProceedingJoinPointLogger pjpLogger;
+
+    @Mock
+    private Logger logger;
+
+    private JoinPointDescriptor descriptor;
+
+    private CompletionStageReturnValueHandler testClass;
+
+    @Before
+    public void init() throws Exception {
+        descriptor = new JoinPointDescriptor(0,
+                                             CompletableFuture.class,
+                                             CompletableFuture.class.getMethod("completedFuture",
+                                                                               Object.class),
+                                             "Type Name",
+                                             null,
+                                             logger);
+        testClass = new CompletionStageReturnValueHandler(new SlowCallPolicy(new LoggingProperties()));
+    }
+
+    @Test
+    public void shouldSupportCompletionStages() {
+        assertTrue(testClass.supports(descriptor, new CompletableFuture<>()));
+        assertFalse(testClass.supports(descriptor, "result"));
+    }
+
+    @Test
+    public void shouldLogResultWhenCompletedLater() {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+
+        assertSame(future,
+                   testClass.decorate(descriptor, future, null, pjpLogger, LogVerbosity.FULL, System.nanoTime()));
+        verifyZeroInteractions(pjpLogger);
+
+        future.complete("result");
+
+        verify(pjpLogger).logFutureCompleted(eq(descriptor), eq("result"), anyLong());
+    }
+
+    @Test
+    public void shouldLogTimeWhenTiming() {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        testClass.decorate(descriptor, future, null, pjpLogger, LogVerbosity.TIMING, System.nanoTime());
+
+        future.complete("result");
+
+        verify(pjpLogger).logMethodTime(eq(descriptor), anyLong());
+        verify(pjpLogger, never()).logFutureCompleted(eq(descriptor), eq("result"), anyLong());
+    }
+
+    @Test
+    public void shouldLogOnlyFailureWhenExceptions() {
+        final RuntimeException exception = new RuntimeException("Test exception");
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        testClass.decorate(descriptor, future, null, pjpLogger, LogVerbosity.EXCEPTIONS, 0L);
+
+        future.completeExceptionally(exception);
+
+        verify(pjpLogger).logException(descriptor, exception);
+    }
+
+    @Test
+    public void shouldNotLogFastCompletionWhenSlow() {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        testClass.decorate(descriptor, future, ARGS, pjpLogger, LogVerbosity.SLOW, System.nanoTime());
+
+        future.complete("result");
+
+        verifyZeroInteractions(pjpLogger);
+    }
+
+    @Test
+    public void shouldLogSlowCompletionWithArgumentsWhenSlow() {
+        final LoggingProperties properties = new LoggingProperties();
+        properties.getSlowCalls().setThresholdMillis(0);
+        testClass = new CompletionStageReturnValueHandler(new SlowCallPolicy(properties));
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        testClass.decorate(descriptor, future, ARGS, pjpLogger, LogVerbosity.SLOW, System.nanoTime());
+
+        future.complete("result");
+
+        verify(pjpLogger).logSlowCall(eq(descriptor),
+                                      eq(ARGS),
+                                      eq("result"),
+                                      isNull(Throwable.class),
+                                      anyLong());
+    }
+
+    @Test
+    public void shouldLogFastFailureWhenSlow() {
+        final RuntimeException exception = new RuntimeException("Test exception");
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        testClass.decorate(descriptor, future, ARGS, pjpLogger, LogVerbosity.SLOW, System.nanoTime());
+
+        future.completeExceptionally(exception);
+
+        verify(pjpLogger).logSlowCall(eq(descriptor), eq(ARGS), isNull(), eq(exception), anyLong());
+    }
+}
@@ -6,7 +6,6 @@ import static org.mockito.Matchers.notNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
-import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -61,10 +60,9 @@ public class CoreLoggerAdviceSpringTest {
         logger.debug("Got result:{}", result);
 
         // Verify AOP calls
-        verify(mockPjpLogger).logMethodEntry(notNull(Logger.class),
-                                             notNull(ProceedingJoinPoint.class));
-        verify(mockPjpLogger).logMethodExit(notNull(Logger.class),
-                                            notNull(ProceedingJoinPoint.class),
+        verify(mockPjpLogger).logMethodEntry(notNull(JoinPointDescriptor.class),
+                                             eq(new Object[] { "testParam" }));
+        verify(mockPjpLogger).logMethodExit(notNull(JoinPointDescriptor.class),
                                             eq("Echo:" + "testParam"));
     }
 
@@ -4,11 +4,20 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.eq;
-import static org.mockito.Matchers.notNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.Before;
 import org.junit.Test;
@@ -18,7 +27,9 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.vennetics.microservices.common.core.logging.LoggingConstants;
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.SamplingStrategy;
 import com.vennetics.microservices.common.not.core.logging.ITestEcho;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -26,6 +37,8 @@ public class CoreLoggerAdviceTest {
 
     private static final Logger logger = LoggerFactory.getLogger(CoreLoggerAdviceTest.class);
 
+    private static final Object[] ARGS = { "arg" };
+
     @Mock
     private IProceedingJoinPointLogger proceedingJoinPointLogger;
 
@@ -35,12 +48,59 @@ public class CoreLoggerAdviceTest {
     @Mock
     private ITestEcho target;
 
-    private CoreLoggerAdvice testClass;
+    @Mock
+    private JoinPointDescriptorRegistry descriptorRegistry;
+
+    @Mock
+    private IInvocationListener invocationListener;
+
+    @Mock
+    private IReturnValueHandler returnValueHandler;
+
+    private JoinPointDescriptor descriptor;
+
+    private LogVerbosityManager verbosityManager;
+
+    private LogSampler logSampler;
 
+    private SlowCallPolicy slowCallPolicy;
+
+    private HotMethodDetector hotMethodDetector;
+
+    private ReturnValueHandlerRegistry returnValueHandlerRegistry;
+
+    private ExceptionLogThrottle exceptionLogThrottle;
+
+    private CoreLoggerAdvice testClass;
 
     @Before
-    public void init() {
-        testClass = new CoreLoggerAdvice(proceedingJoinPointLogger) {
+    public void init() throws Exception {
+        final Method method = ITestEcho.class.getMethod("echo", String.class);
+        descriptor = new JoinPointDescriptor(0,
+                                             target.getClass(),
+                                             method,
+                                             ITestEcho.class.getName(),
+                                             new String[] { "testParam" },
+                                             logger);
+        when(descriptorRegistry.getDescriptor(pjp)).thenReturn(descriptor);
+        when(pjp.getArgs()).thenReturn(ARGS);
+
+        final LoggingProperties properties = new LoggingProperties();
+        verbosityManager = new LogVerbosityManager(properties);
+        logSampler = new LogSampler(properties);
+        slowCallPolicy = new SlowCallPolicy(properties);
+        hotMethodDetector = new HotMethodDetector(properties);
+        returnValueHandlerRegistry = new ReturnValueHandlerRegistry(Arrays.asList(returnValueHandler));
+        exceptionLogThrottle = new ExceptionLogThrottle(properties);
+
+        testClass = new CoreLoggerAdvice(proceedingJoinPointLogger,
+                                         descriptorRegistry,
+                                         verbosityManager,
+                                         logSampler,
+                                         slowCallPolicy,
+                                         hotMethodDetector,
+                                         returnValueHandlerRegistry,
+                                         exceptionLogThrottle) {
             @Override
             protected boolean isDebugEnabled(final Logger targetObjectLogger) {
                 return true;
@@ -52,7 +112,14 @@ public class CoreLoggerAdviceTest {
     @Test
     public void shouldAllowDebugOverried() {
 
-        testClass = new CoreLoggerAdvice(proceedingJoinPointLogger);
+        testClass = new CoreLoggerAdvice(proceedingJoinPointLogger,
+                                         descriptorRegistry,
+                                         verbosityManager,
+                                         logSampler,
+                                         slowCallPolicy,
+                                         hotMethodDetector,
+                                         returnValueHandlerRegistry,
+                                         exceptionLogThrottle);
 
         testClass.setOverrideLogConfig(true);
         assertTrue(testClass.isDebugEnabled(logger));
@@ -60,15 +127,17 @@ public class CoreLoggerAdviceTest {
         assertEquals(logger.isDebugEnabled(), testClass.isDebugEnabled(logger));
     }
 
-    @Test
-    public void shouldBeInCorrectOrder() {
-        assertEquals(LoggingConstants.LOGGING_ADVICE_ORDER, testClass.getOrder());
-    }
-
     @Test
     public void shouldProceedLoggerDisabled() throws Throwable {
 
-        testClass = new CoreLoggerAdvice(proceedingJoinPointLogger) {
+        testClass = new CoreLoggerAdvice(proceedingJoinPointLogger,
+                                         descriptorRegistry,
+                                         verbosityManager,
+                                         logSampler,
+                                         slowCallPolicy,
+                                         hotMethodDetector,
+                                         returnValueHandlerRegistry,
+                                         exceptionLogThrottle) {
             @Override
             protected boolean isDebugEnabled(final Logger targetObjectLogger) {
                 return false;
@@ -85,10 +154,40 @@ public class CoreLoggerAdviceTest {
         assertEquals(pjpResult, result);
     }
 
+    @Test
+    public void shouldOnlyProceedForUnselectedMethod() throws Throwable {
+
+        final JoinPointDescriptor unselected = new JoinPointDescriptor(1,
+                                                                       target.getClass(),
+                                                                       descriptor.getMethod(),
+                                                                       ITestEcho.class.getName(),
+                                                                       new String[] { "testParam" },
+                                                                       logger,
+                                                                       false);
+        when(descriptorRegistry.getDescriptor(pjp)).thenReturn(unselected);
+        when(pjp.proceed()).thenReturn("Expected result");
+        testClass.setInvocationListeners(Arrays.asList(invocationListener));
+
+        assertEquals("Expected result", testClass.doLogging(pjp));
+
+        verifyZeroInteractions(proceedingJoinPointLogger);
+        verify(invocationListener, never()).beforeInvocation(any(JoinPointDescriptor.class), any(Object[].class));
+        verify(invocationListener, never()).afterInvocation(any(JoinPointDescriptor.class),
+                                                            anyLong(),
+                                                            any(Throwable.class));
+    }
+
     @Test
     public void shouldProceedWithRealLogger() throws Throwable {
 
-        testClass = new CoreLoggerAdvice(proceedingJoinPointLogger);
+        testClass = new CoreLoggerAdvice(proceedingJoinPointLogger,
+                                         descriptorRegistry,
+                                         verbosityManager,
+                                         logSampler,
+                                         slowCallPolicy,
+                                         hotMethodDetector,
+                                         returnValueHandlerRegistry,
+                                         exceptionLogThrottle);
 
         final Object pjpResult = "Expected result";
 
@@ -109,11 +208,9 @@ public class CoreLoggerAdviceTest {
         when(pjp.proceed()).thenReturn(pjpResult);
 
         doThrow(new RuntimeException("")).when(proceedingJoinPointLogger)
-                                         .logMethodEntry(notNull(Logger.class), eq(pjp));
+                                         .logMethodEntry(eq(descriptor), eq(ARGS));
         doThrow(new RuntimeException("")).when(proceedingJoinPointLogger)
-                                         .logMethodExit(notNull(Logger.class),
-                                                        eq(pjp),
-                                                        eq(pjpResult));
+                                         .logMethodExit(eq(descriptor), eq(pjpResult));
 
         final Object result = testClass.doLogging(pjp);
 
@@ -132,10 +229,8 @@ public class CoreLoggerAdviceTest {
 
         assertEquals(pjpResult, result);
 
-        verify(proceedingJoinPointLogger).logMethodEntry(notNull(Logger.class), eq(pjp));
-        verify(proceedingJoinPointLogger).logMethodExit(notNull(Logger.class),
-                                                        eq(pjp),
-                                                        eq(pjpResult));
+        verify(proceedingJoinPointLogger).logMethodEntry(eq(descriptor), eq(ARGS));
+        verify(proceedingJoinPointLogger).logMethodExit(eq(descriptor), eq(pjpResult));
     }
 
     @Test
@@ -158,10 +253,8 @@ public class CoreLoggerAdviceTest {
             assertEquals(exception, e);
         } finally {
 
-            verify(proceedingJoinPointLogger).logMethodEntry(notNull(Logger.class), eq(pjp));
-            verify(proceedingJoinPointLogger).logException(notNull(Logger.class),
-                                                           eq(pjp),
-                                                           eq(exception));
+            verify(proceedingJoinPointLogger).logMethodEntry(eq(descriptor), eq(ARGS));
+            verify(proceedingJoinPointLogger).logException(eq(descriptor), eq(exception));
         }
     }
 
@@ -174,9 +267,7 @@ public class CoreLoggerAdviceTest {
         when(pjp.proceed()).thenThrow(exception);
 
         doThrow(new RuntimeException("")).when(proceedingJoinPointLogger)
-                                         .logException(notNull(Logger.class),
-                                                       eq(pjp),
-                                                       eq(exception));
+                                         .logException(eq(descriptor), eq(exception));
         try {
             testClass.doLogging(pjp);
 
@@ -189,11 +280,319 @@ public class CoreLoggerAdviceTest {
             assertEquals(exception, e);
         } finally {
 
-            verify(proceedingJoinPointLogger).logMethodEntry(notNull(Logger.class), eq(pjp));
-            verify(proceedingJoinPointLogger).logException(notNull(Logger.class),
-                                                           eq(pjp),
-                                                           eq(exception));
+            verify(proceedingJoinPointLogger).logMethodEntry(eq(descriptor), eq(ARGS));
+            verify(proceedingJoinPointLogger).logException(eq(descriptor), eq(exception));
+        }
+    }
+
+    @Test
+    public void shouldOnlyProceedWhenVerbosityOff() throws Throwable {
+
+        verbosityManager.setLevel(ITestEcho.class.getName(), LogVerbosity.OFF);
+
+        when(pjp.proceed()).thenReturn("Expected result");
+
+        assertEquals("Expected result", testClass.doLogging(pjp));
+
+        verifyZeroInteractions(proceedingJoinPointLogger);
+    }
+
+    @Test
+    public void shouldOnlyNotifyListenersWhenMethodDemoted() throws Throwable {
+
+        hotMethodDetector.demote(descriptor);
+        testClass.setInvocationListeners(Arrays.asList(invocationListener));
+
+        when(pjp.proceed()).thenReturn("Expected result");
+
+        assertEquals("Expected result", testClass.doLogging(pjp));
+
+        verifyZeroInteractions(proceedingJoinPointLogger);
+        verify(invocationListener).beforeInvocation(descriptor, null);
+        verify(invocationListener).afterInvocation(eq(descriptor), anyLong(), isNull(Throwable.class));
+    }
+
+    @Test
+    public void shouldOnlyLogExceptionsWhenVerbosityExceptions() throws Throwable {
+
+        verbosityManager.setDefaultVerbosity(LogVerbosity.EXCEPTIONS);
+
+        final RuntimeException exception = new RuntimeException("Test exception");
+
+        when(pjp.proceed()).thenReturn("Expected result").thenThrow(exception);
+
+        assertEquals("Expected result", testClass.doLogging(pjp));
+
+        try {
+            testClass.doLogging(pjp);
+
+            fail("Expected RuntimeException");
+
+        } catch (final RuntimeException e) {
+
+            assertEquals(exception, e);
+        }
+
+        verify(proceedingJoinPointLogger).logException(eq(descriptor), eq(exception));
+        verify(proceedingJoinPointLogger, never()).logMethodEntry(eq(descriptor), eq(ARGS));
+        verify(proceedingJoinPointLogger, never()).logMethodTime(eq(descriptor), anyLong());
+    }
+
+    @Test
+    public void shouldLogExceptionOnceThroughNestedCalls() throws Throwable {
+
+        final RuntimeException exception = new RuntimeException("Test exception");
+        final ProceedingJoinPoint innerPjp = mock(ProceedingJoinPoint.class);
+        when(descriptorRegistry.getDescriptor(innerPjp)).thenReturn(descriptor);
+        when(innerPjp.proceed()).thenThrow(exception);
+        when(pjp.proceed()).thenAnswer(invocation -> testClass.doLogging(innerPjp));
+
+        try {
+            testClass.doLogging(pjp);
+
+            fail("Expected RuntimeException");
+
+        } catch (final RuntimeException e) {
+
+            assertEquals(exception, e);
+        }
+
+        verify(proceedingJoinPointLogger).logException(eq(descriptor), eq(exception));
+    }
+
+    @Test
+    public void shouldLogSameExceptionThrownFromSeparateCalls() throws Throwable {
+
+        // e.g. a preallocated exception on a pooled thread
+        final RuntimeException exception = new RuntimeException("Test exception");
+        when(pjp.proceed()).thenThrow(exception);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                testClass.doLogging(pjp);
+
+                fail("Expected RuntimeException");
+
+            } catch (final RuntimeException e) {
+
+                assertEquals(exception, e);
+            }
         }
+
+        verify(proceedingJoinPointLogger, times(2)).logException(eq(descriptor), eq(exception));
+    }
+
+    @Test
+    public void shouldLogTimeWithoutArgumentsWhenVerbosityTiming() throws Throwable {
+
+        verbosityManager.setLevel(ITestEcho.class.getName() + ".echo", LogVerbosity.TIMING);
+
+        when(pjp.proceed()).thenReturn("Expected result");
+
+        assertEquals("Expected result", testClass.doLogging(pjp));
+
+        verify(proceedingJoinPointLogger).logMethodTime(eq(descriptor), anyLong());
+        verify(proceedingJoinPointLogger, never()).logMethodEntry(eq(descriptor), eq(ARGS));
+        verify(proceedingJoinPointLogger, never()).logMethodExit(eq(descriptor), eq("Expected result"));
+    }
+
+    @Test
+    public void shouldOnlyLogExceptionsWhenNotSampled() throws Throwable {
+
+        final LoggingProperties properties = new LoggingProperties();
+        properties.getSampling().setStrategy(SamplingStrategy.EVERY_NTH);
+        properties.getSampling().setEveryNth(2);
+        logSampler = new LogSampler(properties);
+        testClass = new CoreLoggerAdvice(proceedingJoinPointLogger,
+                                         descriptorRegistry,
+                                         verbosityManager,
+                                         logSampler,
+                                         slowCallPolicy,
+                                         hotMethodDetector,
+                                         returnValueHandlerRegistry,
+                                         exceptionLogThrottle);
+
+        when(pjp.proceed()).thenReturn("Expected result");
+
+        testClass.doLogging(pjp);
+        testClass.doLogging(pjp);
+
+        verify(proceedingJoinPointLogger).logMethodEntry(eq(descriptor), eq(ARGS));
+        assertEquals(1, descriptor.getSamplingState().getSuppressed());
+    }
+
+    @Test
+    public void shouldPassArgumentsToListenersThatRequireThem() throws Throwable {
+
+        when(invocationListener.isArgumentsRequired()).thenReturn(true);
+        testClass.setInvocationListeners(Arrays.asList(invocationListener));
+        when(pjp.proceed()).thenReturn("Expected result");
+
+        testClass.doLogging(pjp);
+
+        verify(invocationListener).beforeInvocation(descriptor, ARGS);
+    }
+
+    @Test
+    public void shouldNotifyListenersEvenWhenVerbosityOff() throws Throwable {
+
+        verbosityManager.setDefaultVerbosity(LogVerbosity.OFF);
+        testClass.setInvocationListeners(Arrays.asList(invocationListener));
+
+        final RuntimeException exception = new RuntimeException("Test exception");
+        when(pjp.proceed()).thenReturn("Expected result").thenThrow(exception);
+
+        assertEquals("Expected result", testClass.doLogging(pjp));
+        try {
+            testClass.doLogging(pjp);
+
+            fail("Expected RuntimeException");
+
+        } catch (final RuntimeException e) {
+
+            assertEquals(exception, e);
+        }
+
+        verify(invocationListener, times(2)).beforeInvocation(descriptor, null);
+        verify(invocationListener).afterInvocation(eq(descriptor), anyLong(), isNull(Throwable.class));
+        verify(invocationListener).afterInvocation(eq(descriptor), anyLong(), eq(exception));
+    }
+
+    @Test
+    public void shouldIgnoreFailingListener() throws Throwable {
+
+        testClass.setInvocationListeners(Arrays.asList(invocationListener));
+        doThrow(new IllegalStateException()).when(invocationListener)
+                                            .afterInvocation(eq(descriptor),
+                                                             anyLong(),
+                                                             isNull(Throwable.class));
+        when(pjp.proceed()).thenReturn("Expected result");
+
+        assertEquals("Expected result", testClass.doLogging(pjp));
     }
 
+    @Test
+    public void shouldReturnDecoratedDeferredResult() throws Throwable {
+
+        verbosityManager.setDefaultVerbosity(LogVerbosity.TIMING);
+
+        final Object deferred = new Object();
+        final Object decorated = new Object();
+        when(pjp.proceed()).thenReturn(deferred);
+        when(returnValueHandler.supports(descriptor, deferred)).thenReturn(true);
+        when(returnValueHandler.decorate(eq(descriptor),
+                                         eq(deferred),
+                                         isNull(Object[].class),
+                                         eq(proceedingJoinPointLogger),
+                                         eq(LogVerbosity.TIMING),
+                                         anyLong())).thenReturn(decorated);
+
+        assertEquals(decorated, testClass.doLogging(pjp));
+
+        // Timed to completion by the handler rather than on return
+        verify(proceedingJoinPointLogger, never()).logMethodTime(eq(descriptor), anyLong());
+        verify(proceedingJoinPointLogger, never()).logMethodExit(eq(descriptor), eq(deferred));
+    }
+
+    @Test
+    public void shouldReturnUndecoratedResultWhenDecorationFails() throws Throwable {
+
+        final Object deferred = new Object();
+        when(pjp.proceed()).thenReturn(deferred);
+        when(returnValueHandler.supports(descriptor, deferred)).thenReturn(true);
+        when(returnValueHandler.decorate(eq(descriptor),
+                                         eq(deferred),
+                                         isNull(Object[].class),
+                                         eq(proceedingJoinPointLogger),
+                                         eq(LogVerbosity.FULL),
+                                         anyLong())).thenThrow(new IllegalStateException());
+
+        assertEquals(deferred, testClass.doLogging(pjp));
+    }
+
+    @Test
+    public void shouldHandArgumentsToHandlerWhenVerbositySlow() throws Throwable {
+
+        verbosityManager.setDefaultVerbosity(LogVerbosity.SLOW);
+
+        final Object deferred = new Object();
+        when(pjp.proceed()).thenReturn(deferred);
+        when(returnValueHandler.supports(descriptor, deferred)).thenReturn(true);
+        when(returnValueHandler.decorate(eq(descriptor),
+                                         eq(deferred),
+                                         eq(ARGS),
+                                         eq(proceedingJoinPointLogger),
+                                         eq(LogVerbosity.SLOW),
+                                         anyLong())).thenReturn(deferred);
+
+        assertEquals(deferred, testClass.doLogging(pjp));
+
+        // Slow completion is decided by the handler
+        verifyZeroInteractions(proceedingJoinPointLogger);
+    }
+
+    @Test
+    public void shouldNotRenderFastCallsWhenVerbositySlow() throws Throwable {
+
+        verbosityManager.setDefaultVerbosity(LogVerbosity.SLOW);
+
+        when(pjp.proceed()).thenReturn("Expected result");
+
+        assertEquals("Expected result", testClass.doLogging(pjp));
+
+        verifyZeroInteractions(proceedingJoinPointLogger);
+        verify(pjp, never()).getArgs();
+    }
+
+    @Test
+    public void shouldLogArgumentsAndResultOfSlowCalls() throws Throwable {
+
+        final LoggingProperties properties = new LoggingProperties();
+        properties.getSlowCalls().getThresholds().put(ITestEcho.class.getName() + ".echo", 0L);
+        slowCallPolicy = new SlowCallPolicy(properties);
+        testClass = new CoreLoggerAdvice(proceedingJoinPointLogger,
+                                         descriptorRegistry,
+                                         verbosityManager,
+                                         logSampler,
+                                         slowCallPolicy,
+                                         hotMethodDetector,
+                                         returnValueHandlerRegistry,
+                                         exceptionLogThrottle);
+        verbosityManager.setDefaultVerbosity(LogVerbosity.SLOW);
+
+        when(pjp.proceed()).thenReturn("Expected result");
+
+        assertEquals("Expected result", testClass.doLogging(pjp));
+
+        verify(proceedingJoinPointLogger).logSlowCall(eq(descriptor),
+                                                      eq(ARGS),
+                                                      eq("Expected result"),
+                                                      isNull(Throwable.class),
+                                                      anyLong());
+    }
+
+    @Test
+    public void shouldLogArgumentsOfFailedCallsWhenVerbositySlow() throws Throwable {
+
+        verbosityManager.setDefaultVerbosity(LogVerbosity.SLOW);
+
+        final RuntimeException exception = new RuntimeException("Test exception");
+        when(pjp.proceed()).thenThrow(exception);
+
+        try {
+            testClass.doLogging(pjp);
+
+            fail("Expected RuntimeException");
+
+        } catch (final RuntimeException e) {
+
+            assertEquals(exception, e);
+        }
+
+        verify(proceedingJoinPointLogger).logSlowCall(eq(descriptor),
+                                                      eq(ARGS),
+                                                      isNull(),
+                                                      eq(exception),
+                                                      anyLong());
+    }
 }
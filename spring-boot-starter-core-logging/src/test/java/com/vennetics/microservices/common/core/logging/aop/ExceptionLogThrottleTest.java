@@ -0,0 +1,215 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+public class ExceptionLogThrottleTest {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final Logger logger = mock(Logger.class);
+
+    private LoggingProperties properties;
+
+    @Before
+    public void init() {
+        properties = new LoggingProperties();
+        // Only the frame in the factory methods below
+        properties.getExceptions().setStackFrames(1);
+    }
+
+    @Test
+    public void shouldLogFirstOccurrenceOnly() {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+
+        assertEquals(0L, testClass.acquire(failure("first"), logger, 0L));
+        assertEquals(ExceptionLogThrottle.SUPPRESSED, testClass.acquire(failure("second"), logger, 1L));
+        assertEquals(ExceptionLogThrottle.SUPPRESSED, testClass.acquire(failure("third"), logger, 2L));
+        assertEquals(1, testClass.getFingerprintCount());
+    }
+
+    @Test
+    public void shouldReportSuppressedCountOnceWindowEnds() {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+
+        testClass.acquire(failure("first"), logger, 0L);
+        testClass.acquire(failure("second"), logger, 1L);
+        testClass.acquire(failure("third"), logger, 2L);
+
+        assertEquals(2L, testClass.acquire(failure("fourth"), logger, WINDOW_NANOS));
+        assertEquals(ExceptionLogThrottle.SUPPRESSED, testClass.acquire(failure("fifth"), logger, WINDOW_NANOS + 1));
+    }
+
+    @Test
+    public void shouldFlushCountOfExpiredWindow() {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+
+        testClass.acquire(failure("first"), logger, 0L);
+        testClass.acquire(failure("second"), logger, 1L);
+        testClass.acquire(failure("third"), logger, 2L);
+
+        testClass.flush(WINDOW_NANOS - 1);
+        verifyZeroInteractions(logger);
+
+        testClass.flush(WINDOW_NANOS);
+        verify(logger).debug(ExceptionLogThrottle.SUPPRESSED_MESSAGE,
+                             2L,
+                             RuntimeException.class.getName());
+        assertEquals(0L, testClass.acquire(failure("fourth"), logger, WINDOW_NANOS));
+    }
+
+    @Test
+    public void shouldDropExpiredWindowWithNothingToFlush() {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+
+        testClass.acquire(failure("first"), logger, 0L);
+        testClass.flush(WINDOW_NANOS);
+
+        verifyZeroInteractions(logger);
+        assertEquals(0, testClass.getFingerprintCount());
+    }
+
+    @Test
+    public void shouldFlushEveryCountWhenStopped() throws InterruptedException {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+
+        testClass.acquire(failure("first"), logger);
+        testClass.acquire(failure("second"), logger);
+        testClass.stop();
+
+        verify(logger).debug(ExceptionLogThrottle.SUPPRESSED_MESSAGE,
+                             1L,
+                             RuntimeException.class.getName());
+    }
+
+    @Test
+    public void shouldMarkInstanceOnceThroughNestedCalls() {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+        final RuntimeException exception = failure("rethrown");
+
+        testClass.enterCall();
+        testClass.enterCall();
+        assertTrue(testClass.markThrown(exception));
+        testClass.exitCall();
+        assertFalse(testClass.markThrown(exception));
+        assertTrue(testClass.markThrown(failure("another")));
+        testClass.exitCall();
+    }
+
+    @Test
+    public void shouldMarkInstanceThrownAgainInSameChain() {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+        final RuntimeException exception = failure("preallocated");
+
+        testClass.enterCall();
+        testClass.enterCall();
+        assertTrue(testClass.markThrown(exception));
+        testClass.exitCall();
+        testClass.enterCall();
+        assertTrue(testClass.markThrown(exception));
+        testClass.exitCall();
+        testClass.exitCall();
+    }
+
+    @Test
+    public void shouldForgetInstancesWhenOutermostCallExits() {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+        final RuntimeException exception = failure("preallocated");
+
+        testClass.enterCall();
+        testClass.enterCall();
+        assertTrue(testClass.markThrown(exception));
+        testClass.exitCall();
+        testClass.exitCall();
+
+        // The same instance from the next top level call, at a lower depth
+        testClass.enterCall();
+        assertTrue(testClass.markThrown(exception));
+        testClass.exitCall();
+    }
+
+    @Test
+    public void shouldMarkInstancesPerThread() throws InterruptedException {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+        final RuntimeException exception = failure("handed over");
+        final boolean[] marked = new boolean[1];
+
+        testClass.enterCall();
+        testClass.enterCall();
+        testClass.markThrown(exception);
+        testClass.exitCall();
+        final Thread other = new Thread(() -> {
+            testClass.enterCall();
+            marked[0] = testClass.markThrown(exception);
+            testClass.exitCall();
+        });
+        other.start();
+        other.join();
+        testClass.exitCall();
+
+        assertTrue(marked[0]);
+    }
+
+    @Test
+    public void shouldCountSameInstanceAgainstFingerprint() {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+        final RuntimeException exception = failure("preallocated");
+
+        assertEquals(0L, testClass.acquire(exception, logger, 0L));
+        assertEquals(ExceptionLogThrottle.SUPPRESSED, testClass.acquire(exception, logger, 1L));
+        assertEquals(1L, testClass.acquire(exception, logger, WINDOW_NANOS));
+    }
+
+    @Test
+    public void shouldThrottleDifferentFailuresSeparately() {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+
+        assertEquals(0L, testClass.acquire(failure("state"), logger, 0L));
+        assertEquals(0L, testClass.acquire(new IllegalStateException("state"), logger, 0L));
+        assertEquals(2, testClass.getFingerprintCount());
+    }
+
+    @Test
+    public void shouldFingerprintOnTypeAndTopFrames() {
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+
+        assertEquals(testClass.fingerprint(failure("a")), testClass.fingerprint(failure("b")));
+        assertNotEquals(testClass.fingerprint(failure("a")),
+                        testClass.fingerprint(new IllegalArgumentException("a")));
+        assertNotEquals(testClass.fingerprint(failure("a")), testClass.fingerprint(otherFailure()));
+    }
+
+    @Test
+    public void shouldLogEveryFingerprintBeyondLimit() {
+        properties.getExceptions().setMaxFingerprints(1);
+        final ExceptionLogThrottle testClass = new ExceptionLogThrottle(properties);
+
+        testClass.acquire(failure("first"), logger, 0L);
+        testClass.acquire(failure("second"), logger, 1L);
+
+        assertEquals(0L, testClass.acquire(otherFailure(), logger, 2L));
+        assertEquals(0L, testClass.acquire(otherFailure(), logger, 3L));
+        assertEquals(1, testClass.getFingerprintCount());
+    }
+
+    private static RuntimeException failure(final String message) {
+        return new RuntimeException(message);
+    }
+
+    private static RuntimeException otherFailure() {
+        return new RuntimeException("other");
+    }
+}
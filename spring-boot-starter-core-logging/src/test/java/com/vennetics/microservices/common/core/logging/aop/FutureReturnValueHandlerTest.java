@@ -0,0 +1,83 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.FutureTask;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.springframework.scheduling.annotation.AsyncResult;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FutureReturnValueHandlerTest {
+
+    @Mock
+    private IProceedingJoinPointLogger pjpLogger;
+
+    @Mock
+    private Logger logger;
+
+    private JoinPointDescriptor descriptor;
+
+    private FutureReturnValueHandler testClass;
+
+    @Before
+    public void init() throws Exception {
+        descriptor = new JoinPointDescriptor(0,
+                                             CompletableFuture.class,
+                                             CompletableFuture.class.getMethod("completedFuture",
+                                                                               Object.class),
+                                             "Type Name",
+                                             null,
+                                             logger);
+        testClass = new FutureReturnValueHandler(new SlowCallPolicy(new LoggingProperties()));
+    }
+
+    @Test
+    public void shouldOnlySupportCompletedPlainFutures() {
+        final FutureTask<String> task = new FutureTask<>(() -> "result");
+
+        assertFalse(testClass.supports(descriptor, task));
+        task.run();
+        assertTrue(testClass.supports(descriptor, task));
+
+        // Handled by callbacks instead
+        assertFalse(testClass.supports(descriptor, CompletableFuture.completedFuture("result")));
+        assertFalse(testClass.supports(descriptor, new AsyncResult<>("result")));
+    }
+
+    @Test
+    public void shouldLogCompletedResult() {
+        final FutureTask<String> task = new FutureTask<>(() -> "result");
+        task.run();
+
+        testClass.decorate(descriptor, task, null, pjpLogger, LogVerbosity.FULL, System.nanoTime());
+
+        verify(pjpLogger).logFutureCompleted(eq(descriptor), eq("result"), anyLong());
+    }
+
+    @Test
+    public void shouldLogUnwrappedFailure() {
+        final IllegalStateException exception = new IllegalStateException("Test exception");
+        final FutureTask<String> task = new FutureTask<>(() -> {
+            throw exception;
+        });
+        task.run();
+
+        testClass.decorate(descriptor, task, null, pjpLogger, LogVerbosity.EXCEPTIONS, 0L);
+
+        verify(pjpLogger).logException(descriptor, exception);
+    }
+}
@@ -0,0 +1,133 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+public class HotMethodDetectorTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private LoggingProperties properties;
+
+    private JoinPointDescriptor descriptor;
+
+    @Before
+    public void init() throws Exception {
+        properties = new LoggingProperties();
+        properties.getHotMethods().setEnabled(true);
+        properties.getHotMethods().setMeasureEvery(1);
+        properties.getHotMethods().setWindowMillis(1000);
+        properties.getHotMethods().setMaxCallsPerSecond(1000);
+        properties.getHotMethods().setMinCallsPerSecond(10);
+        properties.getHotMethods().setAdviceOverheadNanos(200);
+
+        final JoinPointDescriptorRegistry registry = new JoinPointDescriptorRegistry(mock(ICoreParameterNameDiscoverer.class),
+                                                                                     mock(LoggingMethodSelector.class));
+        descriptor = registry.getDescriptor(ITestEcho.class.getMethod("echo", String.class),
+                                            TestEcho.class);
+    }
+
+    @Test
+    public void shouldNotCountWhenDisabled() {
+        properties.getHotMethods().setEnabled(false);
+        final HotMethodDetector testClass = new HotMethodDetector(properties);
+
+        assertFalse(testClass.countCall(descriptor));
+        assertFalse(testClass.isEnabled());
+    }
+
+    @Test
+    public void shouldDemoteMethodCalledTooOften() {
+        final HotMethodDetector testClass = new HotMethodDetector(properties);
+
+        calls(testClass, 1, 10_000L, 0L);
+        calls(testClass, 1999, 10_000L, SECOND);
+
+        assertTrue(descriptor.getHotMethodState().isDemoted());
+        assertEquals(2000, Math.round(descriptor.getHotMethodState().getCallsPerSecond()));
+    }
+
+    @Test
+    public void shouldDemoteMethodCheaperThanItsAdvice() {
+        final HotMethodDetector testClass = new HotMethodDetector(properties);
+
+        calls(testClass, 1, 50L, 0L);
+        calls(testClass, 100, 50L, SECOND);
+
+        assertTrue(descriptor.getHotMethodState().isDemoted());
+        assertEquals(50L, descriptor.getHotMethodState().getMeanBodyNanos());
+    }
+
+    @Test
+    public void shouldKeepRarelyCalledCheapMethod() {
+        final HotMethodDetector testClass = new HotMethodDetector(properties);
+
+        calls(testClass, 1, 50L, 0L);
+        calls(testClass, 5, 50L, SECOND);
+
+        assertFalse(descriptor.getHotMethodState().isDemoted());
+    }
+
+    @Test
+    public void shouldKeepMethodWorthAdvising() {
+        final HotMethodDetector testClass = new HotMethodDetector(properties);
+
+        calls(testClass, 1, 10_000L, 0L);
+        calls(testClass, 500, 10_000L, SECOND);
+
+        assertFalse(descriptor.getHotMethodState().isDemoted());
+        assertEquals(10_000L, descriptor.getHotMethodState().getMeanBodyNanos());
+    }
+
+    @Test
+    public void shouldNotEvaluateBeforeWindowEnds() {
+        final HotMethodDetector testClass = new HotMethodDetector(properties);
+
+        calls(testClass, 1, 50L, 0L);
+        calls(testClass, 5000, 50L, SECOND - 1);
+
+        assertFalse(descriptor.getHotMethodState().isDemoted());
+        assertEquals(-1L, descriptor.getHotMethodState().getMeanBodyNanos());
+    }
+
+    @Test
+    public void shouldNotDemoteRestoredMethodAgain() {
+        final HotMethodDetector testClass = new HotMethodDetector(properties);
+
+        testClass.demote(descriptor);
+        assertTrue(descriptor.getHotMethodState().isDemoted());
+
+        testClass.restore(descriptor);
+        calls(testClass, 1, 50L, 0L);
+        calls(testClass, 5000, 50L, SECOND);
+        assertFalse(descriptor.getHotMethodState().isDemoted());
+
+        testClass.reset(descriptor);
+        calls(testClass, 5000, 50L, 2 * SECOND);
+        assertTrue(descriptor.getHotMethodState().isDemoted());
+    }
+
+    /**
+     * Make calls just before now and a last call at now.
+     */
+    private void calls(final HotMethodDetector testClass,
+                       final int count,
+                       final long bodyNanos,
+                       final long now) {
+        for (int i = 1; i <= count; i++) {
+            assertTrue(testClass.countCall(descriptor));
+            testClass.recordBody(descriptor, bodyNanos, i == count ? now : now - 1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JoinPointDescriptorPrewarmerTest {
+
+    @Mock
+    private ICoreParameterNameDiscoverer paramNameDiscoverer;
+
+    @Mock
+    private CoreLoggerAdvice coreLoggerAdvice;
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+    private LoggingProperties properties;
+
+    private LoggingMethodSelector methodSelector;
+
+    private JoinPointDescriptorRegistry descriptorRegistry;
+
+    @Before
+    public void init() {
+        properties = new LoggingProperties();
+        methodSelector = new LoggingMethodSelector(properties);
+        descriptorRegistry = new JoinPointDescriptorRegistry(paramNameDiscoverer, methodSelector);
+    }
+
+    @Test
+    public void shouldPrewarmInterfaceMethodsOfLoggingProxies() throws Exception {
+        final ProxyFactory proxyFactory = new ProxyFactory(new TestEcho());
+        proxyFactory.addAdvisor(new ProxyLoggingAdvisor(coreLoggerAdvice, methodSelector));
+        beanFactory.registerSingleton("testEcho", proxyFactory.getProxy());
+
+        newPrewarmer().afterSingletonsInstantiated();
+
+        final Method method = ITestEcho.class.getMethod("echo", String.class);
+        assertEquals(1, descriptorRegistry.getDescriptors().size());
+        assertSame(descriptorRegistry.getDescriptors().get(0),
+                   descriptorRegistry.getDescriptor(method, TestEcho.class));
+    }
+
+    @Test
+    public void shouldIgnoreBeansThatAreNotProxied() {
+        beanFactory.registerSingleton("testEcho", new TestEcho());
+
+        newPrewarmer().afterSingletonsInstantiated();
+
+        assertTrue(descriptorRegistry.getDescriptors().isEmpty());
+    }
+
+    @Test
+    public void shouldPrewarmClassMethodsWhenWoven() throws Exception {
+        properties.getWeaving().setEnabled(true);
+        beanFactory.registerSingleton("testEcho", new TestEcho());
+
+        newPrewarmer().afterSingletonsInstantiated();
+
+        final Method method = TestEcho.class.getMethod("echo", String.class);
+        assertEquals(1, descriptorRegistry.getDescriptors().size());
+        assertSame(descriptorRegistry.getDescriptors().get(0),
+                   descriptorRegistry.getDescriptor(method, TestEcho.class));
+    }
+
+    @Test
+    public void shouldNotCreateLazyBeans() {
+        properties.getWeaving().setEnabled(true);
+        final RootBeanDefinition definition = new RootBeanDefinition(TestEcho.class);
+        definition.setLazyInit(true);
+        beanFactory.registerBeanDefinition("testEcho", definition);
+
+        newPrewarmer().afterSingletonsInstantiated();
+
+        assertFalse(beanFactory.containsSingleton("testEcho"));
+        assertTrue(descriptorRegistry.getDescriptors().isEmpty());
+    }
+
+    private JoinPointDescriptorPrewarmer newPrewarmer() {
+        return new JoinPointDescriptorPrewarmer(beanFactory,
+                                                descriptorRegistry,
+                                                methodSelector,
+                                                properties);
+    }
+}
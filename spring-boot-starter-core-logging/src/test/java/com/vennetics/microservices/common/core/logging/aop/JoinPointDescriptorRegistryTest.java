@@ -0,0 +1,100 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JoinPointDescriptorRegistryTest {
+
+    private static final String[] NAMES = { "testParam" };
+
+    @Mock
+    private ICoreParameterNameDiscoverer paramNameDiscoverer;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private MethodSignature signature;
+
+    private Method method;
+
+    private JoinPointDescriptorRegistry testClass;
+
+    @Before
+    public void init() throws Exception {
+        method = ITestEcho.class.getMethod("echo", String.class);
+
+        when(pjp.getSignature()).thenReturn(signature);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.getDeclaringTypeName()).thenReturn(ITestEcho.class.getName());
+        when(pjp.getTarget()).thenReturn(new TestEcho());
+        when(paramNameDiscoverer.getParamNames(method, TestEcho.class)).thenReturn(NAMES);
+
+        testClass = new JoinPointDescriptorRegistry(paramNameDiscoverer,
+                                                    new LoggingMethodSelector(new LoggingProperties()));
+    }
+
+    @Test
+    public void shouldResolveDescriptorOnce() {
+
+        final JoinPointDescriptor descriptor = testClass.getDescriptor(pjp);
+
+        assertSame(descriptor, testClass.getDescriptor(pjp));
+        assertSame(descriptor, testClass.getDescriptor(descriptor.getId()));
+
+        assertEquals(ITestEcho.class.getName(), descriptor.getClassName());
+        assertEquals("echo", descriptor.getMethodName());
+        assertEquals(TestEcho.class, descriptor.getTargetClass());
+        assertEquals(TestEcho.class.getName(), descriptor.getLogger().getName());
+        assertArrayEquals(NAMES, descriptor.getParamNames());
+
+        verify(paramNameDiscoverer, times(1)).getParamNames(method, TestEcho.class);
+    }
+
+    @Test
+    public void shouldKeepSeparateDescriptorsPerTargetClass() {
+
+        final JoinPointDescriptor first = testClass.getDescriptor(pjp);
+
+        when(pjp.getTarget()).thenReturn(new OtherEcho());
+
+        final JoinPointDescriptor second = testClass.getDescriptor(pjp);
+
+        assertNotSame(first, second);
+        assertEquals(OtherEcho.class, second.getTargetClass());
+        assertSame(second, testClass.getDescriptor(pjp));
+        assertEquals(2, testClass.getDescriptors().size());
+
+        when(pjp.getTarget()).thenReturn(new TestEcho());
+
+        assertSame(first, testClass.getDescriptor(pjp));
+    }
+
+    private static class OtherEcho implements ITestEcho {
+
+        @Override
+        public String echo(final String testParam) {
+            return testParam;
+        }
+    }
+}
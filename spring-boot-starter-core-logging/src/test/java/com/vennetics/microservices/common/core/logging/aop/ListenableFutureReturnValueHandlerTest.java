@@ -0,0 +1,70 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ListenableFutureReturnValueHandlerTest {
+
+    @Mock
+    private IProceedingJoinPointLogger pjpLogger;
+
+    @Mock
+    private Logger logger;
+
+    private JoinPointDescriptor descriptor;
+
+    private ListenableFutureReturnValueHandler testClass;
+
+    @Before
+    public void init() throws Exception {
+        descriptor = new JoinPointDescriptor(0,
+                                             CompletableFuture.class,
+                                             CompletableFuture.class.getMethod("completedFuture",
+                                                                               Object.class),
+                                             "Type Name",
+                                             null,
+                                             logger);
+        testClass = new ListenableFutureReturnValueHandler(new SlowCallPolicy(new LoggingProperties()));
+    }
+
+    @Test
+    public void shouldLogResultWhenCompletedLater() {
+        final SettableListenableFuture<String> future = new SettableListenableFuture<>();
+
+        assertSame(future,
+                   testClass.decorate(descriptor, future, null, pjpLogger, LogVerbosity.FULL, System.nanoTime()));
+        verifyZeroInteractions(pjpLogger);
+
+        future.set("result");
+
+        verify(pjpLogger).logFutureCompleted(eq(descriptor), eq("result"), anyLong());
+    }
+
+    @Test
+    public void shouldLogFailure() {
+        final RuntimeException exception = new RuntimeException("Test exception");
+        final SettableListenableFuture<String> future = new SettableListenableFuture<>();
+        testClass.decorate(descriptor, future, null, pjpLogger, LogVerbosity.FULL, System.nanoTime());
+
+        future.setException(exception);
+
+        verify(pjpLogger).logException(descriptor, exception);
+    }
+}
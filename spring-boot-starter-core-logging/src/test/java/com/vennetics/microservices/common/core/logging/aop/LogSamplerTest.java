@@ -0,0 +1,109 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.SamplingStrategy;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+public class LogSamplerTest {
+
+    private LoggingProperties properties;
+
+    private JoinPointDescriptor descriptor;
+
+    @Before
+    public void init() throws Exception {
+        final Method method = ITestEcho.class.getMethod("echo", String.class);
+        descriptor = new JoinPointDescriptor(0,
+                                             TestEcho.class,
+                                             method,
+                                             ITestEcho.class.getName(),
+                                             null,
+                                             LoggerFactory.getLogger(TestEcho.class));
+        properties = new LoggingProperties();
+    }
+
+    @Test
+    public void shouldSampleEverythingByDefault() {
+        final LogSampler testClass = new LogSampler(properties);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(testClass.sample(descriptor));
+        }
+        assertEquals(0, descriptor.getSamplingState().getSuppressed());
+    }
+
+    @Test
+    public void shouldSampleOneInN() {
+        properties.getSampling().setStrategy(SamplingStrategy.EVERY_NTH);
+        properties.getSampling().setEveryNth(5);
+        final LogSampler testClass = new LogSampler(properties);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i % 5 == 0, testClass.sample(descriptor));
+        }
+        assertEquals(4, descriptor.getSamplingState().getSampled());
+        assertEquals(16, descriptor.getSamplingState().getSuppressed());
+    }
+
+    @Test
+    public void shouldSampleWithProbability() {
+        properties.getSampling().setStrategy(SamplingStrategy.PROBABILISTIC);
+        properties.getSampling().setProbability(0);
+        final LogSampler testClass = new LogSampler(properties);
+
+        assertFalse(testClass.sample(descriptor));
+
+        properties.getSampling().setProbability(1);
+        assertTrue(new LogSampler(properties).sample(descriptor));
+    }
+
+    @Test
+    public void shouldLimitToBurstThenRate() {
+        properties.getSampling().setStrategy(SamplingStrategy.TOKEN_BUCKET);
+        properties.getSampling().setRatePerSecond(0.001);
+        properties.getSampling().setBurst(3);
+        final LogSampler testClass = new LogSampler(properties);
+
+        assertTrue(testClass.sample(descriptor));
+        assertTrue(testClass.sample(descriptor));
+        assertTrue(testClass.sample(descriptor));
+        assertFalse(testClass.sample(descriptor));
+        assertEquals(1, descriptor.getSamplingState().getSuppressed());
+    }
+
+    @Test
+    public void shouldOnlyLogBurstWithoutRate() {
+        properties.getSampling().setStrategy(SamplingStrategy.TOKEN_BUCKET);
+        properties.getSampling().setRatePerSecond(0);
+        properties.getSampling().setBurst(2);
+        final LogSampler testClass = new LogSampler(properties);
+
+        assertTrue(testClass.sample(descriptor));
+        assertTrue(testClass.sample(descriptor));
+        assertFalse(testClass.sample(descriptor));
+        assertFalse(testClass.sample(descriptor));
+        assertEquals(2, descriptor.getSamplingState().getSuppressed());
+    }
+
+    @Test
+    public void shouldRefillBucketOverTime() {
+        final SamplingState state = new SamplingState();
+        final long interval = 100;
+
+        assertTrue(state.tryAcquire(0, interval, interval));
+        assertFalse(state.tryAcquire(50, interval, interval));
+        assertTrue(state.tryAcquire(100, interval, interval));
+        assertTrue(state.tryAcquire(1000, interval, interval));
+    }
+}
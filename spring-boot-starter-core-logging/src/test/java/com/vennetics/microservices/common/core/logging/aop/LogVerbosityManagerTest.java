@@ -0,0 +1,102 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+public class LogVerbosityManagerTest {
+
+    private static final String PACKAGE = "com.vennetics.microservices.common.not.core.logging";
+
+    private LoggingProperties properties;
+
+    private JoinPointDescriptor descriptor;
+
+    private LogVerbosityManager testClass;
+
+    @Before
+    public void init() throws Exception {
+        final Method method = ITestEcho.class.getMethod("echo", String.class);
+        descriptor = new JoinPointDescriptor(0,
+                                             TestEcho.class,
+                                             method,
+                                             ITestEcho.class.getName(),
+                                             null,
+                                             LoggerFactory.getLogger(TestEcho.class));
+
+        properties = new LoggingProperties();
+        properties.setVerbosity(LogVerbosity.EXCEPTIONS);
+        properties.getLevels().put("com.vennetics", LogVerbosity.TIMING);
+
+        testClass = new LogVerbosityManager(properties);
+    }
+
+    @Test
+    public void shouldUseDefaultWhenNoLevelMatches() {
+        properties.getLevels().clear();
+        testClass.reset();
+
+        assertEquals(LogVerbosity.EXCEPTIONS, testClass.getVerbosity(descriptor));
+    }
+
+    @Test
+    public void shouldMatchEnclosingPackage() {
+        assertEquals(LogVerbosity.TIMING, testClass.getVerbosity(descriptor));
+    }
+
+    @Test
+    public void shouldPreferMostSpecificName() {
+        testClass.setLevel(PACKAGE, LogVerbosity.OFF);
+        assertEquals(LogVerbosity.OFF, testClass.getVerbosity(descriptor));
+
+        testClass.setLevel(TestEcho.class.getName(), LogVerbosity.EXCEPTIONS);
+        assertEquals(LogVerbosity.EXCEPTIONS, testClass.getVerbosity(descriptor));
+
+        testClass.setLevel(TestEcho.class.getName() + ".echo", LogVerbosity.FULL);
+        assertEquals(LogVerbosity.FULL, testClass.getVerbosity(descriptor));
+    }
+
+    @Test
+    public void shouldMatchDeclaringInterface() {
+        testClass.setLevel(ITestEcho.class.getName(), LogVerbosity.OFF);
+
+        assertEquals(LogVerbosity.OFF, testClass.getVerbosity(descriptor));
+    }
+
+    @Test
+    public void shouldCacheDecisionUntilLevelsChange() {
+
+        testClass.getVerbosity(descriptor);
+        final CachedVerbosity cached = descriptor.getCachedVerbosity();
+
+        testClass.getVerbosity(descriptor);
+        assertSame(cached, descriptor.getCachedVerbosity());
+
+        testClass.setDefaultVerbosity(LogVerbosity.FULL);
+        assertEquals(LogVerbosity.TIMING, testClass.getVerbosity(descriptor));
+
+        testClass.setLevel("com.vennetics", null);
+        assertEquals(LogVerbosity.FULL, testClass.getVerbosity(descriptor));
+    }
+
+    @Test
+    public void shouldResetToProperties() {
+        testClass.setLevel(PACKAGE, LogVerbosity.OFF);
+        testClass.setDefaultVerbosity(LogVerbosity.FULL);
+
+        testClass.reset();
+
+        assertEquals(LogVerbosity.EXCEPTIONS, testClass.getDefaultVerbosity());
+        assertEquals(LogVerbosity.TIMING, testClass.getVerbosity(descriptor));
+    }
+}
@@ -0,0 +1,109 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.NotLoggedTestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+public class LoggingMethodSelectorTest {
+
+    private LoggingProperties properties;
+
+    private Method echo;
+
+    @Before
+    public void init() throws Exception {
+        properties = new LoggingProperties();
+        echo = ITestEcho.class.getMethod("echo", String.class);
+    }
+
+    @Test
+    public void shouldSelectVenneticsMethodsByDefault() {
+        assertTrue(new LoggingMethodSelector(properties).isLogged(echo, TestEcho.class));
+    }
+
+    @Test
+    public void shouldNeverSelectLoggingPackage() throws Exception {
+        assertFalse(new LoggingMethodSelector(properties).isLogged(LogSampler.class.getMethod("sample",
+                                                                                               JoinPointDescriptor.class),
+                                                                   LogSampler.class));
+    }
+
+    @Test
+    public void shouldNotSelectMethodsOutsideVenneticsPackages() throws Exception {
+        assertFalse(new LoggingMethodSelector(properties).isLogged(Object.class.getMethod("toString"),
+                                                                   Object.class));
+    }
+
+    @Test
+    public void shouldApplyExcludePatterns() {
+        properties.getSelection().getExcludes().add("*.echo");
+
+        assertFalse(new LoggingMethodSelector(properties).isLogged(echo, TestEcho.class));
+    }
+
+    @Test
+    public void shouldOnlySelectIncludedWhenIncludesSet() {
+        properties.getSelection().getIncludes().add("com.vennetics.other.*");
+
+        assertFalse(new LoggingMethodSelector(properties).isLogged(echo, TestEcho.class));
+
+        properties.getSelection().getIncludes().add(TestEcho.class.getName() + ".*");
+
+        assertTrue(new LoggingMethodSelector(properties).isLogged(echo, TestEcho.class));
+    }
+
+    @Test
+    public void shouldPreferMethodAnnotationOverTypeAndPatterns() {
+        properties.getSelection().getExcludes().add("*.echo");
+
+        assertTrue(new LoggingMethodSelector(properties).isLogged(echo, NotLoggedTestEcho.class));
+    }
+
+    @Test
+    public void shouldNotSelectMethodsOfNotLoggedType() throws Exception {
+        assertFalse(new LoggingMethodSelector(properties).isLogged(NotLoggedTestEcho.class.getMethod("getName"),
+                                                                   NotLoggedTestEcho.class));
+    }
+
+    @Test
+    public void shouldOnlyAcceptCandidateClasses() {
+        final LoggingMethodSelector testClass = new LoggingMethodSelector(properties);
+
+        assertTrue(testClass.isCandidate(TestEcho.class));
+        assertFalse(testClass.isCandidate(LogSampler.class));
+        assertFalse(testClass.isCandidate(Object.class));
+        assertFalse(testClass.isCandidate(ArrayList.class));
+    }
+
+    @Test
+    public void shouldAcceptClassesFittingAnInclude() {
+        properties.getSelection().getIncludes().add("com.vennetics.other.*");
+
+        assertFalse(new LoggingMethodSelector(properties).isCandidate(TestEcho.class));
+
+        properties.getSelection().getIncludes().add(TestEcho.class.getName() + ".echo");
+
+        assertTrue(new LoggingMethodSelector(properties).isCandidate(TestEcho.class));
+
+        properties.getSelection().getIncludes().add("*.size");
+
+        assertTrue(new LoggingMethodSelector(properties).isCandidate(ArrayList.class));
+    }
+
+    @Test
+    public void shouldAcceptClassesWithLoggedMethods() {
+        properties.getSelection().getIncludes().add("com.vennetics.other.*");
+
+        assertTrue(new LoggingMethodSelector(properties).isCandidate(NotLoggedTestEcho.class));
+    }
+}
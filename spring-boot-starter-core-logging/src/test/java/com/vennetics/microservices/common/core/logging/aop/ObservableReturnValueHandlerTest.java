@@ -0,0 +1,164 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ObservableReturnValueHandlerTest {
+
+    @Mock
+    private IProceedingJoinPointLogger pjpLogger;
+
+    @Mock
+    private Logger logger;
+
+    private JoinPointDescriptor descriptor;
+
+    private ObservableReturnValueHandler testClass;
+
+    @Before
+    public void init() throws Exception {
+        descriptor = new JoinPointDescriptor(0,
+                                             Observable.class,
+                                             Observable.class.getMethod("empty"),
+                                             "Type Name",
+                                             null,
+                                             logger);
+        testClass = handler(new LoggingProperties());
+    }
+
+    @Test
+    public void shouldOnlySupportPlainObservableResults() throws Exception {
+        assertTrue(testClass.supports(descriptor, Observable.just("a")));
+        assertFalse(testClass.supports(descriptor, "a"));
+
+        final JoinPointDescriptor stringDescriptor = new JoinPointDescriptor(1,
+                                                                             String.class,
+                                                                             String.class.getMethod("valueOf",
+                                                                                                    Object.class),
+                                                                             "Type Name",
+                                                                             null,
+                                                                             logger);
+        assertFalse(testClass.supports(stringDescriptor, Observable.just("a")));
+    }
+
+    @Test
+    public void shouldNotSubscribeUntilCallerDoes() {
+        final AtomicInteger executions = new AtomicInteger();
+        final Observable<String> cold = Observable.defer(() -> {
+            executions.incrementAndGet();
+            return Observable.just("a");
+        });
+
+        final Observable<?> decorated = decorate(cold, LogVerbosity.FULL);
+
+        assertEquals(0, executions.get());
+        verifyZeroInteractions(pjpLogger);
+
+        decorated.subscribe(new TestSubscriber<>());
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void shouldCapRenderedItemsAndLogCompletion() {
+        final TestSubscriber<Object> subscriber = new TestSubscriber<>();
+
+        decorate(Observable.just("a", "b", "c"), LogVerbosity.FULL).subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Arrays.asList("a", "b", "c"));
+        verify(pjpLogger).logObservableItem(descriptor, 0L, "a");
+        verify(pjpLogger).logObservableItem(descriptor, 1L, "b");
+        verify(pjpLogger, never()).logObservableItem(descriptor, 2L, "c");
+        verify(pjpLogger).logObservableCompleted(eq(descriptor), eq(3L), anyLong(), anyLong());
+    }
+
+    @Test
+    public void shouldOnlyLogCompletionWhenTiming() {
+        decorate(Observable.just("a"), LogVerbosity.TIMING).subscribe(new TestSubscriber<>());
+
+        verify(pjpLogger, never()).logObservableItem(descriptor, 0L, "a");
+        verify(pjpLogger).logObservableCompleted(eq(descriptor), eq(1L), anyLong(), anyLong());
+    }
+
+    @Test
+    public void shouldLogAndPassOnErrors() {
+        final RuntimeException exception = new RuntimeException("Test exception");
+        final TestSubscriber<Object> subscriber = new TestSubscriber<>();
+
+        decorate(Observable.error(exception), LogVerbosity.EXCEPTIONS).subscribe(subscriber);
+
+        final List<Throwable> errors = subscriber.getOnErrorEvents();
+        assertEquals(Arrays.asList(exception), errors);
+        verify(pjpLogger).logException(descriptor, exception);
+        verify(pjpLogger, never()).logObservableCompleted(eq(descriptor), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void shouldStillDeliverWhenLoggingFails() {
+        final TestSubscriber<Object> subscriber = new TestSubscriber<>();
+        doThrow(new IllegalStateException()).when(pjpLogger).logObservableItem(descriptor, 0L, "a");
+
+        decorate(Observable.just("a"), LogVerbosity.FULL).subscribe(subscriber);
+
+        subscriber.assertReceivedOnNext(Arrays.asList("a"));
+        subscriber.assertTerminalEvent();
+    }
+
+    @Test
+    public void shouldNotLogFastCompletionWhenSlow() {
+        decorate(Observable.just("a"), LogVerbosity.SLOW).subscribe(new TestSubscriber<>());
+
+        verifyZeroInteractions(pjpLogger);
+    }
+
+    @Test
+    public void shouldLogSlowCompletionWhenSlow() {
+        final LoggingProperties properties = new LoggingProperties();
+        properties.getSlowCalls().setThresholdMillis(0);
+        testClass = handler(properties);
+
+        decorate(Observable.just("a"), LogVerbosity.SLOW).subscribe(new TestSubscriber<>());
+
+        verify(pjpLogger).logObservableCompleted(eq(descriptor), eq(1L), anyLong(), anyLong());
+        verify(pjpLogger, never()).logObservableItem(descriptor, 0L, "a");
+    }
+
+    private Observable<?> decorate(final Observable<?> observable, final LogVerbosity verbosity) {
+        return (Observable<?>) testClass.decorate(descriptor,
+                                                  observable,
+                                                  null,
+                                                  pjpLogger,
+                                                  verbosity,
+                                                  System.nanoTime());
+    }
+
+    private static ObservableReturnValueHandler handler(final LoggingProperties properties) {
+        properties.getDeferred().setMaxItems(2);
+        return new ObservableReturnValueHandler(properties, new SlowCallPolicy(properties));
+    }
+}
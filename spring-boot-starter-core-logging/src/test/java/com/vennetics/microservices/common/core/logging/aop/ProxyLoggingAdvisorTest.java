@@ -0,0 +1,71 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.aop.framework.ProxyFactory;
+
+import com.vennetics.microservices.common.core.logging.LoggingConstants;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.NotLoggedTestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProxyLoggingAdvisorTest {
+
+    @Mock
+    private CoreLoggerAdvice coreLoggerAdvice;
+
+    private ProxyLoggingAdvisor testClass;
+
+    @Before
+    public void init() {
+        final LoggingProperties properties = new LoggingProperties();
+        properties.getSelection().getExcludes().add("*.getName");
+        testClass = new ProxyLoggingAdvisor(coreLoggerAdvice, new LoggingMethodSelector(properties));
+    }
+
+    @Test
+    public void shouldBeInCorrectOrder() {
+        assertEquals(LoggingConstants.LOGGING_ADVICE_ORDER, testClass.getOrder());
+    }
+
+    @Test
+    public void shouldMatchSelectedMethodsWhenProxyCreated() throws Exception {
+        assertTrue(testClass.getPointcut()
+                            .getMethodMatcher()
+                            .matches(ITestEcho.class.getMethod("echo", String.class), TestEcho.class));
+        assertFalse(testClass.getPointcut()
+                             .getMethodMatcher()
+                             .matches(NotLoggedTestEcho.class.getMethod("getName"),
+                                      NotLoggedTestEcho.class));
+        assertFalse(testClass.getPointcut().getMethodMatcher().isRuntime());
+    }
+
+    @Test
+    public void shouldRejectClassesWithoutCandidateMethods() {
+        assertTrue(testClass.getPointcut().getClassFilter().matches(TestEcho.class));
+        assertFalse(testClass.getPointcut().getClassFilter().matches(Object.class));
+    }
+
+    @Test
+    public void shouldDelegateProxiedCallsToAdvice() throws Throwable {
+        when(coreLoggerAdvice.doLogging(any(ProceedingJoinPoint.class))).thenReturn("logged");
+
+        final ProxyFactory proxyFactory = new ProxyFactory(new TestEcho());
+        proxyFactory.addAdvisor(testClass);
+        final ITestEcho proxy = (ITestEcho) proxyFactory.getProxy();
+
+        assertEquals("logged", proxy.echo("testParam"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Logs through log4j2 configured by log4j2-test.xml to show when the backend
+ * renders the arguments the {@link StandardPjpLogger} hands it.
+ */
+public class StandardPjpLoggerFilterTest {
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    private final Object argument = new Object() {
+        @Override
+        public String toString() {
+            renders.incrementAndGet();
+            return "Value";
+        }
+    };
+
+    private JoinPointDescriptor descriptor;
+
+    private StandardPjpLogger testClass;
+
+    @Before
+    public void init() throws Exception {
+        descriptor = new JoinPointDescriptor(0,
+                                             String.class,
+                                             String.class.getMethod("valueOf", Object.class),
+                                             String.class.getName(),
+                                             new String[] { "value" },
+                                             LoggerFactory.getLogger(StandardPjpLoggerFilterTest.class));
+        testClass = new StandardPjpLogger(mock(ExceptionLogThrottle.class));
+    }
+
+    @After
+    public void cleanUp() {
+        MDC.clear();
+    }
+
+    @Test
+    public void shouldNotRenderEventDeniedByContextFilter() {
+
+        MDC.put("logging", "quiet");
+
+        testClass.logMethodEntry(descriptor, new Object[] { argument });
+        testClass.logMethodExit(descriptor, argument);
+
+        assertEquals(0, renders.get());
+    }
+
+    @Test
+    public void shouldRenderOnceEventCreatedForAppenders() {
+
+        // The appender filter denies the event but only after log4j2 has
+        // created the message, which formats the arguments
+        testClass.logMethodEntry(descriptor, new Object[] { argument });
+
+        assertEquals(1, renders.get());
+
+        testClass.logMethodExit(descriptor, argument);
+
+        assertEquals(2, renders.get());
+    }
+}
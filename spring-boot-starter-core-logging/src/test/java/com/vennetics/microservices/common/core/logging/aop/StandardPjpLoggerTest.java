@@ -2,13 +2,14 @@ package com.vennetics.microservices.common.core.logging.aop;
 
 import static com.vennetics.microservices.common.core.logging.LoggingConstants.INDENT;
 import static com.vennetics.microservices.common.core.logging.LoggingConstants.NEW_LINE;
-import static org.mockito.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasToString;
+import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.Signature;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -16,8 +17,6 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.slf4j.Logger;
 
-import rx.Observable;
-
 @RunWith(MockitoJUnitRunner.class)
 public class StandardPjpLoggerTest {
 
@@ -27,135 +26,212 @@ public class StandardPjpLoggerTest {
 
     private static final String PARAM_VALUE = "Value";
 
-    private static final String SIGNATURE_NAME = "signatureName";
+    private static final String SIGNATURE_NAME = "valueOf";
 
     private static final String MOCK_RETURN_VALUE = "returnValue";
 
-    private static final Observable<String> MOCK_OBSERVABLE_RETURN_VALUE = Observable.just("returnValue");
-
     private static final RuntimeException TEST_EXCEPTION = new RuntimeException("Test exception");
 
-    @Mock
-    private ICoreParameterNameDiscoverer paramNameDiscoverer;
-
     @Mock
     private Logger logger;
 
     @Mock
-    private Signature signature;
+    private ExceptionLogThrottle exceptionLogThrottle;
 
-    @Mock
-    private ProceedingJoinPoint pjp;
+    private JoinPointDescriptor descriptor;
 
     private StandardPjpLogger testClass;
 
     @Before
-    public void init() {
-        testClass = new StandardPjpLogger(paramNameDiscoverer);
+    public void init() throws Exception {
+        descriptor = new JoinPointDescriptor(0,
+                                             String.class,
+                                             String.class.getMethod(SIGNATURE_NAME, Object.class),
+                                             TYPE_NAME,
+                                             new String[] { PARAM_NAME },
+                                             logger);
+        testClass = new StandardPjpLogger(exceptionLogThrottle);
     }
 
     @Test
     public void shouldLogSigAndParamsOnEntry() {
 
-        when(pjp.getSignature()).thenReturn(signature);
-        when(signature.getDeclaringTypeName()).thenReturn(TYPE_NAME);
-
-        when(signature.getName()).thenReturn(SIGNATURE_NAME);
-        when(pjp.getArgs()).thenReturn(new String[] { PARAM_VALUE });
-        when(paramNameDiscoverer.getParamNames(pjp)).thenReturn(new String[] { PARAM_NAME });
-
-        testClass.logMethodEntry(logger, pjp);
+        testClass.logMethodEntry(descriptor, new String[] { PARAM_VALUE });
 
         verify(logger).debug(eq("{} >>> {}{}{}{}"),
                              eq(NEW_LINE),
                              eq(TYPE_NAME + "."),
                              eq(SIGNATURE_NAME),
-                             contains(PARAM_NAME + "=[" + PARAM_VALUE + "]"),
+                             argThat(hasToString(containsString(PARAM_NAME + "=[" + PARAM_VALUE + "]"))),
                              eq(NEW_LINE));
     }
 
     @Test
     public void shouldLogResultOnExit() {
 
-        when(pjp.getSignature()).thenReturn(signature);
-        when(signature.getDeclaringTypeName()).thenReturn(TYPE_NAME);
+        testClass.logMethodExit(descriptor, MOCK_RETURN_VALUE);
+
+        verify(logger).debug(eq("{} <<< {}{}{}{}result={}{}"),
+                             eq(NEW_LINE),
+                             eq(TYPE_NAME + "."),
+                             eq(SIGNATURE_NAME),
+                             eq(NEW_LINE),
+                             eq(INDENT),
+                             argThat(hasToString("<" + MOCK_RETURN_VALUE + ">")),
+                             eq(NEW_LINE));
+    }
 
-        when(signature.getName()).thenReturn(SIGNATURE_NAME);
-        when(pjp.getArgs()).thenReturn(new String[] { PARAM_VALUE });
-        when(paramNameDiscoverer.getParamNames(pjp)).thenReturn(new String[] { PARAM_NAME });
+    @Test
+    public void shouldLogObservableItem() {
 
-        testClass.logMethodExit(logger, pjp, MOCK_RETURN_VALUE);
+        testClass.logObservableItem(descriptor, 2L, MOCK_RETURN_VALUE);
 
-        verify(logger).debug(eq("{} <<< {}{}{}{}result={}{}"),
+        verify(logger).debug(eq("{} <<< {}{}{}{}observableResult[{}]={}{}"),
                              eq(NEW_LINE),
                              eq(TYPE_NAME + "."),
                              eq(SIGNATURE_NAME),
                              eq(NEW_LINE),
                              eq(INDENT),
-                             eq("<" + MOCK_RETURN_VALUE + ">"),
+                             eq(2L),
+                             argThat(hasToString("<" + MOCK_RETURN_VALUE + ">")),
                              eq(NEW_LINE));
     }
 
     @Test
-    public void shouldSubscribeAndLogObservableOnExit() {
+    public void shouldLogObservableCompletionInMicros() {
 
-        when(pjp.getSignature()).thenReturn(signature);
-        when(signature.getDeclaringTypeName()).thenReturn(TYPE_NAME);
+        testClass.logObservableCompleted(descriptor, 3L, 1500L, 2500000L);
 
-        when(signature.getName()).thenReturn(SIGNATURE_NAME);
-        when(pjp.getArgs()).thenReturn(new String[] { PARAM_VALUE });
-        when(paramNameDiscoverer.getParamNames(pjp)).thenReturn(new String[] { PARAM_NAME });
+        verify(logger).debug(eq("{} <<< {}.{} completed with {} items, first after {}us, took {}us{}"),
+                             eq(NEW_LINE),
+                             eq(TYPE_NAME),
+                             eq(SIGNATURE_NAME),
+                             eq(3L),
+                             eq(1L),
+                             eq(2500L),
+                             eq(NEW_LINE));
+    }
 
-        testClass.logMethodExit(logger, pjp, MOCK_OBSERVABLE_RETURN_VALUE);
+    @Test
+    public void shouldLogFutureResultAndLatency() {
 
-        verify(logger).debug(eq("{} <<< {}{}{}{}observableResult={}{}"),
+        testClass.logFutureCompleted(descriptor, MOCK_RETURN_VALUE, 2500000L);
+
+        verify(logger).debug(eq("{} <<< {}{} completed after {}us{}{}futureResult={}{}"),
                              eq(NEW_LINE),
                              eq(TYPE_NAME + "."),
                              eq(SIGNATURE_NAME),
+                             eq(2500L),
                              eq(NEW_LINE),
                              eq(INDENT),
-                             eq("<" + MOCK_RETURN_VALUE + ">"),
+                             argThat(hasToString("<" + MOCK_RETURN_VALUE + ">")),
                              eq(NEW_LINE));
     }
 
     @Test
     public void shouldLogMessageOnException() {
 
-        when(pjp.getSignature()).thenReturn(signature);
-        when(signature.getDeclaringTypeName()).thenReturn(TYPE_NAME);
-
-        when(signature.getName()).thenReturn(SIGNATURE_NAME);
-        when(pjp.getArgs()).thenReturn(new String[] { PARAM_VALUE });
-        when(paramNameDiscoverer.getParamNames(pjp)).thenReturn(new String[] { PARAM_NAME });
-
-        testClass.logException(logger, pjp, TEST_EXCEPTION);
+        testClass.logException(descriptor, TEST_EXCEPTION);
 
         verify(logger).debug(eq("{} <<< Exception in method: {}{} Error Message: {}{}"),
                              eq(NEW_LINE),
                              eq(TYPE_NAME + "."),
                              eq(SIGNATURE_NAME),
                              eq(TEST_EXCEPTION.getMessage()),
-                             eq(NEW_LINE));
+                             eq(NEW_LINE),
+                             eq(TEST_EXCEPTION));
     }
 
     @Test
-    public void shouldLogBlankException() {
+    public void shouldNotLogSuppressedException() {
+
+        when(exceptionLogThrottle.acquire(TEST_EXCEPTION, logger)).thenReturn(ExceptionLogThrottle.SUPPRESSED);
+
+        testClass.logException(descriptor, TEST_EXCEPTION);
+
+        verify(logger, never()).debug(eq("{} <<< Exception in method: {}{} Error Message: {}{}"),
+                                      eq(NEW_LINE),
+                                      eq(TYPE_NAME + "."),
+                                      eq(SIGNATURE_NAME),
+                                      eq(TEST_EXCEPTION.getMessage()),
+                                      eq(NEW_LINE),
+                                      eq(TEST_EXCEPTION));
+    }
+
+    @Test
+    public void shouldReportSuppressedCountBeforeException() {
+
+        when(exceptionLogThrottle.acquire(TEST_EXCEPTION, logger)).thenReturn(4L);
 
-        when(pjp.getSignature()).thenReturn(signature);
-        when(signature.getDeclaringTypeName()).thenReturn(TYPE_NAME);
+        testClass.logException(descriptor, TEST_EXCEPTION);
 
-        when(signature.getName()).thenReturn(SIGNATURE_NAME);
-        when(pjp.getArgs()).thenReturn(new String[] { PARAM_VALUE });
-        when(paramNameDiscoverer.getParamNames(pjp)).thenReturn(new String[] { PARAM_NAME });
+        verify(logger).debug(eq("{} <<< {} similar {} exceptions were not logged since the last was logged{}"),
+                             eq(NEW_LINE),
+                             eq(4L),
+                             eq(RuntimeException.class.getName()),
+                             eq(NEW_LINE));
+    }
 
-        testClass.logException(logger, pjp, new RuntimeException());
+    @Test
+    public void shouldLogBlankException() {
+
+        final RuntimeException exception = new RuntimeException();
+        testClass.logException(descriptor, exception);
 
         verify(logger).debug(eq("{} <<< Exception in method: {}{} Error Message: {}{}"),
                              eq(NEW_LINE),
                              eq(TYPE_NAME + "."),
                              eq(SIGNATURE_NAME),
                              eq("Blank message on exception type java.lang.RuntimeException"),
+                             eq(NEW_LINE),
+                             eq(exception));
+    }
+
+    @Test
+    public void shouldLogArgumentsResultAndTimeOfSlowCall() {
+
+        testClass.logSlowCall(descriptor, new String[] { PARAM_VALUE }, MOCK_RETURN_VALUE, null, 2500000L);
+
+        verify(logger).debug(eq("{} <<< {}{}{} took {}us{}{}result={}{}"),
+                             eq(NEW_LINE),
+                             eq(TYPE_NAME + "."),
+                             eq(SIGNATURE_NAME),
+                             argThat(hasToString(containsString(PARAM_NAME + "=[" + PARAM_VALUE + "]"))),
+                             eq(2500L),
+                             eq(NEW_LINE),
+                             eq(INDENT),
+                             argThat(hasToString("<" + MOCK_RETURN_VALUE + ">")),
                              eq(NEW_LINE));
     }
 
+    @Test
+    public void shouldLogArgumentsAndExceptionOfFailedSlowCall() {
+
+        testClass.logSlowCall(descriptor, new String[] { PARAM_VALUE }, null, TEST_EXCEPTION, 2500000L);
+
+        verify(logger).debug(eq("{} <<< {}{}{} failed after {}us{}{}Error Message: {}{}"),
+                             eq(NEW_LINE),
+                             eq(TYPE_NAME + "."),
+                             eq(SIGNATURE_NAME),
+                             argThat(hasToString(containsString(PARAM_NAME + "=[" + PARAM_VALUE + "]"))),
+                             eq(2500L),
+                             eq(NEW_LINE),
+                             eq(INDENT),
+                             eq(TEST_EXCEPTION.getMessage()),
+                             eq(NEW_LINE),
+                             eq(TEST_EXCEPTION));
+    }
+
+    @Test
+    public void shouldLogTimeInMicros() {
+
+        testClass.logMethodTime(descriptor, 2500000L);
+
+        verify(logger).debug(eq("{} <<< {}.{} took {}us{}"),
+                             eq(NEW_LINE),
+                             eq(TYPE_NAME),
+                             eq(SIGNATURE_NAME),
+                             eq(2500L),
+                             eq(NEW_LINE));
+    }
 }
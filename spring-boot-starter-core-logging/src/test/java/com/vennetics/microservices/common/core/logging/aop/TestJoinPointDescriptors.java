@@ -0,0 +1,26 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import java.lang.reflect.Method;
+
+import org.slf4j.Logger;
+
+/**
+ * Builds descriptors logging to a given logger for tests outside this
+ * package.
+ */
+public final class TestJoinPointDescriptors {
+
+    private TestJoinPointDescriptors() {
+    }
+
+    public static JoinPointDescriptor newDescriptor(final Method method,
+                                                    final String[] paramNames,
+                                                    final Logger logger) {
+        return new JoinPointDescriptor(0,
+                                       method.getDeclaringClass(),
+                                       method,
+                                       method.getDeclaringClass().getName(),
+                                       paramNames,
+                                       logger);
+    }
+}
@@ -0,0 +1,58 @@
+package com.vennetics.microservices.common.core.logging.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WovenLoggingAspectTest {
+
+    @Mock
+    private CoreLoggerAdvice coreLoggerAdvice;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    private final WovenLoggingAspect testClass = new WovenLoggingAspect();
+
+    @After
+    public void unbind() {
+        WovenLoggingAspect.bind(null);
+    }
+
+    @Test
+    public void shouldProceedUntilBound() throws Throwable {
+        when(pjp.proceed()).thenReturn("result");
+
+        assertEquals("result", testClass.doLogging(pjp));
+        verifyZeroInteractions(coreLoggerAdvice);
+    }
+
+    @Test
+    public void shouldDelegateToBoundAdvice() throws Throwable {
+        when(coreLoggerAdvice.doLogging(pjp)).thenReturn("logged");
+        WovenLoggingAspect.bind(coreLoggerAdvice);
+
+        assertEquals("logged", testClass.doLogging(pjp));
+    }
+
+    @Test
+    public void shouldBindAndUnbindWithContext() {
+        final WovenLoggingAspectBinder binder = new WovenLoggingAspectBinder(coreLoggerAdvice);
+
+        binder.bind();
+        assertSame(coreLoggerAdvice, WovenLoggingAspect.getBoundAdvice());
+
+        binder.unbind();
+        assertNull(WovenLoggingAspect.getBoundAdvice());
+    }
+}
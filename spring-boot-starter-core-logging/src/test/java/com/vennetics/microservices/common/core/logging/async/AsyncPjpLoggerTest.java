@@ -0,0 +1,140 @@
+package com.vennetics.microservices.common.core.logging.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.vennetics.microservices.common.core.logging.AsyncOverflowPolicy;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.ICoreParameterNameDiscoverer;
+import com.vennetics.microservices.common.core.logging.aop.IProceedingJoinPointLogger;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LoggingMethodSelector;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncPjpLoggerTest {
+
+    private static final Object[] ARGS = { "arg" };
+
+    @Mock
+    private IProceedingJoinPointLogger renderer;
+
+    private LoggingProperties properties;
+
+    private JoinPointDescriptor descriptor;
+
+    private AsyncPjpLogger testClass;
+
+    @Before
+    public void init() throws Exception {
+        properties = new LoggingProperties();
+        properties.getAsync().setBufferSize(4);
+        properties.getAsync().setOverflowPolicy(AsyncOverflowPolicy.DROP);
+
+        descriptor = newDescriptor();
+    }
+
+    @After
+    public void stop() throws InterruptedException {
+        if (testClass != null) {
+            testClass.stop();
+        }
+    }
+
+    @Test
+    public void shouldRenderOnBackgroundThread() {
+        testClass = new AsyncPjpLogger(renderer, properties);
+        testClass.start();
+
+        final RuntimeException exception = new RuntimeException("Test exception");
+
+        testClass.logMethodEntry(descriptor, ARGS);
+        testClass.logMethodExit(descriptor, "result");
+        testClass.logException(descriptor, exception);
+        testClass.logMethodTime(descriptor, 10L);
+
+        verify(renderer, timeout(5000)).logMethodEntry(descriptor, ARGS);
+        verify(renderer, timeout(5000)).logMethodExit(descriptor, "result");
+        verify(renderer, timeout(5000)).logException(descriptor, exception);
+        verify(renderer, timeout(5000)).logMethodTime(descriptor, 10L);
+    }
+
+    @Test
+    public void shouldDropAndCountWhenFull() {
+        testClass = new AsyncPjpLogger(renderer, properties);
+
+        for (int i = 0; i < 6; i++) {
+            testClass.logMethodEntry(descriptor, ARGS);
+        }
+
+        verifyZeroInteractions(renderer);
+        assertEquals(2, testClass.getDroppedEvents());
+        assertEquals(4, testClass.getPendingEvents());
+
+        assertEquals(4, testClass.drain());
+        assertEquals(0, testClass.getPendingEvents());
+        verify(renderer, times(4)).logMethodEntry(descriptor, ARGS);
+    }
+
+    @Test
+    public void shouldDropDetailWhenNearlyFull() {
+        properties.getAsync().setOverflowPolicy(AsyncOverflowPolicy.DROP_DETAIL);
+        testClass = new AsyncPjpLogger(renderer, properties);
+
+        for (int i = 0; i < 4; i++) {
+            testClass.logMethodEntry(descriptor, ARGS);
+        }
+
+        assertEquals(1, testClass.getDroppedDetails());
+
+        testClass.drain();
+
+        // The last entry is logged without its arguments
+        verify(renderer, times(3)).logMethodEntry(descriptor, ARGS);
+    }
+
+    @Test
+    public void shouldRenderObservableEvents() {
+        testClass = new AsyncPjpLogger(renderer, properties);
+
+        testClass.logObservableItem(descriptor, 0L, "result");
+        testClass.logObservableCompleted(descriptor, 1L, 5L, 10L);
+
+        verifyZeroInteractions(renderer);
+        assertEquals(2, testClass.drain());
+
+        verify(renderer).logObservableItem(descriptor, 0L, "result");
+        verify(renderer).logObservableCompleted(descriptor, 1L, 5L, 10L);
+    }
+
+    private static JoinPointDescriptor newDescriptor() throws Exception {
+        final Method method = ITestEcho.class.getMethod("echo", String.class);
+        final ProceedingJoinPoint pjp = mock(ProceedingJoinPoint.class);
+        final MethodSignature signature = mock(MethodSignature.class);
+        when(pjp.getSignature()).thenReturn(signature);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.getDeclaringTypeName()).thenReturn(ITestEcho.class.getName());
+        when(pjp.getTarget()).thenReturn(new TestEcho());
+
+        return new JoinPointDescriptorRegistry(mock(ICoreParameterNameDiscoverer.class),
+                                               new LoggingMethodSelector(new LoggingProperties())).getDescriptor(pjp);
+    }
+}
@@ -0,0 +1,85 @@
+package com.vennetics.microservices.common.core.logging.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class LogEventRingBufferTest {
+
+    @Test
+    public void shouldRoundCapacityUpToPowerOfTwo() {
+        assertEquals(8, new LogEventRingBuffer(5).getCapacity());
+        assertEquals(8, new LogEventRingBuffer(8).getCapacity());
+        assertEquals(2, new LogEventRingBuffer(0).getCapacity());
+    }
+
+    @Test
+    public void shouldReportFullWithoutBlocking() {
+        final LogEventRingBuffer testClass = new LogEventRingBuffer(2);
+
+        testClass.publish(testClass.claim());
+        testClass.publish(testClass.claim());
+
+        assertNull(testClass.claim());
+        assertEquals(2, testClass.size());
+    }
+
+    @Test
+    public void shouldOnlyPollPublishedEventsInOrder() {
+        final LogEventRingBuffer testClass = new LogEventRingBuffer(4);
+
+        final LogEvent first = testClass.claim();
+        final LogEvent second = testClass.claim();
+
+        testClass.publish(second);
+        assertNull(testClass.poll());
+
+        testClass.publish(first);
+        assertSame(first, testClass.poll());
+        testClass.release(first);
+        assertSame(second, testClass.poll());
+        testClass.release(second);
+        assertNull(testClass.poll());
+        assertEquals(0, testClass.size());
+    }
+
+    @Test
+    public void shouldDeliverEveryEventFromConcurrentProducers() throws Exception {
+        final LogEventRingBuffer testClass = new LogEventRingBuffer(1024);
+        final int producers = 4;
+        final int perProducer = 10000;
+        final AtomicInteger dropped = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    final LogEvent event = testClass.claim();
+                    if (event == null) {
+                        dropped.incrementAndGet();
+                    } else {
+                        event.setElapsedNanos(1);
+                        testClass.publish(event);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+
+        long consumed = 0;
+        while (done.getCount() > 0 || testClass.size() > 0) {
+            final LogEvent event = testClass.poll();
+            if (event != null) {
+                consumed += event.getElapsedNanos();
+                testClass.release(event);
+            }
+        }
+
+        assertEquals(producers * perProducer, consumed + dropped.get());
+    }
+}
@@ -0,0 +1,74 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.HotMethodDetector;
+import com.vennetics.microservices.common.core.logging.aop.ICoreParameterNameDiscoverer;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LoggingMethodSelector;
+
+public class HotMethodsEndpointTest {
+
+    private JoinPointDescriptor valueOfInt;
+
+    private JoinPointDescriptor valueOfLong;
+
+    private HotMethodsEndpoint endpoint;
+
+    private HotMethodsMvcEndpoint testClass;
+
+    @Before
+    public void init() throws Exception {
+        final LoggingProperties properties = new LoggingProperties();
+        properties.getHotMethods().setEnabled(true);
+
+        final JoinPointDescriptorRegistry registry = new JoinPointDescriptorRegistry(mock(ICoreParameterNameDiscoverer.class),
+                                                                                     mock(LoggingMethodSelector.class));
+        valueOfInt = registry.getDescriptor(String.class.getMethod("valueOf", int.class), String.class);
+        valueOfLong = registry.getDescriptor(String.class.getMethod("valueOf", long.class), String.class);
+
+        endpoint = new HotMethodsEndpoint(new HotMethodDetector(properties), registry);
+        testClass = new HotMethodsMvcEndpoint(endpoint);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldReportEachOverloadSeparately() {
+
+        testClass.demote("java.lang.String.valueOf(long)");
+
+        assertFalse(valueOfInt.getHotMethodState().isDemoted());
+        assertTrue(valueOfLong.getHotMethodState().isDemoted());
+
+        final Map<String, Object> methods = (Map<String, Object>) endpoint.invoke().get("methods");
+        assertEquals(2, methods.size());
+        assertEquals(false,
+                     ((Map<String, Object>) methods.get("java.lang.String.valueOf(int)")).get("demoted"));
+        assertEquals(true,
+                     ((Map<String, Object>) methods.get("java.lang.String.valueOf(long)")).get("demoted"));
+    }
+
+    @Test
+    public void shouldDemoteAndRestoreEveryOverloadByName() {
+
+        testClass.demote("java.lang.String.valueOf");
+
+        assertTrue(valueOfInt.getHotMethodState().isDemoted());
+        assertTrue(valueOfLong.getHotMethodState().isDemoted());
+
+        testClass.restore("java.lang.String.valueOf");
+
+        assertFalse(valueOfInt.getHotMethodState().isDemoted());
+        assertFalse(valueOfLong.getHotMethodState().isDemoted());
+    }
+}
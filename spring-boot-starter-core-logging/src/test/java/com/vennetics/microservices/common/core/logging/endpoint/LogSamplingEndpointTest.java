@@ -0,0 +1,53 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.SamplingStrategy;
+import com.vennetics.microservices.common.core.logging.aop.ICoreParameterNameDiscoverer;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LogSampler;
+import com.vennetics.microservices.common.core.logging.aop.LoggingMethodSelector;
+
+public class LogSamplingEndpointTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldReportEachOverloadSeparately() throws Exception {
+
+        final LoggingProperties properties = new LoggingProperties();
+        properties.getSampling().setStrategy(SamplingStrategy.EVERY_NTH);
+        properties.getSampling().setEveryNth(2);
+        final LogSampler logSampler = new LogSampler(properties);
+
+        final JoinPointDescriptorRegistry registry = new JoinPointDescriptorRegistry(mock(ICoreParameterNameDiscoverer.class),
+                                                                                     mock(LoggingMethodSelector.class));
+        final JoinPointDescriptor valueOfInt = registry.getDescriptor(String.class.getMethod("valueOf", int.class),
+                                                                      String.class);
+        final JoinPointDescriptor valueOfLong = registry.getDescriptor(String.class.getMethod("valueOf",
+                                                                                              long.class),
+                                                                       String.class);
+        logSampler.sample(valueOfInt);
+        logSampler.sample(valueOfLong);
+        logSampler.sample(valueOfLong);
+        logSampler.sample(valueOfLong);
+
+        final Map<String, Object> methods = (Map<String, Object>) new LogSamplingEndpoint(logSampler,
+                                                                                          registry).invoke()
+                                                                                                   .get("methods");
+
+        assertEquals(2, methods.size());
+        final Map<String, Long> intCounts = (Map<String, Long>) methods.get("java.lang.String.valueOf(int)");
+        final Map<String, Long> longCounts = (Map<String, Long>) methods.get("java.lang.String.valueOf(long)");
+        assertEquals(Long.valueOf(1), intCounts.get("sampled"));
+        assertEquals(Long.valueOf(0), intCounts.get("suppressed"));
+        assertEquals(Long.valueOf(2), longCounts.get("sampled"));
+        assertEquals(Long.valueOf(1), longCounts.get("suppressed"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.vennetics.microservices.common.core.logging.LogVerbosity;
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LogVerbosityManager;
+
+public class LogVerbosityMvcEndpointTest {
+
+    private LogVerbosityManager verbosityManager;
+
+    private LogVerbosityMvcEndpoint testClass;
+
+    @Before
+    public void init() {
+        verbosityManager = new LogVerbosityManager(new LoggingProperties());
+        testClass = new LogVerbosityMvcEndpoint(new LogVerbosityEndpoint(verbosityManager,
+                                                                         new JoinPointDescriptorRegistry(null, null)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldSetAndRemoveLevels() {
+
+        final Map<String, Object> result = (Map<String, Object>) testClass.set("com.vennetics",
+                                                                               "timing");
+
+        assertEquals(LogVerbosity.TIMING, ((Map<String, Object>) result.get("levels")).get("com.vennetics"));
+
+        testClass.remove("com.vennetics");
+
+        assertTrue(verbosityManager.getLevels().isEmpty());
+    }
+
+    @Test
+    public void shouldSetDefaultAndReset() {
+
+        testClass.set(LogVerbosityMvcEndpoint.DEFAULT, "OFF");
+
+        assertEquals(LogVerbosity.OFF, verbosityManager.getDefaultVerbosity());
+
+        testClass.set(LogVerbosityMvcEndpoint.RESET, null);
+
+        assertEquals(LogVerbosity.FULL, verbosityManager.getDefaultVerbosity());
+    }
+
+    @Test
+    public void shouldRejectUnknownVerbosity() {
+
+        final ResponseEntity<?> response = (ResponseEntity<?>) testClass.set("com.vennetics",
+                                                                             "loud");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+}
@@ -0,0 +1,73 @@
+package com.vennetics.microservices.common.core.logging.endpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import com.vennetics.microservices.common.core.logging.aop.ICoreParameterNameDiscoverer;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LoggingMethodSelector;
+import com.vennetics.microservices.common.core.logging.metrics.LatencyRecorder;
+
+public class MethodLatencyEndpointTest {
+
+    private static final String VALUE_OF_INT = "java.lang.String.valueOf(int)";
+
+    private static final String VALUE_OF_LONG = "java.lang.String.valueOf(long)";
+
+    private LatencyRecorder latencyRecorder;
+
+    @Before
+    public void init() throws Exception {
+        final JoinPointDescriptorRegistry registry = new JoinPointDescriptorRegistry(mock(ICoreParameterNameDiscoverer.class),
+                                                                                     mock(LoggingMethodSelector.class));
+        final JoinPointDescriptor valueOfInt = registry.getDescriptor(String.class.getMethod("valueOf", int.class),
+                                                                      String.class);
+        final JoinPointDescriptor valueOfLong = registry.getDescriptor(String.class.getMethod("valueOf",
+                                                                                              long.class),
+                                                                       String.class);
+
+        latencyRecorder = new LatencyRecorder();
+        latencyRecorder.afterInvocation(valueOfInt, TimeUnit.MILLISECONDS.toNanos(1), null);
+        latencyRecorder.afterInvocation(valueOfLong, TimeUnit.MILLISECONDS.toNanos(2), null);
+        latencyRecorder.afterInvocation(valueOfLong, TimeUnit.MILLISECONDS.toNanos(2), new RuntimeException());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldReportEachOverloadSeparately() {
+
+        final Map<String, Object> methods = new MethodLatencyEndpoint(latencyRecorder).invoke();
+
+        assertEquals(2, methods.size());
+        final Map<String, Long> valueOfInt = (Map<String, Long>) methods.get(VALUE_OF_INT);
+        final Map<String, Long> valueOfLong = (Map<String, Long>) methods.get(VALUE_OF_LONG);
+        assertEquals(Long.valueOf(1), valueOfInt.get("count"));
+        assertEquals(Long.valueOf(0), valueOfInt.get("errors"));
+        assertEquals(Long.valueOf(2), valueOfLong.get("count"));
+        assertEquals(Long.valueOf(1), valueOfLong.get("errors"));
+    }
+
+    @Test
+    public void shouldPublishEachOverloadSeparately() {
+
+        final Map<String, Number> metrics = new HashMap<>();
+        for (final Metric<?> metric : new MethodLatencyPublicMetrics(latencyRecorder).metrics()) {
+            assertNull(metric.getName(), metrics.put(metric.getName(), metric.getValue()));
+        }
+
+        assertEquals(12, metrics.size());
+        assertEquals(1L, metrics.get("latency." + VALUE_OF_INT + ".count"));
+        assertEquals(2L, metrics.get("latency." + VALUE_OF_LONG + ".count"));
+        assertEquals(1L, metrics.get("latency." + VALUE_OF_LONG + ".errors"));
+    }
+}
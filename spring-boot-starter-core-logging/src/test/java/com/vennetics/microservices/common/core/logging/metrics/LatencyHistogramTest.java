@@ -0,0 +1,76 @@
+package com.vennetics.microservices.common.core.logging.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldMapEveryValueIntoABucketContainingIt() {
+        int previous = -1;
+        for (long value = 0; value < 1 << 16; value++) {
+            final int index = LatencyHistogram.bucketIndex(value);
+            assertTrue("index must not decrease at " + value, index >= previous);
+            assertTrue("bucket too low for " + value,
+                       LatencyHistogram.bucketUpperBound(index) >= value);
+            if (index > 0) {
+                assertTrue("bucket too high for " + value,
+                           LatencyHistogram.bucketUpperBound(index - 1) < value);
+            }
+            previous = index;
+        }
+    }
+
+    @Test
+    public void shouldBoundRelativeError() {
+        for (long value = 1; value < LatencyHistogram.MAX_TRACKABLE_NANOS; value = value * 3 + 7) {
+            final long upper = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+            assertTrue("error too large at " + value, (upper - value) <= value / 15);
+        }
+    }
+
+    @Test
+    public void shouldClampLargeValues() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE, false);
+        histogram.record(-5, false);
+
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_NANOS, snapshot.getMaxNanos());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_NANOS, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void shouldReportPercentilesAndErrors() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L, i % 100 == 0);
+        }
+
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(10, snapshot.getErrors());
+        assertEquals(1000000, snapshot.getMaxNanos());
+        assertEquals(500500, snapshot.getMeanNanos());
+        assertWithin(500000, snapshot.getValueAtPercentile(50));
+        assertWithin(990000, snapshot.getValueAtPercentile(99));
+        assertWithin(999000, snapshot.getValueAtPercentile(99.9));
+    }
+
+    @Test
+    public void shouldReportZeroWhenEmpty() {
+        final LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMeanNanos());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        assertTrue("expected about " + expected + " but was " + actual,
+                   actual >= expected && actual <= expected + expected / 15);
+    }
+}
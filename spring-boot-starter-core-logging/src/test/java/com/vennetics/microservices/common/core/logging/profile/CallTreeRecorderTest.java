@@ -0,0 +1,132 @@
+package com.vennetics.microservices.common.core.logging.profile;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.ICoreParameterNameDiscoverer;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LoggingMethodSelector;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+public class CallTreeRecorderTest {
+
+    private static final long MICROS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final List<String> emitted = new ArrayList<>();
+
+    private LoggingProperties properties;
+
+    private JoinPointDescriptor outer;
+
+    private JoinPointDescriptor inner;
+
+    private JoinPointDescriptor leaf;
+
+    @Before
+    public void init() throws Exception {
+        final JoinPointDescriptorRegistry registry = new JoinPointDescriptorRegistry(mock(ICoreParameterNameDiscoverer.class),
+                                                                                     mock(LoggingMethodSelector.class));
+        outer = registry.getDescriptor(ITestEcho.class.getMethod("echo", String.class), TestEcho.class);
+        inner = registry.getDescriptor(Object.class.getMethod("toString"), TestEcho.class);
+        leaf = registry.getDescriptor(Object.class.getMethod("hashCode"), TestEcho.class);
+        properties = new LoggingProperties();
+    }
+
+    @Test
+    public void shouldEmitOneTreeWhenOutermostCallReturns() {
+        final CallTreeRecorder testClass = recorder();
+
+        testClass.beforeInvocation(outer);
+        testClass.beforeInvocation(inner);
+        testClass.afterInvocation(inner, 300 * MICROS, null);
+        testClass.beforeInvocation(inner);
+        testClass.beforeInvocation(leaf);
+        testClass.afterInvocation(leaf, 100 * MICROS, new IllegalStateException());
+        testClass.afterInvocation(inner, 200 * MICROS, null);
+        assertEquals(0, emitted.size());
+        testClass.afterInvocation(outer, 1000 * MICROS, null);
+
+        assertEquals(1, emitted.size());
+        assertEquals(outer + " 1000/500us [" + inner + " x2 500/400us [" + leaf + "! 100/100us]]",
+                     emitted.get(0));
+    }
+
+    @Test
+    public void shouldStartNewTreeForNextOutermostCall() {
+        final CallTreeRecorder testClass = recorder();
+
+        testClass.beforeInvocation(outer);
+        testClass.afterInvocation(outer, 10 * MICROS, null);
+        testClass.beforeInvocation(inner);
+        testClass.afterInvocation(inner, 20 * MICROS, null);
+
+        assertEquals(2, emitted.size());
+        assertEquals(inner + " 20/20us", emitted.get(1));
+    }
+
+    @Test
+    public void shouldNotEmitFastTrees() {
+        properties.getCallTree().setThresholdMillis(1);
+        final CallTreeRecorder testClass = recorder();
+
+        testClass.beforeInvocation(outer);
+        testClass.afterInvocation(outer, 999 * MICROS, null);
+
+        assertEquals(0, emitted.size());
+    }
+
+    @Test
+    public void shouldCountCallsBeyondLimitsAgainstParent() {
+        properties.getCallTree().setMaxNodes(2);
+        properties.getCallTree().setMaxDepth(2);
+        final CallTreeRecorder testClass = recorder();
+
+        testClass.beforeInvocation(outer);
+        testClass.beforeInvocation(inner);
+        testClass.beforeInvocation(leaf);
+        testClass.afterInvocation(leaf, 100 * MICROS, null);
+        testClass.afterInvocation(inner, 200 * MICROS, null);
+        testClass.beforeInvocation(leaf);
+        testClass.afterInvocation(leaf, 300 * MICROS, null);
+        testClass.afterInvocation(outer, 1000 * MICROS, null);
+
+        assertEquals(outer + " 1000/800us [" + inner + " 200/200us] untracked=2", emitted.get(0));
+    }
+
+    @Test
+    public void shouldKeepTimeOfCallsBeyondMaxNodesInSelfTime() {
+        properties.getCallTree().setMaxNodes(2);
+        final CallTreeRecorder testClass = recorder();
+
+        testClass.beforeInvocation(outer);
+        testClass.beforeInvocation(inner);
+        testClass.beforeInvocation(leaf);
+        testClass.afterInvocation(leaf, 100 * MICROS, null);
+        testClass.afterInvocation(inner, 400 * MICROS, null);
+        testClass.beforeInvocation(leaf);
+        testClass.afterInvocation(leaf, 300 * MICROS, null);
+        testClass.afterInvocation(outer, 1000 * MICROS, null);
+
+        assertEquals(outer + " 1000/600us [" + inner + " 400/400us] untracked=2", emitted.get(0));
+    }
+
+    private CallTreeRecorder recorder() {
+        return new CallTreeRecorder(properties) {
+
+            @Override
+            void emit(final CallTree tree) {
+                emitted.add(tree + (tree.getUntracked() > 0 ? " untracked=" + tree.getUntracked() : ""));
+            }
+        };
+    }
+}
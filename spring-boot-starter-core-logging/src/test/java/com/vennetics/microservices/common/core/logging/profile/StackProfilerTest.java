@@ -0,0 +1,99 @@
+package com.vennetics.microservices.common.core.logging.profile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.ICoreParameterNameDiscoverer;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LoggingMethodSelector;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+public class StackProfilerTest {
+
+    private static final long MICROS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private LoggingProperties properties;
+
+    private JoinPointDescriptor api;
+
+    private JoinPointDescriptor dao;
+
+    private JoinPointDescriptor cache;
+
+    @Before
+    public void init() throws Exception {
+        final JoinPointDescriptorRegistry registry = new JoinPointDescriptorRegistry(mock(ICoreParameterNameDiscoverer.class),
+                                                                                     mock(LoggingMethodSelector.class));
+        api = registry.getDescriptor(ITestEcho.class.getMethod("echo", String.class), TestEcho.class);
+        dao = registry.getDescriptor(Object.class.getMethod("toString"), TestEcho.class);
+        cache = registry.getDescriptor(Object.class.getMethod("hashCode"), TestEcho.class);
+        properties = new LoggingProperties();
+    }
+
+    @Test
+    public void shouldCollapseSelfTimePerStack() {
+        final StackProfiler testClass = new StackProfiler(properties);
+
+        for (int i = 0; i < 2; i++) {
+            testClass.beforeInvocation(api);
+            testClass.beforeInvocation(dao);
+            testClass.beforeInvocation(cache);
+            testClass.afterInvocation(cache, 10 * MICROS, null);
+            testClass.afterInvocation(dao, 100 * MICROS, null);
+            testClass.beforeInvocation(cache);
+            testClass.afterInvocation(cache, 20 * MICROS, null);
+            testClass.afterInvocation(api, 200 * MICROS, null);
+        }
+
+        assertEquals(Arrays.asList(api + " 160",
+                                   api + ";" + cache + " 40",
+                                   api + ";" + dao + " 180",
+                                   api + ";" + dao + ";" + cache + " 20"),
+                     testClass.getCollapsedStacks(StackProfiler.Measure.TIME));
+        assertEquals(Arrays.asList(api + " 2",
+                                   api + ";" + cache + " 2",
+                                   api + ";" + dao + " 2",
+                                   api + ";" + dao + ";" + cache + " 2"),
+                     testClass.getCollapsedStacks(StackProfiler.Measure.CALLS));
+    }
+
+    @Test
+    public void shouldAttributeUntrackedCallsToCaller() {
+        properties.getStackProfile().setMaxStacks(2);
+        properties.getStackProfile().setMaxDepth(2);
+        final StackProfiler testClass = new StackProfiler(properties);
+
+        testClass.beforeInvocation(api);
+        testClass.beforeInvocation(dao);
+        testClass.beforeInvocation(cache);
+        testClass.afterInvocation(cache, 10 * MICROS, null);
+        testClass.afterInvocation(dao, 100 * MICROS, null);
+        testClass.beforeInvocation(cache);
+        testClass.afterInvocation(cache, 20 * MICROS, null);
+        testClass.afterInvocation(api, 200 * MICROS, null);
+
+        assertEquals(Arrays.asList(api + " 100", api + ";" + dao + " 100"),
+                     testClass.getCollapsedStacks(StackProfiler.Measure.TIME));
+    }
+
+    @Test
+    public void shouldDiscardProfileOnReset() {
+        final StackProfiler testClass = new StackProfiler(properties);
+
+        testClass.beforeInvocation(api);
+        testClass.afterInvocation(api, 200 * MICROS, null);
+        testClass.reset();
+
+        assertTrue(testClass.getCollapsedStacks(StackProfiler.Measure.CALLS).isEmpty());
+    }
+}
@@ -0,0 +1,145 @@
+package com.vennetics.microservices.common.core.logging.recorder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.ICoreParameterNameDiscoverer;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LoggingMethodSelector;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+public class FlightRecorderTest {
+
+    private static final long MICROS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final List<Throwable> dumped = new ArrayList<>();
+
+    private LoggingProperties properties;
+
+    private JoinPointDescriptorRegistry registry;
+
+    private JoinPointDescriptor outer;
+
+    private JoinPointDescriptor inner;
+
+    @Before
+    public void init() throws Exception {
+        final ICoreParameterNameDiscoverer discoverer = mock(ICoreParameterNameDiscoverer.class);
+        when(discoverer.getParamNames(ITestEcho.class.getMethod("echo", String.class),
+                                      TestEcho.class)).thenReturn(new String[] { "password" });
+        registry = new JoinPointDescriptorRegistry(discoverer, mock(LoggingMethodSelector.class));
+        outer = registry.getDescriptor(Object.class.getMethod("toString"), TestEcho.class);
+        inner = registry.getDescriptor(ITestEcho.class.getMethod("echo", String.class), TestEcho.class);
+        properties = new LoggingProperties();
+    }
+
+    @Test
+    public void shouldRecordNestedCallsOldestFirst() {
+        final FlightRecorder testClass = recorder();
+
+        call(testClass, outer, () -> call(testClass, inner, null, 100 * MICROS), 300 * MICROS);
+
+        final List<FlightRecord> records = testClass.snapshot().get(Thread.currentThread().getName());
+        assertEquals(2, records.size());
+        assertEquals(inner.getId(), records.get(0).getDescriptorId());
+        assertEquals(1, records.get(0).getDepth());
+        assertEquals(100 * MICROS, records.get(0).getElapsedNanos());
+        assertEquals(outer.getId(), records.get(1).getDescriptorId());
+        assertEquals(0, records.get(1).getDepth());
+        assertTrue(testClass.render(records.get(0)).endsWith(inner + " 100us"));
+    }
+
+    @Test
+    public void shouldKeepOnlyTheLastInvocations() {
+        properties.getFlightRecorder().setSize(3);
+        final FlightRecorder testClass = recorder();
+
+        for (int i = 1; i <= 5; i++) {
+            call(testClass, outer, null, i * MICROS);
+        }
+
+        final List<FlightRecord> records = testClass.snapshot().get(Thread.currentThread().getName());
+        assertEquals(3, records.size());
+        assertEquals(3 * MICROS, records.get(0).getElapsedNanos());
+        assertEquals(5 * MICROS, records.get(2).getElapsedNanos());
+    }
+
+    @Test
+    public void shouldDumpOnceWhenExceptionEscapesOutermostCall() {
+        final FlightRecorder testClass = recorder();
+        final RuntimeException failure = new RuntimeException("failed");
+
+        testClass.beforeInvocation(outer, null);
+        testClass.beforeInvocation(inner, null);
+        testClass.afterInvocation(inner, MICROS, failure);
+        assertTrue(dumped.isEmpty());
+        testClass.afterInvocation(outer, MICROS, failure);
+
+        testClass.beforeInvocation(outer, null);
+        testClass.afterInvocation(outer, MICROS, failure);
+
+        assertEquals(1, dumped.size());
+        assertEquals(failure, dumped.get(0));
+        final List<FlightRecord> records = testClass.snapshot().get(Thread.currentThread().getName());
+        assertTrue(records.get(0).isFailed());
+        assertTrue(testClass.render(records.get(0)).contains("! " + inner));
+    }
+
+    @Test
+    public void shouldDigestArgumentsWithoutProtectedNames() {
+        properties.getFlightRecorder().setArgumentDigests(true);
+        final FlightRecorder testClass = recorder();
+        assertTrue(testClass.isArgumentsRequired());
+
+        assertEquals(FlightRecorder.digest(inner, new Object[] { "secret" }),
+                     FlightRecorder.digest(inner, new Object[] { "other" }));
+        assertNotEquals(FlightRecorder.digest(outer, new Object[] { "a", 1 }),
+                        FlightRecorder.digest(outer, new Object[] { "a", 2 }));
+
+        testClass.beforeInvocation(outer, new Object[] { "a" });
+        testClass.afterInvocation(outer, MICROS, null);
+
+        final FlightRecord record = testClass.snapshot().get(Thread.currentThread().getName()).get(0);
+        assertEquals(FlightRecorder.digest(outer, new Object[] { "a" }), record.getDigest());
+    }
+
+    @Test
+    public void shouldNotRequireArgumentsByDefault() {
+        assertFalse(recorder().isArgumentsRequired());
+    }
+
+    private void call(final FlightRecorder testClass,
+                      final JoinPointDescriptor descriptor,
+                      final Runnable body,
+                      final long elapsedNanos) {
+        testClass.beforeInvocation(descriptor, null);
+        if (body != null) {
+            body.run();
+        }
+        testClass.afterInvocation(descriptor, elapsedNanos, null);
+    }
+
+    private FlightRecorder recorder() {
+        return new FlightRecorder(registry, properties) {
+
+            @Override
+            void dump(final ThreadFlightLog log, final Throwable failure) {
+                dumped.add(failure);
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.vennetics.microservices.common.core.logging.structured;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vennetics.microservices.common.core.logging.StructuredLogFormat;
+import com.vennetics.microservices.common.core.logging.aop.ICoreParameterNameDiscoverer;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptorRegistry;
+import com.vennetics.microservices.common.core.logging.aop.LoggingMethodSelector;
+import com.vennetics.microservices.common.core.logging.utils.PasswordProtectingLogUtils;
+import com.vennetics.microservices.common.core.logging.utils.RenderingLimits;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+import com.vennetics.microservices.common.not.core.logging.TestEcho;
+
+public class StructuredEventWriterTest {
+
+    private static final String CLASS_NAME = ITestEcho.class.getName();
+
+    private JoinPointDescriptor descriptor;
+
+    @Before
+    public void init() throws Exception {
+        final Method method = ITestEcho.class.getMethod("echo", String.class);
+        final ICoreParameterNameDiscoverer discoverer = mock(ICoreParameterNameDiscoverer.class);
+        when(discoverer.getParamNames(any(Method.class), any(Class.class))).thenReturn(new String[] { "text",
+                                                                                                       "password" });
+        final JoinPointDescriptorRegistry registry = new JoinPointDescriptorRegistry(discoverer,
+                                                                                     mock(LoggingMethodSelector.class));
+        descriptor = registry.getDescriptor(method, TestEcho.class);
+    }
+
+    @After
+    public void tearDown() {
+        PasswordProtectingLogUtils.setRenderingLimits(RenderingLimits.DEFAULT);
+    }
+
+    @Test
+    public void shouldEncodeEntryAsJson() {
+        final StructuredEventWriter testClass = new StructuredEventWriter(StructuredLogFormat.JSON);
+
+        final String line = testClass.begin("entry", descriptor)
+                                     .arguments(descriptor.getParamNames(), new Object[] { "hello", "hunter2" })
+                                     .end(1024);
+
+        assertEquals("{\"event\":\"entry\",\"class\":\"" + CLASS_NAME
+                     + "\",\"method\":\"echo\",\"args\":{\"text\":\"hello\",\"password\":\"<*protected*>\"}}",
+                     line);
+        assertFalse(testClass.isInUse());
+    }
+
+    @Test
+    public void shouldEncodeExitAsKeyValue() {
+        final StructuredEventWriter testClass = new StructuredEventWriter(StructuredLogFormat.KEY_VALUE);
+
+        final String line = testClass.begin("slow", descriptor)
+                                     .arguments(descriptor.getParamNames(), new Object[] { null, null })
+                                     .value("result", "done")
+                                     .field("micros", 42)
+                                     .end(1024);
+
+        assertEquals("event=\"slow\" class=\"" + CLASS_NAME
+                     + "\" method=\"echo\" args.text=null args.password=null result=\"done\" micros=42",
+                     line);
+    }
+
+    @Test
+    public void shouldEscapeValuesOntoOneLine() {
+        final StructuredEventWriter testClass = new StructuredEventWriter(StructuredLogFormat.JSON);
+
+        final String line = testClass.begin("exit", descriptor)
+                                     .field("message", "say \"hi\"\r\n\tto C:\\ \u0001\u2028")
+                                     .end(1024);
+
+        assertTrue(line, line.endsWith(",\"message\":\"say \\\"hi\\\"\\r\\n\\tto C:\\\\ \\u0001\\u2028\"}"));
+    }
+
+    @Test
+    public void shouldStopRenderingArgumentsOverLineLength() {
+        PasswordProtectingLogUtils.setRenderingLimits(new RenderingLimits(100, 5, 10, 16));
+        final StructuredEventWriter testClass = new StructuredEventWriter(StructuredLogFormat.JSON);
+
+        final String line = testClass.begin("entry", descriptor)
+                                     .arguments(descriptor.getParamNames(), new Object[] { "hello world", "x" })
+                                     .end(1024);
+
+        assertTrue(line, line.endsWith(",\"more\":1}}"));
+    }
+
+    @Test
+    public void shouldReuseBuffersUnlessTooLarge() {
+        final StructuredEventWriter testClass = new StructuredEventWriter(StructuredLogFormat.JSON);
+        final int initial = testClass.getCapacity();
+
+        testClass.begin("exit", descriptor).field("message", text(1000)).end(4096);
+        final int grown = testClass.getCapacity();
+        assertTrue(grown > initial);
+
+        final String reused = testClass.begin("exit", descriptor).field("message", "short").end(4096);
+        assertTrue(reused, reused.endsWith("\"message\":\"short\"}"));
+        assertEquals(grown, testClass.getCapacity());
+
+        final String large = testClass.begin("exit", descriptor).field("message", text(5000)).end(4096);
+        assertTrue(large.length() > 5000);
+        assertEquals(initial, testClass.getCapacity());
+    }
+
+    @Test
+    public void shouldReleaseWriterWhenRenderingFails() {
+        final StructuredEventWriter testClass = new StructuredEventWriter(StructuredLogFormat.JSON);
+        final RuntimeException failure = new IllegalStateException();
+        final Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw failure;
+            }
+        };
+
+        testClass.begin("exit", descriptor);
+        assertTrue(testClass.isInUse());
+        try {
+            testClass.value("result", broken);
+
+            fail("Expected IllegalStateException");
+
+        } catch (final IllegalStateException e) {
+            assertSame(failure, e);
+        }
+        assertFalse(testClass.isInUse());
+    }
+
+    private static String text(final int length) {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append('x');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.vennetics.microservices.common.core.logging.structured;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+
+import com.vennetics.microservices.common.core.logging.LoggingProperties;
+import com.vennetics.microservices.common.core.logging.aop.ExceptionLogThrottle;
+import com.vennetics.microservices.common.core.logging.aop.JoinPointDescriptor;
+import com.vennetics.microservices.common.core.logging.aop.TestJoinPointDescriptors;
+import com.vennetics.microservices.common.not.core.logging.ITestEcho;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StructuredPjpLoggerTest {
+
+    private static final String CLASS_NAME = ITestEcho.class.getName();
+
+    private static final RuntimeException TEST_EXCEPTION = new IllegalStateException("Test exception");
+
+    @Mock
+    private Logger logger;
+
+    @Mock
+    private ExceptionLogThrottle exceptionLogThrottle;
+
+    private JoinPointDescriptor descriptor;
+
+    private StructuredPjpLogger testClass;
+
+    @Before
+    public void init() throws Exception {
+        descriptor = TestJoinPointDescriptors.newDescriptor(ITestEcho.class.getMethod("echo", String.class),
+                                                            new String[] { "text" },
+                                                            logger);
+        testClass = new StructuredPjpLogger(exceptionLogThrottle, new LoggingProperties());
+    }
+
+    @Test
+    public void shouldLogExceptionWithSuppressedCount() {
+
+        when(exceptionLogThrottle.acquire(TEST_EXCEPTION, logger)).thenReturn(3L);
+
+        testClass.logException(descriptor, TEST_EXCEPTION);
+
+        verify(logger).debug("{\"event\":\"exception\",\"class\":\"" + CLASS_NAME
+                             + "\",\"method\":\"echo\",\"exception\":\"java.lang.IllegalStateException\""
+                             + ",\"message\":\"Test exception\",\"suppressed\":3}",
+                             TEST_EXCEPTION);
+    }
+
+    @Test
+    public void shouldNotLogThrottledException() {
+
+        when(exceptionLogThrottle.acquire(TEST_EXCEPTION, logger)).thenReturn(ExceptionLogThrottle.SUPPRESSED);
+
+        testClass.logException(descriptor, TEST_EXCEPTION);
+        testClass.logSlowCall(descriptor, new Object[] { "hello" }, null, TEST_EXCEPTION, 0L);
+
+        verify(logger, never()).debug(anyString(), eq(TEST_EXCEPTION));
+    }
+
+    @Test
+    public void shouldLogSlowCallFailureWithArguments() {
+
+        testClass.logSlowCall(descriptor,
+                              new Object[] { "hello" },
+                              null,
+                              TEST_EXCEPTION,
+                              TimeUnit.MILLISECONDS.toNanos(2));
+
+        verify(logger).debug("{\"event\":\"slow\",\"class\":\"" + CLASS_NAME
+                             + "\",\"method\":\"echo\",\"args\":{\"text\":\"hello\"}"
+                             + ",\"exception\":\"java.lang.IllegalStateException\""
+                             + ",\"message\":\"Test exception\",\"micros\":2000}",
+                             TEST_EXCEPTION);
+    }
+
+    @Test
+    public void shouldLogEventsRenderedWhileRenderingAnother() {
+
+        // An argument whose toString is itself advised, as with a logged DAO
+        final Object reentrant = new Object() {
+            @Override
+            public String toString() {
+                testClass.logMethodExit(descriptor, "inner");
+                return "outer";
+            }
+        };
+
+        testClass.logMethodEntry(descriptor, new Object[] { reentrant });
+
+        verify(logger).debug("{\"event\":\"exit\",\"class\":\"" + CLASS_NAME
+                             + "\",\"method\":\"echo\",\"result\":\"inner\"}");
+        verify(logger).debug("{\"event\":\"entry\",\"class\":\"" + CLASS_NAME
+                             + "\",\"method\":\"echo\",\"args\":{\"text\":\"outer\"}}");
+    }
+}
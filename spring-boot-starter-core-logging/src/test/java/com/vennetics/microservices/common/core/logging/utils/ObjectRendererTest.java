@@ -0,0 +1,222 @@
+package com.vennetics.microservices.common.core.logging.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ObjectRendererTest {
+
+    private final Set<String> excluded = new HashSet<>(Arrays.asList("password"));
+
+    private final SensitiveNameRedactor redactor = new SensitiveNameRedactor(excluded, "***");
+
+    private ObjectRenderer testClass = new ObjectRenderer(excluded,
+                                                          redactor,
+                                                          RenderingLimits.DEFAULT,
+                                                          Collections.emptyList());
+
+    /**
+     * Most derived class first, dropping static, transient and excluded
+     * fields.
+     */
+    @Test
+    public void shouldRenderFieldsLikeReflectionToStringBuilder() {
+        final Child child = new Child("bob", "secret value", 3);
+
+        assertEquals(identity(child) + "[age=3,extra=<null>,name=bob]", render(child));
+    }
+
+    @Test
+    public void shouldRedactStringFieldValues() {
+        final Child child = new Child("/x?password=abc&y=1", "p", 1);
+
+        assertTrue(render(child).contains("name=/x?password=***&y=1"));
+    }
+
+    @Test
+    public void shouldRenderNestedObjectsAndArrays() {
+        final Child inner = new Child("inner", "p", 1);
+        final Child outer = new Child("outer", "p", 2);
+        outer.extra = new Object[] { inner, 4, null };
+
+        assertEquals(identity(outer) + "[age=2,extra={" + identity(inner)
+                     + "[age=1,extra=<null>,name=inner],4,<null>},name=outer]",
+                     render(outer));
+    }
+
+    @Test
+    public void shouldStopAtCycles() {
+        final Child child = new Child("loop", "p", 1);
+        child.extra = child;
+
+        assertEquals(identity(child) + "[age=1,extra=" + identity(child) + ",name=loop]",
+                     render(child));
+    }
+
+    @Test
+    public void shouldLimitDepth() {
+        Child child = new Child("leaf", "p", 0);
+        for (int i = 1; i <= ObjectRenderer.MAX_DEPTH + 2; i++) {
+            final Child parent = new Child("level", "p", i);
+            parent.extra = child;
+            child = parent;
+        }
+
+        final String rendered = render(child);
+        assertFalse(rendered.contains("leaf"));
+        assertEquals(ObjectRenderer.MAX_DEPTH + 1, rendered.split("\\[age=").length - 1);
+    }
+
+    @Test
+    public void shouldTrustTopLevelToString() {
+        assertTrue(testClass.isToStringImplemented(Integer.class));
+        assertFalse(testClass.isToStringImplemented(Child.class));
+        assertEquals("password=abc", render(new Object() {
+
+            @Override
+            public String toString() {
+                return "password=abc";
+            }
+        }));
+    }
+
+    @Test
+    public void shouldCapValueLength() {
+        limit(new RenderingLimits(10, 100, 50, 32));
+
+        assertEquals("0123456789" + ObjectRenderer.TRUNCATED, render("0123456789abcdef"));
+        assertEquals("short", render("short"));
+    }
+
+    @Test
+    public void shouldCapValuesSharingALine() {
+        limit(new RenderingLimits(100, 100, 50, 32));
+
+        final StringBuilder builder = new StringBuilder("prefix:");
+        testClass.append(builder, repeat('x', 20), 12);
+
+        assertEquals("prefix:xxxxx" + ObjectRenderer.TRUNCATED, builder.toString());
+    }
+
+    @Test
+    public void shouldLimitElements() {
+        limit(new RenderingLimits(1000, 1000, 2, 32));
+
+        assertEquals("[a, b,...(3 more)]", render(Arrays.asList("a", "b", "c", "d", "e")));
+        assertEquals("{1,2,...(1 more)}", render(new int[] { 1, 2, 3 }));
+
+        final Map<String, String> map = new LinkedHashMap<>();
+        map.put("password", "abc");
+        map.put("user", "bob");
+        map.put("other", "x");
+        assertEquals("{password=***, user=bob,...(1 more)}", render(map));
+    }
+
+    @Test
+    public void shouldRenderByteArraysAsLengthAndHexPrefix() {
+        limit(new RenderingLimits(1000, 1000, 50, 3));
+
+        assertEquals("byte[4]{0aff10...}", render(new byte[] { 10, -1, 16, 0 }));
+        assertEquals("byte[1]{7f}", render(new byte[] { 127 }));
+    }
+
+    @Test
+    public void shouldStopRenderingLargeCollectionsAtTheLimit() {
+        limit(new RenderingLimits(20, 1000, 100000, 32));
+        final List<String> large = Collections.nCopies(100000, "element");
+
+        final String rendered = render(large);
+
+        assertEquals(20 + ObjectRenderer.TRUNCATED.length(), rendered.length());
+    }
+
+    @Test
+    public void shouldPreferRegisteredTypeRenderers() {
+        testClass = new ObjectRenderer(excluded,
+                                       redactor,
+                                       RenderingLimits.DEFAULT,
+                                       Arrays.asList(new ITypeRenderer<Parent>() {
+
+                                           @Override
+                                           public Class<Parent> getType() {
+                                               return Parent.class;
+                                           }
+
+                                           @Override
+                                           public void render(final StringBuilder builder,
+                                                              final Parent value) {
+                                               builder.append("parent:").append(value.name);
+                                           }
+                                       }));
+
+        assertEquals("parent:bob", render(new Child("bob", "p", 1)));
+        assertEquals("[parent:ann]", render(Arrays.asList(new Parent("ann", "p"))));
+    }
+
+    @Test
+    public void shouldAppendNullAsNull() {
+        assertEquals("null", render(null));
+    }
+
+    private String render(final Object value) {
+        final StringBuilder builder = new StringBuilder();
+        testClass.append(builder, value);
+        return builder.toString();
+    }
+
+    private void limit(final RenderingLimits limits) {
+        testClass = new ObjectRenderer(excluded, redactor, limits, Collections.emptyList());
+    }
+
+    private static String repeat(final char c, final int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static String identity(final Object value) {
+        return value.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(value));
+    }
+
+    private static class Parent {
+
+        @SuppressWarnings("unused")
+        private static final String IGNORED = "static";
+
+        private final String name;
+
+        @SuppressWarnings("unused")
+        private final String password;
+
+        Parent(final String name, final String password) {
+            this.name = name;
+            this.password = password;
+        }
+    }
+
+    private static final class Child extends Parent {
+
+        @SuppressWarnings("unused")
+        private final int age;
+
+        @SuppressWarnings("unused")
+        private transient String cache = "transient";
+
+        private Object extra;
+
+        Child(final String name, final String password, final int age) {
+            super(name, password);
+            this.age = age;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
 public class PasswordProtectingLogUtilsTest {
@@ -58,6 +60,32 @@ public class PasswordProtectingLogUtilsTest {
 
     }
 
+    @Test
+    public void shouldExcludeAuthorizationAndEveryMatchingField() {
+
+        assertEquals("/x?password=<*protected*>&Authorization=<*protected*>&name=bob",
+                     PasswordProtectingLogUtils.excludeFieldNames("/x?password=a&Authorization=Bearer abc&name=bob"));
+        assertEquals("<*protected*>",
+                     PasswordProtectingLogUtils.paramValueToString("Authorization", "Basic abc"));
+
+    }
+
+    @Test
+    public void shouldUseReplacedFieldNames() {
+
+        try {
+            PasswordProtectingLogUtils.setExcludedFieldNames(Arrays.asList("pin"));
+
+            assertEquals("<*protected*>", PasswordProtectingLogUtils.paramValueToString("pin", "1234"));
+            assertEquals("test", PasswordProtectingLogUtils.paramValueToString("password", "test"));
+            assertEquals("pin=<*protected*>&password=abc",
+                         PasswordProtectingLogUtils.excludeFieldNames("pin=1234&password=abc"));
+        } finally {
+            PasswordProtectingLogUtils.setExcludedFieldNames(PasswordProtectingLogUtils.DEFAULT_EXCLUDED_FIELD_NAMES);
+        }
+
+    }
+
     @Test
     public void shouldFilterPasswordsWhenUsingReflection() {
 
@@ -0,0 +1,55 @@
+package com.vennetics.microservices.common.core.logging.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class SensitiveNameRedactorTest {
+
+    private final SensitiveNameRedactor testClass = new SensitiveNameRedactor(Arrays.asList("password",
+                                                                                            "secret",
+                                                                                            "client_secret",
+                                                                                            ""),
+                                                                              "***");
+
+    @Test
+    public void shouldReturnSameInstanceWhenNothingToRedact() {
+        final String content = "/path?user=bob&count=3";
+        assertSame(content, testClass.redact(content));
+        assertNull(testClass.redact(null));
+        assertEquals("=x", testClass.redact("=x"));
+    }
+
+    @Test
+    public void shouldRedactEveryPairUpToTheNextAmpersand() {
+        assertEquals("/path?password=***&user=bob&client_secret=***",
+                     testClass.redact("/path?password=abc=d&user=bob&client_secret=xyz"));
+    }
+
+    @Test
+    public void shouldMatchNamesEndingWithASensitiveName() {
+        assertEquals("j_password=***&mysecret=***&secrets=x",
+                     testClass.redact("j_password=a&mysecret=b&secrets=x"));
+    }
+
+    @Test
+    public void shouldBeCaseSensitive() {
+        assertEquals("PASSWORD=abc", testClass.redact("PASSWORD=abc"));
+    }
+
+    @Test
+    public void shouldRedactEmptyAndTrailingValues() {
+        assertEquals("password=***&", testClass.redact("password=&"));
+        assertEquals("a=b&secret=***", testClass.redact("a=b&secret=c"));
+    }
+
+    @Test
+    public void shouldRedactAfterALeadingSeparatorOrEmptyName() {
+        assertEquals("=x&password=***", testClass.redact("=x&password=secret"));
+        assertEquals("a=1&=x&secret=***", testClass.redact("a=1&=x&secret=y"));
+    }
+}
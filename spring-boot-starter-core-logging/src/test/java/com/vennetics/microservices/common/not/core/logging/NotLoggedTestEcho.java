@@ -0,0 +1,27 @@
+package com.vennetics.microservices.common.not.core.logging;
+
+import com.vennetics.microservices.common.core.logging.Logged;
+import com.vennetics.microservices.common.core.logging.NotLogged;
+
+/**
+ * For test purposes in logging AOP only. Not logged apart from the method
+ * annotated to be.
+ */
+@NotLogged
+public class NotLoggedTestEcho implements ITestEcho {
+
+    @Override
+    @Logged
+    public String echo(final String testParam) {
+
+        return "Echo:" + testParam;
+
+    }
+
+    public String getName() {
+
+        return "name";
+
+    }
+
+}
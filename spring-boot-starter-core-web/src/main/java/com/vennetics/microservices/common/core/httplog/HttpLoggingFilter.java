@@ -1,47 +1,83 @@
 package com.vennetics.microservices.common.core.httplog;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpServletResponseWrapper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.filter.CommonsRequestLoggingFilter;
 
+/**
+ * Logs each request once its response is complete, with the status, the
+ * response size and the latency from the start of the request.
+ * <P>
+ * State is kept in a request attribute so it follows the request across
+ * async dispatches. When a request goes async, servlet or Spring MVC, logging
+ * is deferred to an {@link AsyncListener} so it happens when the async
+ * request completes rather than when the first thread leaves the filter.
+ */
 public class HttpLoggingFilter extends CommonsRequestLoggingFilter {
 
+    /**
+     * Request attribute holding the {@link RequestLogState}.
+     */
+    public static final String STATE_ATTRIBUTE = HttpLoggingFilter.class.getName() + ".STATE";
+
     @SuppressWarnings({"hiding" , "squid:S2387"})
     private static final Logger logger = LoggerFactory.getLogger(HttpLoggingFilter.class.getName());
-    
-    private ThreadLocal<HttpServletResponseWrapper> threadLocalResponseWrapper = new ThreadLocal<>();
-    
+
+    private int maxResponseCopyBytes = ServletOutputStreamCopier.DEFAULT_MAX_COPY_BYTES;
+
     public HttpLoggingFilter() {
         super();
     }
 
+    /**
+     * @param maxResponseCopyBytes
+     *            bytes of each response body kept for logging, the rest is
+     *            passed through uncopied.
+     */
+    public void setMaxResponseCopyBytes(final int maxResponseCopyBytes) {
+        this.maxResponseCopyBytes = maxResponseCopyBytes;
+    }
+
+    public int getMaxResponseCopyBytes() {
+        return maxResponseCopyBytes;
+    }
+
     @Override
     protected void doFilterInternal(final HttpServletRequest request,
                                     final HttpServletResponse response,
                                     final FilterChain filterChain) throws ServletException, IOException {
-        
-        HttpServletResponseWrapper wrapper = new HttpServletResponseCopier(response);
-        
-        threadLocalResponseWrapper.set(wrapper);
+
+        // Async dispatches carry on with the state of the original request
+        RequestLogState state = getState(request);
+        if (state == null) {
+            state = new RequestLogState(new HttpServletResponseCopier(response, maxResponseCopyBytes),
+                                        System.nanoTime());
+            request.setAttribute(STATE_ATTRIBUTE, state);
+        }
+
         try {
-            
-            super.doFilterInternal(request, wrapper, filterChain);
-            
+
+            super.doFilterInternal(request, state.getResponse(), filterChain);
+
         } finally {
-            
-            threadLocalResponseWrapper.remove();
-            
+
+            if (request.isAsyncStarted() && shouldLog(request)) {
+                deferToCompletion(request, state);
+            }
+
         }
     }
-    
+
     @Override
     protected void beforeRequest(final HttpServletRequest request, final String message) {
         // do nothing
@@ -49,19 +85,160 @@ public class HttpLoggingFilter extends CommonsRequestLoggingFilter {
 
     @Override
     protected void afterRequest(final HttpServletRequest request, final String message) {
-        String debugMessage = message;
-        
+        final RequestLogState state = getState(request);
+
+        if (state != null && (request.isAsyncStarted() || state.isAsync())) {
+            // Logged by the async listener once the response is complete
+            state.setMessage(message);
+            if (request.isAsyncStarted()) {
+                deferToCompletion(request, state);
+            }
+            return;
+        }
+
+        logCompleted(request, message, state);
+    }
+
+    /**
+     * Register the completion listener the first time a request goes async.
+     */
+    private void deferToCompletion(final HttpServletRequest request, final RequestLogState state) {
+        if (!state.isAsync()) {
+            state.setAsync(true);
+            request.getAsyncContext().addListener(new CompletionListener(request, state));
+        }
+    }
+
+    private void logCompleted(final HttpServletRequest request,
+                              final String message,
+                              final RequestLogState state) {
+
         // this logs the request
-        super.afterRequest(request, debugMessage);
+        super.afterRequest(request, message);
+
+        if (state == null) {
+            return;
+        }
+
+        afterResponse(request,
+                      message,
+                      state.getResponse().getStatus(),
+                      state.getResponse().getBytesWritten(),
+                      System.nanoTime() - state.getStartNanos());
+    }
+
+    /**
+     * Called once the response is complete, after the request has been
+     * logged. Logs the response with its httpStatus code, size and latency.
+     *
+     * @param request
+     * @param message
+     *            the after request message.
+     * @param status
+     * @param responseBytes
+     *            size of the response body.
+     * @param latencyNanos
+     *            time from the start of the request.
+     */
+    protected void afterResponse(final HttpServletRequest request,
+                                 final String message,
+                                 final int status,
+                                 final long responseBytes,
+                                 final long latencyNanos) {
+        logger.debug("{}httpStatus={};responseBytes={};latencyMicros={};",
+                     message,
+                     status,
+                     responseBytes,
+                     TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    }
+
+    private static RequestLogState getState(final HttpServletRequest request) {
+        final Object state = request.getAttribute(STATE_ATTRIBUTE);
+        return state instanceof RequestLogState ? (RequestLogState) state : null;
+    }
+
+    /**
+     * Logs an async request once it completes, whether normally, after an
+     * error or after a timeout.
+     */
+    private final class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+
+        private final RequestLogState state;
+
+        CompletionListener(final HttpServletRequest request, final RequestLogState state) {
+            this.request = request;
+            this.state = state;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            String message = state.getMessage();
+            if (message == null) {
+                // Completed without a dispatch back through the filter
+                message = createMessage(request, DEFAULT_AFTER_MESSAGE_PREFIX, DEFAULT_AFTER_MESSAGE_SUFFIX);
+            }
+            logCompleted(request, message, state);
+        }
 
-        if (threadLocalResponseWrapper.get() != null) {
-        
-            debugMessage += "httpStatus=" + threadLocalResponseWrapper.get().getStatus();
-        
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // Listeners are dropped when async is restarted
+            event.getAsyncContext().addListener(this);
         }
-        
-        // this logs the response with httpStatus code
-        logger.debug(message);
     }
 
+    /**
+     * What the filter needs to log a request, kept with the request.
+     */
+    static final class RequestLogState {
+
+        private final HttpServletResponseCopier response;
+
+        private final long startNanos;
+
+        private volatile boolean async;
+
+        private volatile String message;
+
+        RequestLogState(final HttpServletResponseCopier response, final long startNanos) {
+            this.response = response;
+            this.startNanos = startNanos;
+        }
+
+        HttpServletResponseCopier getResponse() {
+            return response;
+        }
+
+        long getStartNanos() {
+            return startNanos;
+        }
+
+        boolean isAsync() {
+            return async;
+        }
+
+        void setAsync(final boolean async) {
+            this.async = async;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        void setMessage(final String message) {
+            this.message = message;
+        }
+    }
 }
@@ -13,8 +13,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * HTTP servlet response wrapper that keeps a copy of the response for logging
- * purposes.
+ * HTTP servlet response wrapper that keeps a copy of the start of the
+ * response for logging purposes.
  */
 public class HttpServletResponseCopier extends HttpServletResponseWrapper {
 
@@ -26,10 +26,22 @@ public class HttpServletResponseCopier extends HttpServletResponseWrapper {
     private PrintWriter writer;
     private ServletOutputStreamCopier copier;
 
+    private final int maxCopyBytes;
+
     private static final int HTTP_STATUS_REDIRECT_FOUND = 302;
 
     public HttpServletResponseCopier(final HttpServletResponse response) {
+        this(response, ServletOutputStreamCopier.DEFAULT_MAX_COPY_BYTES);
+    }
+
+    /**
+     * @param response
+     * @param maxCopyBytes
+     *            bytes of the body kept, the rest is passed through uncopied.
+     */
+    public HttpServletResponseCopier(final HttpServletResponse response, final int maxCopyBytes) {
         super(response);
+        this.maxCopyBytes = maxCopyBytes;
     }
 
     // Override to set the status to 302 as spring class doesn't do this
@@ -66,7 +78,7 @@ public class HttpServletResponseCopier extends HttpServletResponseWrapper {
     }
 
     private ServletOutputStreamCopier getServletOutputStreamCopier() {
-        return new ServletOutputStreamCopier(outputStream);
+        return new ServletOutputStreamCopier(outputStream, maxCopyBytes);
     }
 
     @Override
@@ -76,7 +88,7 @@ public class HttpServletResponseCopier extends HttpServletResponseWrapper {
         }
 
         if (writer == null) {
-            copier = new ServletOutputStreamCopier(getResponse().getOutputStream());
+            copier = new ServletOutputStreamCopier(getResponse().getOutputStream(), maxCopyBytes);
             writer = new PrintWriter(new OutputStreamWriter(copier,
                                                             getResponse().getCharacterEncoding()),
                                      true);
@@ -107,11 +119,25 @@ public class HttpServletResponseCopier extends HttpServletResponseWrapper {
     }
 
     /**
-     * @return the body as a string.
+     * @return the total size of the body, including any bytes not copied.
+     */
+    public long getBytesWritten() {
+        if (copier != null) {
+            return copier.getBytesWritten();
+        }
+        return 0;
+    }
+
+    /**
+     * @return the copied start of the body as a string.
      */
     public String getResponseBody(final String encoding) {
+        final String charset = encoding != null ? encoding : "UTF-8";
         try {
-            return new String(getCopy(), encoding != null ? encoding : "UTF-8");
+            if (copier != null) {
+                return copier.getCopyAsString(charset);
+            }
+            return new String(getCopy(), charset);
         } catch (final UnsupportedEncodingException e) {
             logger.warn("{} encoding failure in request body", encoding, e);
             return FAILED_TO_BUFFER;
@@ -1,48 +1,177 @@
 package com.vennetics.microservices.common.core.httplog;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.WriteListener;
 
 /**
- * Implementation of a servlet output stream that keeps a copy of all data
+ * Implementation of a servlet output stream that keeps a copy of the data
  * written to it. The copy can be used for operational purposes such as
  * debugging logs.
  * <P>
- * Not recommended in production code for performance reasons.
+ * Only the first bytes up to the capture limit are copied, the rest pass
+ * straight through to the underlying stream. Writes are passed on in bulk.
+ * <P>
+ * When the underlying stream is a container stream, readiness and write
+ * listeners are delegated to it so Servlet 3.1 non-blocking writes work
+ * through the copier. Bytes are captured as they are written either way.
  */
 public class ServletOutputStreamCopier extends ServletOutputStream {
 
+    /**
+     * Bytes captured when no limit is given.
+     */
+    public static final int DEFAULT_MAX_COPY_BYTES = 8192;
+
     private static final int BYTE_ARRAY_SIZE = 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+
     private final OutputStream outputStream;
-    private final ByteArrayOutputStream copy;
+
+    /**
+     * The underlying stream if it is a container stream, otherwise null.
+     */
+    private final ServletOutputStream servletOutputStream;
+
+    private final int maxCopyBytes;
+
+    private byte[] copy = EMPTY;
+
+    private int copied;
+
+    private long written;
 
     public ServletOutputStreamCopier(final OutputStream outputStream) {
+        this(outputStream, DEFAULT_MAX_COPY_BYTES);
+    }
+
+    /**
+     * @param outputStream
+     * @param maxCopyBytes
+     *            bytes captured before the rest are passed through uncopied.
+     */
+    public ServletOutputStreamCopier(final OutputStream outputStream, final int maxCopyBytes) {
         this.outputStream = outputStream;
-        copy = new ByteArrayOutputStream(BYTE_ARRAY_SIZE);
+        if (outputStream instanceof ServletOutputStream) {
+            this.servletOutputStream = (ServletOutputStream) outputStream;
+        } else {
+            this.servletOutputStream = null;
+        }
+        this.maxCopyBytes = Math.max(0, maxCopyBytes);
     }
 
     @Override
     public void write(final int b) throws IOException {
         outputStream.write(b);
-        copy.write(b);
+        written++;
+        if (copied < maxCopyBytes) {
+            ensureCapacity(copied + 1);
+            copy[copied++] = (byte) b;
+        }
     }
 
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        outputStream.write(b, off, len);
+        written += len;
+        final int captured = Math.min(len, maxCopyBytes - copied);
+        if (captured > 0) {
+            ensureCapacity(copied + captured);
+            System.arraycopy(b, off, copy, copied, captured);
+            copied += captured;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        outputStream.close();
+    }
+
+    /**
+     * @return a copy of the captured bytes.
+     */
     public byte[] getCopy() {
-        return copy.toByteArray();
+        return Arrays.copyOf(copy, copied);
+    }
+
+    /**
+     * @return a read only view of the captured bytes without copying them.
+     *         Only valid until the next write.
+     */
+    public ByteBuffer getCopyView() {
+        return ByteBuffer.wrap(copy, 0, copied).asReadOnlyBuffer();
     }
 
+    /**
+     * Decode the captured bytes without an intermediate copy.
+     *
+     * @param encoding
+     * @return the captured bytes as a string.
+     * @throws UnsupportedEncodingException
+     */
+    public String getCopyAsString(final String encoding) throws UnsupportedEncodingException {
+        return new String(copy, 0, copied, encoding);
+    }
+
+    /**
+     * @return the total number of bytes written, including those not
+     *         captured.
+     */
+    public long getBytesWritten() {
+        return written;
+    }
+
+    /**
+     * @return true if more was written than was captured.
+     */
+    public boolean isTruncated() {
+        return written > copied;
+    }
+
+    /**
+     * @return the readiness of a container stream. Other streams block so are
+     *         always ready.
+     */
     @Override
     public boolean isReady() {
-        return false;
+        if (servletOutputStream != null) {
+            return servletOutputStream.isReady();
+        }
+        return true;
     }
 
+    /**
+     * Register the listener with a container stream. Other streams are always
+     * ready so the listener is told at once.
+     */
     @Override
     public void setWriteListener(final WriteListener writeListener) {
-        //do nothing
+        if (servletOutputStream != null) {
+            servletOutputStream.setWriteListener(writeListener);
+            return;
+        }
+        try {
+            writeListener.onWritePossible();
+        } catch (final IOException e) {
+            writeListener.onError(e);
+        }
     }
 
+    private void ensureCapacity(final int required) {
+        if (required > copy.length) {
+            final int grown = Math.max(required, Math.max(BYTE_ARRAY_SIZE, copy.length * 2));
+            copy = Arrays.copyOf(copy, Math.min(grown, maxCopyBytes));
+        }
+    }
 }
@@ -1,38 +1,45 @@
 package com.vennetics.microservices.common.core.httplog;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
-import javax.servlet.http.HttpServletResponseWrapper;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
-import org.springframework.util.ReflectionUtils;
-import org.springframework.web.filter.OncePerRequestFilter;
 
 public class HttpLoggingFilterTest {
 
     private HttpLoggingFilter filter;
 
-    @Mock
     private MockHttpServletRequest httpServletRequest;
 
-    @Mock
     private MockHttpServletResponse httpServletResponse;
 
     @Mock
@@ -41,122 +48,125 @@ public class HttpLoggingFilterTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        filter = new HttpLoggingFilter();
+        filter = Mockito.spy(new DebugHttpLoggingFilter());
+        httpServletRequest = new MockHttpServletRequest("GET", "/test");
+        httpServletResponse = new MockHttpServletResponse();
     }
 
     @Test
-    public void testThreadLocalVariableIsRemovedWhenNoExceptionIsThrown() throws Exception,
-                                                                          ServletException {
-        try {
-            filter.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
-        } catch (ServletException e) {
-            fail("Servlet exception caught");
-        } catch (IOException e) {
-            fail("IO Exception caught");
-        }
-
-        Field field = ReflectionUtils.findField(HttpLoggingFilter.class,
-                                                "threadLocalResponseWrapper");
-        field.setAccessible(true);
+    public void testStateIsKeptInRequestAttribute() throws Exception {
+        filter.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-        @SuppressWarnings("unchecked")
-        ThreadLocal<HttpServletResponseWrapper> thread = (ThreadLocal<HttpServletResponseWrapper>) ReflectionUtils.getField(field,
-                                                                                                                            filter);
+        ArgumentCaptor<ServletResponse> response = ArgumentCaptor.forClass(ServletResponse.class);
+        verify(filterChain).doFilter(any(ServletRequest.class), response.capture());
 
-        assertTrue(thread.get() == null);
+        HttpLoggingFilter.RequestLogState state = (HttpLoggingFilter.RequestLogState) httpServletRequest.getAttribute(HttpLoggingFilter.STATE_ATTRIBUTE);
+        assertSame(state.getResponse(), response.getValue());
     }
 
     @Test
-    public void testThreadLocalVariableIsRemovedWhenIOExceptionIsThrown() {
-
-        HttpLoggingFilter spy = Mockito.spy(new HttpLoggingFilter());
-
-        try {
+    public void testAsyncDispatchReusesResponseCopier() throws Exception {
+        HttpServletResponseCopier copier = new HttpServletResponseCopier(httpServletResponse);
+        httpServletRequest.setAttribute(HttpLoggingFilter.STATE_ATTRIBUTE,
+                                        new HttpLoggingFilter.RequestLogState(copier, System.nanoTime()));
 
-            doThrow(IOException.class).when((OncePerRequestFilter) spy).doFilter(httpServletRequest,
-                                                                                 httpServletResponse,
-                                                                                 filterChain);
-
-            spy.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
-        } catch (Exception e) {
-            assertTrue(e instanceof IOException);
-        }
-
-        Field field = ReflectionUtils.findField(HttpLoggingFilter.class,
-                                                "threadLocalResponseWrapper");
-        field.setAccessible(true);
-
-        @SuppressWarnings("unchecked")
-        ThreadLocal<HttpServletResponseWrapper> thread = (ThreadLocal<HttpServletResponseWrapper>) ReflectionUtils.getField(field,
-                                                                                                                            spy);
-
-        assertTrue(thread.get() == null);
+        filter.doFilterInternal(httpServletRequest, new MockHttpServletResponse(), filterChain);
 
+        verify(filterChain).doFilter(any(ServletRequest.class), eq(copier));
     }
 
     @Test
-    public void testThreadLocalVariableIsRemovedWhenServletExceptionIsThrown() {
+    public void testResponseIsLoggedWhenRequestCompletes() throws Exception {
+        doAnswer(invocation -> {
+            ((HttpServletResponse) invocation.getArguments()[1]).setStatus(201);
+            ((HttpServletResponse) invocation.getArguments()[1]).getOutputStream().write(new byte[3]);
+            return null;
+        }).when(filterChain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        filter.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+
+        verify(filter, times(1)).afterResponse(eq(httpServletRequest),
+                                               anyString(),
+                                               eq(201),
+                                               eq(3L),
+                                               anyLong());
+    }
 
-        HttpLoggingFilter spy = Mockito.spy(new HttpLoggingFilter());
+    @Test
+    public void testAsyncRequestIsLoggedWhenAsyncCompletes() throws Exception {
+        httpServletRequest.setAsyncSupported(true);
+        doAnswer(invocation -> {
+            ((HttpServletRequest) invocation.getArguments()[0]).startAsync();
+            return null;
+        }).when(filterChain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        filter.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+
+        verify(filter, never()).afterResponse(any(HttpServletRequest.class),
+                                              anyString(),
+                                              anyInt(),
+                                              anyLong(),
+                                              anyLong());
+
+        HttpLoggingFilter.RequestLogState state = (HttpLoggingFilter.RequestLogState) httpServletRequest.getAttribute(HttpLoggingFilter.STATE_ATTRIBUTE);
+        state.getResponse().setStatus(202);
+        ((MockAsyncContext) httpServletRequest.getAsyncContext()).complete();
+
+        verify(filter, times(1)).afterResponse(eq(httpServletRequest),
+                                               anyString(),
+                                               eq(202),
+                                               eq(0L),
+                                               anyLong());
+        assertEquals(1, ((MockAsyncContext) httpServletRequest.getAsyncContext()).getListeners().size());
+    }
 
+    @Test
+    public void testIOExceptionIsPropagated() throws Exception {
+        doThrow(IOException.class).when(filterChain).doFilter(any(ServletRequest.class),
+                                                              any(ServletResponse.class));
         try {
-
-            doThrow(ServletException.class).when((OncePerRequestFilter) spy)
-                                           .doFilter(httpServletRequest,
-                                                     httpServletResponse,
-                                                     filterChain);
-
-            spy.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
-        } catch (Exception e) {
-            assertTrue(e instanceof ServletException);
+            filter.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(httpServletRequest.getAttribute(HttpLoggingFilter.STATE_ATTRIBUTE) != null);
         }
-
-        Field field = ReflectionUtils.findField(HttpLoggingFilter.class,
-                                                "threadLocalResponseWrapper");
-        field.setAccessible(true);
-
-        @SuppressWarnings("unchecked")
-        ThreadLocal<HttpServletResponseWrapper> thread = (ThreadLocal<HttpServletResponseWrapper>) ReflectionUtils.getField(field,
-                                                                                                                            spy);
-
-        assertTrue(thread.get() == null);
     }
 
     @Test
-    public void testThreadLocalIsCalledForLoggingStatement() {
-        @SuppressWarnings("unchecked")
-        ThreadLocal<HttpServletResponseWrapper> thread = mock(ThreadLocal.class);
-        HttpServletResponseWrapper value = new HttpServletResponseWrapper(httpServletResponse);
-        value.setStatus(0);
-        when(thread.get()).thenReturn(value);
-
-        Field field = ReflectionUtils.findField(HttpLoggingFilter.class,
-                                                "threadLocalResponseWrapper");
-        field.setAccessible(true);
-
-        ReflectionUtils.setField(field, filter, thread);
+    public void testServletExceptionIsPropagated() throws Exception {
+        doThrow(ServletException.class).when(filterChain).doFilter(any(ServletRequest.class),
+                                                                   any(ServletResponse.class));
+        try {
+            filter.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+            fail("Expected ServletException");
+        } catch (ServletException e) {
+            verify(filter, times(1)).afterResponse(any(HttpServletRequest.class),
+                                                   anyString(),
+                                                   anyInt(),
+                                                   anyLong(),
+                                                   anyLong());
+        }
+    }
 
+    @Test
+    public void testResponseIsNotLoggedWithoutState() {
         filter.afterRequest(httpServletRequest, "Test");
 
-        verify(thread, times(2)).get();
+        verify(filter, never()).afterResponse(any(HttpServletRequest.class),
+                                              anyString(),
+                                              anyInt(),
+                                              anyLong(),
+                                              anyLong());
     }
-    
-    @Test
-    public void testThreadLocalIsNotCalledWhenEmpty() {
-        @SuppressWarnings("unchecked")
-        ThreadLocal<HttpServletResponseWrapper> thread = mock(ThreadLocal.class);
-        
-        when(thread.get()).thenReturn(null);
 
-        Field field = ReflectionUtils.findField(HttpLoggingFilter.class,
-                                                "threadLocalResponseWrapper");
-        field.setAccessible(true);
+    /**
+     * Logs whatever the configured log level.
+     */
+    private static class DebugHttpLoggingFilter extends HttpLoggingFilter {
 
-        ReflectionUtils.setField(field, filter, thread);
-
-        filter.afterRequest(httpServletRequest, "Test");
-
-        verify(thread, times(1)).get();
+        @Override
+        protected boolean shouldLog(final HttpServletRequest request) {
+            return true;
+        }
     }
-
 }
@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Before;
@@ -229,4 +230,28 @@ public class HttpServletResponseCopierTest {
     public void testGetResponseBodyReturnsErrorStringWhenEncodingNotUTF8() {
         assertEquals(HttpServletResponseCopier.FAILED_TO_BUFFER, servletResponseCopier.getResponseBody("UTF-9"));
     }
+    
+    @Test
+    public void testResponseBodyIsCappedAndSizeCounted() throws IOException {
+        servletResponseCopier = new HttpServletResponseCopier(springMockHttpServletResponse, 5);
+        
+        servletResponseCopier.getOutputStream().write("Hello World".getBytes("UTF-8"));
+        
+        assertEquals("Hello", servletResponseCopier.getResponseBody("UTF-8"));
+        assertEquals(11, servletResponseCopier.getBytesWritten());
+        assertEquals("Hello World", springMockHttpServletResponse.getContentAsString());
+    }
+    
+    @Test
+    public void testNonBlockingWritesAreDelegatedToResponseStream() throws IOException {
+        setUpWithMockitoMock();
+        WriteListener writeListener = mock(WriteListener.class);
+        when(servletOutputStream.isReady()).thenReturn(true);
+        
+        ServletOutputStream copier = servletResponseCopier.getOutputStream();
+        copier.setWriteListener(writeListener);
+        
+        assertTrue(copier.isReady());
+        verify(servletOutputStream).setWriteListener(writeListener);
+    }
 }
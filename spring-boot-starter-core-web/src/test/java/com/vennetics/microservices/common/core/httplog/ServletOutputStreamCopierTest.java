@@ -1,11 +1,22 @@
 package com.vennetics.microservices.common.core.httplog;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 
 import org.junit.Test;
 
@@ -33,7 +44,7 @@ public class ServletOutputStreamCopierTest {
     }
     
     @Test
-    public void testServletOutPutStreamIsNotReady() {
+    public void testPlainOutputStreamIsAlwaysReady() {
         
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         
@@ -44,6 +55,86 @@ public class ServletOutputStreamCopierTest {
             fail("Exception caught closing servletOutputStreamCopier");
         }
         
+        assertTrue(servletOutputStreamCopier.isReady());
+    }
+    
+    @Test
+    public void testWriteListenerIsToldAtOnceForPlainOutputStream() throws IOException {
+        WriteListener writeListener = mock(WriteListener.class);
+        
+        new ServletOutputStreamCopier(new ByteArrayOutputStream()).setWriteListener(writeListener);
+        
+        verify(writeListener).onWritePossible();
+    }
+    
+    @Test
+    public void testNonBlockingWritesAreDelegatedToContainerStream() throws IOException {
+        ServletOutputStream servletOutputStream = mock(ServletOutputStream.class);
+        WriteListener writeListener = mock(WriteListener.class);
+        when(servletOutputStream.isReady()).thenReturn(false).thenReturn(true);
+        
+        ServletOutputStreamCopier servletOutputStreamCopier = new ServletOutputStreamCopier(servletOutputStream);
+        servletOutputStreamCopier.setWriteListener(writeListener);
+        
+        verify(servletOutputStream).setWriteListener(writeListener);
+        verify(writeListener, never()).onWritePossible();
         assertFalse(servletOutputStreamCopier.isReady());
+        assertTrue(servletOutputStreamCopier.isReady());
+        
+        servletOutputStreamCopier.write(new byte[] {10}, 0, 1);
+        assertArrayEquals(new byte[] {10}, servletOutputStreamCopier.getCopy());
+    }
+    
+    @Test
+    public void testBulkWritesArePassedOnAndCopied() throws IOException {
+        OutputStream outputStream = mock(OutputStream.class);
+        byte[] bytes = "Hello World".getBytes("UTF-8");
+        
+        ServletOutputStreamCopier servletOutputStreamCopier = new ServletOutputStreamCopier(outputStream);
+        servletOutputStreamCopier.write(bytes, 6, 5);
+        
+        verify(outputStream).write(bytes, 6, 5);
+        assertEquals("World", servletOutputStreamCopier.getCopyAsString("UTF-8"));
+        assertEquals(5, servletOutputStreamCopier.getBytesWritten());
+    }
+    
+    @Test
+    public void testCopyStopsAtCap() throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        
+        ServletOutputStreamCopier servletOutputStreamCopier = new ServletOutputStreamCopier(byteArrayOutputStream, 4);
+        servletOutputStreamCopier.write("abc".getBytes("UTF-8"));
+        servletOutputStreamCopier.write("def".getBytes("UTF-8"));
+        servletOutputStreamCopier.write('g');
+        
+        assertEquals("abcdefg", byteArrayOutputStream.toString("UTF-8"));
+        assertArrayEquals("abcd".getBytes("UTF-8"), servletOutputStreamCopier.getCopy());
+        assertEquals(7, servletOutputStreamCopier.getBytesWritten());
+        assertTrue(servletOutputStreamCopier.isTruncated());
+    }
+    
+    @Test
+    public void testCopyViewIsReadOnlyCapturedPrefix() throws IOException {
+        ServletOutputStreamCopier servletOutputStreamCopier = new ServletOutputStreamCopier(new ByteArrayOutputStream());
+        servletOutputStreamCopier.write("abc".getBytes("UTF-8"));
+        
+        ByteBuffer view = servletOutputStreamCopier.getCopyView();
+        
+        assertTrue(view.isReadOnly());
+        assertEquals(3, view.remaining());
+        assertEquals('a', view.get());
+        assertFalse(servletOutputStreamCopier.isTruncated());
+    }
+    
+    @Test
+    public void testFlushAndCloseAreDelegated() throws IOException {
+        OutputStream outputStream = mock(OutputStream.class);
+        
+        ServletOutputStreamCopier servletOutputStreamCopier = new ServletOutputStreamCopier(outputStream);
+        servletOutputStreamCopier.flush();
+        servletOutputStreamCopier.close();
+        
+        verify(outputStream).flush();
+        verify(outputStream).close();
     }
 }